@@ -16,6 +16,7 @@
 
 package io.github.clearwsd;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -39,4 +40,20 @@ public interface SensePredictor<S> {
      */
     List<SensePrediction<S>> predict(List<String> sentence);
 
+    /**
+     * Given a batch of tokenized sentences, return a list of {@link SensePrediction sense predictions} for each sentence, in the
+     * same order as the input sentences. Implementations may process sentences in parallel, or group predictions across
+     * sentences, so this should be preferred to {@link #predict(List)} when many sentences are available at once.
+     *
+     * @param sentences tokenized sentences
+     * @return list of sense predictions for each sentence
+     */
+    default List<List<SensePrediction<S>>> predictBatch(List<List<String>> sentences) {
+        List<List<SensePrediction<S>>> results = new ArrayList<>(sentences.size());
+        for (List<String> sentence : sentences) {
+            results.add(predict(sentence));
+        }
+        return results;
+    }
+
 }
@@ -16,6 +16,7 @@
 
 package io.github.clearwsd.parser;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import io.github.clearwsd.type.DepTree;
@@ -26,7 +27,7 @@ import io.github.clearwsd.type.DepTree;
  *
  * @author jamesgung
  */
-public interface NlpParser extends NlpTokenizer {
+public interface NlpParser extends NlpTokenizer, AutoCloseable {
 
     /**
      * Parse a single tokenized sentence, producing an {@link DepTree}.
@@ -36,4 +37,27 @@ public interface NlpParser extends NlpTokenizer {
      */
     DepTree parse(List<String> tokens);
 
+    /**
+     * Parse a batch of tokenized sentences. Implementations may override this to share work across sentences or to parse
+     * sentences in parallel; by default, sentences are parsed one at a time.
+     *
+     * @param sentences tokenized sentences
+     * @return syntactic dependency trees, in input order
+     */
+    default List<DepTree> parseBatch(List<List<String>> sentences) {
+        List<DepTree> trees = new ArrayList<>(sentences.size());
+        for (List<String> sentence : sentences) {
+            trees.add(parse(sentence));
+        }
+        return trees;
+    }
+
+    /**
+     * Release resources held by this parser, such as worker threads. By default, does nothing.
+     */
+    @Override
+    default void close() {
+        // nothing to release by default
+    }
+
 }
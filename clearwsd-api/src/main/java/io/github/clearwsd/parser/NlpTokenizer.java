@@ -16,11 +16,13 @@
 
 package io.github.clearwsd.parser;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Tokenizer/sentence segmenter for natural language text. Splits text into sentences with {@link NlpTokenizer#segment(String)},
- * and further splits an individual sentence into a list of tokens through {@link NlpTokenizer#tokenize(String)}.
+ * and further splits an individual sentence into a list of tokens through {@link NlpTokenizer#tokenize(String)}. Both steps
+ * can be performed in a single pass with {@link NlpTokenizer#segmentTokens(String)}.
  *
  * @author jamesgung
  */
@@ -42,4 +44,33 @@ public interface NlpTokenizer {
      */
     List<String> tokenize(String sentence);
 
+    /**
+     * Split raw input text into tokenized sentences, with the character offsets of each token in the input. Implementations
+     * that tokenize during segmentation should override this to avoid tokenizing each sentence twice. By default, each sentence
+     * from {@link #segment(String)} is tokenized, and tokens are aligned to the input by searching for their text.
+     *
+     * @param input input text
+     * @return list of tokenized sentences
+     */
+    default List<TokenizedSentence> segmentTokens(String input) {
+        List<TokenizedSentence> results = new ArrayList<>();
+        int offset = 0;
+        for (String sentence : segment(input)) {
+            List<String> tokens = tokenize(sentence);
+            int[] begins = new int[tokens.size()];
+            int[] ends = new int[tokens.size()];
+            for (int i = 0; i < tokens.size(); ++i) {
+                int begin = input.indexOf(tokens.get(i), offset);
+                if (begin < 0) {
+                    begins[i] = ends[i] = -1;
+                    continue;
+                }
+                begins[i] = begin;
+                ends[i] = offset = begin + tokens.get(i).length();
+            }
+            results.add(new TokenizedSentence(tokens, begins, ends));
+        }
+        return results;
+    }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tokens of a single sentence, along with the character offsets of each token in the text the sentence was segmented from.
+ * Offsets are -1 for tokens that could not be aligned to the original text.
+ *
+ * @author jamesgung
+ */
+public class TokenizedSentence {
+
+    private final List<String> tokens;
+    private final int[] begins;
+    private final int[] ends;
+
+    /**
+     * Initialize a tokenized sentence.
+     *
+     * @param tokens list of tokens
+     * @param begins character offset of the start of each token
+     * @param ends   character offset following the end of each token
+     */
+    public TokenizedSentence(List<String> tokens, int[] begins, int[] ends) {
+        if (tokens.size() != begins.length || tokens.size() != ends.length) {
+            throw new IllegalArgumentException("Expected one begin and end offset for each of " + tokens.size() + " tokens");
+        }
+        this.tokens = Collections.unmodifiableList(tokens);
+        this.begins = begins;
+        this.ends = ends;
+    }
+
+    /**
+     * Return the list of tokens in this sentence.
+     */
+    public List<String> tokens() {
+        return tokens;
+    }
+
+    /**
+     * Return the number of tokens in this sentence.
+     */
+    public int size() {
+        return tokens.size();
+    }
+
+    /**
+     * Return the character offset of the start of a given token, or -1 if not aligned to the original text.
+     *
+     * @param index token index
+     */
+    public int begin(int index) {
+        return begins[index];
+    }
+
+    /**
+     * Return the character offset following the end of a given token, or -1 if not aligned to the original text.
+     *
+     * @param index token index
+     */
+    public int end(int index) {
+        return ends[index];
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" ", tokens);
+    }
+
+}
@@ -28,4 +28,12 @@ public interface DepTree extends NlpSequence<DepNode> {
      */
     DepNode root();
 
+    /**
+     * Set the index of this dependency tree, such as its position in a corpus.
+     *
+     * @param index tree index
+     * @return this dependency tree
+     */
+    DepTree index(int index);
+
 }
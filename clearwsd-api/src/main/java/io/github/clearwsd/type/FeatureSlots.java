@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.type;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide registry assigning small integer slots to feature keys, so that features can be stored in and retrieved from
+ * arrays rather than hashed by key on every access. Slots for each {@link FeatureType} are fixed to its ordinal. Other keys
+ * (such as resource keys) are registered once, e.g. when initializing an annotator or feature extractor, up to a fixed
+ * capacity, after which keys are left unregistered and stored by key.
+ *
+ * @author jamesgung
+ */
+public final class FeatureSlots {
+
+    /**
+     * Maximum number of registered slots.
+     */
+    public static final int CAPACITY = 256;
+
+    private static final Map<String, Integer> SLOTS = new ConcurrentHashMap<>();
+    private static volatile String[] keys = new String[0];
+
+    static {
+        for (FeatureType featureType : FeatureType.values()) {
+            register(featureType.name());
+        }
+    }
+
+    private FeatureSlots() {
+        throw new AssertionError("Utility class, should never be instantiated.");
+    }
+
+    /**
+     * Return the slot for a given key, or -1 if the key is not registered.
+     *
+     * @param key feature key
+     * @return feature slot
+     */
+    public static int slot(String key) {
+        Integer slot = SLOTS.get(key);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Return the slot for a given key, registering it if necessary. Returns -1 if the registry is full.
+     *
+     * @param key feature key
+     * @return feature slot
+     */
+    public static synchronized int register(String key) {
+        Integer slot = SLOTS.get(key);
+        if (slot != null) {
+            return slot;
+        }
+        if (keys.length == CAPACITY) {
+            return -1;
+        }
+        String[] updated = Arrays.copyOf(keys, keys.length + 1);
+        updated[keys.length] = key;
+        keys = updated;
+        SLOTS.put(key, keys.length - 1);
+        return keys.length - 1;
+    }
+
+    /**
+     * Return the key for a given slot.
+     *
+     * @param slot feature slot
+     * @return feature key
+     */
+    public static String key(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Number of registered slots.
+     */
+    public static int size() {
+        return keys.length;
+    }
+
+}
@@ -72,4 +72,27 @@ public interface NlpInstance {
      */
     <T> void addFeature(String featureKey, T value);
 
+    /**
+     * Return the feature stored in a given {@link FeatureSlots feature slot}. Implementations may override this to avoid looking
+     * features up by key.
+     *
+     * @param slot feature slot
+     * @param <T>  type of resulting feature
+     * @return feature value
+     */
+    default <T> T feature(int slot) {
+        return feature(FeatureSlots.key(slot));
+    }
+
+    /**
+     * Add a feature to this instance in a given {@link FeatureSlots feature slot}.
+     *
+     * @param slot  feature slot
+     * @param value feature value
+     * @param <T>   value type
+     */
+    default <T> void addFeature(int slot, T value) {
+        addFeature(FeatureSlots.key(slot), value);
+    }
+
 }
@@ -62,9 +62,9 @@ import io.github.clearwsd.feature.function.ConjunctionFunction;
 import io.github.clearwsd.feature.function.FeatureFunction;
 import io.github.clearwsd.feature.function.MultiStringFeatureFunction;
 import io.github.clearwsd.feature.function.StringFeatureFunction;
-import io.github.clearwsd.feature.pipeline.DefaultFeaturePipeline;
 import io.github.clearwsd.feature.pipeline.FeaturePipeline;
 import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.feature.pipeline.TemplateFeaturePipeline;
 import io.github.clearwsd.feature.resource.DynamicDependencyNeighborsResource;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
@@ -243,7 +243,7 @@ public class VerbNetExperiment {
         features.add(new StringFeatureFunction<>(rootPathContext, depPathExtractors));
         features.add(new BiasFeatureFunction<>());
 
-        return new DefaultFeaturePipeline<>(new AggregateFeatureFunction<>(features));
+        return new TemplateFeaturePipeline<>(new AggregateFeatureFunction<>(features));
     }
 
     public static void main(String... args) throws IOException {
@@ -67,6 +67,7 @@ import io.github.clearwsd.corpus.CorpusReader;
 import io.github.clearwsd.corpus.TextCorpusReader;
 import io.github.clearwsd.corpus.semlink.VerbNetReader;
 import io.github.clearwsd.feature.annotator.Annotator;
+import io.github.clearwsd.parser.PooledNlpParser;
 import io.github.clearwsd.parser.StanfordDependencyParser;
 import io.github.clearwsd.verbnet.DefaultPredicateAnnotator;
 import edu.stanford.nlp.util.Comparators;
@@ -155,6 +156,8 @@ public class VerbSenseArgumentCounter {
     private boolean overwrite = false;
     @Parameter(names = "--parseOnly", description = "Only parse, don't count or apply annotator")
     private boolean parseOnly = false;
+    @Parameter(names = "-threads", description = "Number of threads used to parse raw files")
+    private int threads = Runtime.getRuntime().availableProcessors();
     @Parameter(names = "--reparse", description = "Parse even if there is an existing parsed file")
     private boolean reparse = false;
 
@@ -279,8 +282,9 @@ public class VerbSenseArgumentCounter {
                 .collect(Collectors.toList());
         if (toParse.size() > 0) {
             log.debug("Found {} files ending in {} at {}", toParse.size(), rawExt, corpusPath);
-            TextCorpusReader reader = new TextCorpusReader(new StanfordDependencyParser());
-            toParse.parallelStream().forEach(
+            TextCorpusReader reader = new TextCorpusReader(new PooledNlpParser(StanfordDependencyParser::new, threads))
+                    .threads(threads);
+            toParse.forEach(
                     file -> {
                         if (!parsed.contains(file.getPath())) {
                             try (FileInputStream inputStream = new FileInputStream(file);
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous {@link SensePredictor} wrapper, applying a threadsafe predictor (such as a {@link DefaultSensePredictor} with a
+ * threadsafe parser) on a bounded pool of threads. Requests wait in a bounded queue, and a {@link RejectionPolicy} determines
+ * what happens when the queue is full, so that producers cannot cause unbounded memory growth.
+ *
+ * @param <T> sense type
+ * @author jamesgung
+ */
+@Slf4j
+public class AsyncSensePredictor<T> implements SensePredictor<T>, AutoCloseable {
+
+    /**
+     * Policy applied to requests submitted while the queue is full.
+     */
+    public enum RejectionPolicy {
+        /**
+         * Block the submitting thread until there is space in the queue.
+         */
+        Block,
+        /**
+         * Run the request on the submitting thread.
+         */
+        CallerRuns,
+        /**
+         * Fail the request with a {@link RejectedExecutionException}.
+         */
+        Abort
+    }
+
+    private final SensePredictor<T> predictor;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Initialize an asynchronous predictor.
+     *
+     * @param predictor     threadsafe sense predictor
+     * @param threads       number of prediction threads
+     * @param queueCapacity maximum number of requests waiting for a thread
+     * @param policy        policy for requests submitted while the queue is full
+     */
+    public AsyncSensePredictor(SensePredictor<T> predictor, int threads, int queueCapacity, RejectionPolicy policy) {
+        Preconditions.checkArgument(threads > 0, "Number of threads must be positive, got %s", threads);
+        Preconditions.checkArgument(queueCapacity > 0, "Queue capacity must be positive, got %s", queueCapacity);
+        this.predictor = predictor;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat("sense-predictor-%d").setDaemon(true).build(),
+                rejectionHandler(policy));
+    }
+
+    /**
+     * Initialize an asynchronous predictor that blocks producers when more than a fixed number of requests per thread are queued.
+     *
+     * @param predictor threadsafe sense predictor
+     * @param threads   number of prediction threads
+     */
+    public AsyncSensePredictor(SensePredictor<T> predictor, int threads) {
+        this(predictor, threads, 16 * threads, RejectionPolicy.Block);
+    }
+
+    /**
+     * Submit a tokenized sentence for sense prediction.
+     *
+     * @param sentence tokenized sentence
+     * @return future list of sense predictions
+     */
+    public CompletableFuture<List<SensePrediction<T>>> predictAsync(List<String> sentence) {
+        Request request = new Request(sentence);
+        inFlight.incrementAndGet();
+        try {
+            executor.execute(request);
+        } catch (RejectedExecutionException e) {
+            request.reject(e);
+        }
+        return request.future;
+    }
+
+    @Override
+    public List<SensePrediction<T>> predict(List<String> sentence) {
+        return predictAsync(sentence).join();
+    }
+
+    @Override
+    public List<List<SensePrediction<T>>> predictBatch(List<List<String>> sentences) {
+        List<CompletableFuture<List<SensePrediction<T>>>> futures = new ArrayList<>(sentences.size());
+        for (List<String> sentence : sentences) {
+            futures.add(predictAsync(sentence));
+        }
+        List<List<SensePrediction<T>>> results = new ArrayList<>(sentences.size());
+        for (CompletableFuture<List<SensePrediction<T>>> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Number of requests waiting in the queue.
+     */
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Number of requests submitted and not yet completed, including queued requests.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Number of requests currently being processed.
+     */
+    public int active() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Total number of completed requests, including failed requests.
+     */
+    public long completed() {
+        return completed.get();
+    }
+
+    /**
+     * Total number of requests rejected due to a full queue or shutdown.
+     */
+    public long rejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Stop accepting requests, and wait for queued and running requests to complete. If they do not complete within a minute,
+     * running requests are interrupted, and queued requests fail with a {@link RejectedExecutionException}.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Timed out waiting for {} sense prediction requests to complete.", inFlight.get());
+                shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shutdownNow();
+        }
+    }
+
+    private void shutdownNow() {
+        // complete queued requests that will never run, so that callers waiting on them are released
+        for (Runnable runnable : executor.shutdownNow()) {
+            ((Request) runnable).reject(new RejectedExecutionException("Sense predictor was shut down before the request ran."));
+        }
+    }
+
+    /**
+     * Sense prediction request, completing its future when run or rejected.
+     */
+    private final class Request implements Runnable {
+
+        private final List<String> sentence;
+        private final CompletableFuture<List<SensePrediction<T>>> future = new CompletableFuture<>();
+
+        Request(List<String> sentence) {
+            this.sentence = sentence;
+        }
+
+        @Override
+        public void run() {
+            List<SensePrediction<T>> result;
+            try {
+                result = predictor.predict(sentence);
+            } catch (Throwable e) {
+                inFlight.decrementAndGet();
+                completed.incrementAndGet();
+                future.completeExceptionally(e);
+                return;
+            }
+            // update gauges before completing, so that they are consistent for callers waiting on the result
+            inFlight.decrementAndGet();
+            completed.incrementAndGet();
+            future.complete(result);
+        }
+
+        void reject(RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            rejected.incrementAndGet();
+            future.completeExceptionally(e);
+        }
+
+    }
+
+    private static RejectedExecutionHandler rejectionHandler(RejectionPolicy policy) {
+        switch (policy) {
+            case CallerRuns:
+                return (runnable, executor) -> {
+                    checkRunning(executor);
+                    runnable.run();
+                };
+            case Abort:
+                return new ThreadPoolExecutor.AbortPolicy();
+            default:
+                return (runnable, executor) -> {
+                    checkRunning(executor);
+                    try {
+                        executor.getQueue().put(runnable);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting to submit request.", e);
+                    }
+                    // shut down while waiting, in which case workers may have already exited without running the request
+                    if (executor.isShutdown() && executor.getQueue().remove(runnable)) {
+                        throw new RejectedExecutionException("Sense predictor has been shut down.");
+                    }
+                };
+        }
+    }
+
+    private static void checkRunning(ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Sense predictor has been shut down.");
+        }
+    }
+
+}
@@ -16,30 +16,96 @@
 
 package io.github.clearwsd;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.parser.PooledNlpParser;
+import io.github.clearwsd.parser.TokenizedSentence;
+import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
 import io.github.clearwsd.utils.SenseInventory;
-import lombok.AllArgsConstructor;
 
 /**
  * Parser wrapper that applies word sense annotations via a {@link WordSenseAnnotator} to inputs following parsing.
+ * <p>
+ * Batches of sentences passed to {@link #predictBatch(List)} are parsed through the dependency parser's
+ * {@link NlpParser#parseBatch(List)}, such as in parallel given a {@link PooledNlpParser} of more than one instance (see
+ * {@link #BaseSensePredictor(WordSenseAnnotator, Supplier, int)}). Resources held by the parser, such as parsing threads, are
+ * released on {@link #close()}.
  *
  * @param <T> sense type
  * @author jamesgung
  */
-@AllArgsConstructor
 public abstract class BaseSensePredictor<T> implements NlpParser, SensePredictor<T> {
 
     protected WordSenseAnnotator annotator;
     protected NlpParser dependencyParser;
 
+    public BaseSensePredictor(WordSenseAnnotator annotator, NlpParser dependencyParser) {
+        this.annotator = annotator;
+        this.dependencyParser = dependencyParser;
+    }
+
+    /**
+     * Initialize a sense predictor with a pool of independent parser instances, used to parse batches in parallel.
+     *
+     * @param annotator     word sense annotator
+     * @param parserFactory parser factory, called once per pooled instance
+     * @param parsers       number of parser instances
+     */
+    public BaseSensePredictor(WordSenseAnnotator annotator, Supplier<NlpParser> parserFactory, int parsers) {
+        this(annotator, new PooledNlpParser(parserFactory, parsers));
+    }
+
     @Override
     public DepTree parse(List<String> tokens) {
         return annotator.annotate(dependencyParser.parse(tokens));
     }
 
+    /**
+     * Parse and annotate a batch of tokenized sentences. Sentences are parsed by the dependency parser's
+     * {@link NlpParser#parseBatch(List)}, then sense annotations are applied across the batch, grouped by predicate.
+     *
+     * @param sentences tokenized sentences
+     * @return annotated dependency trees, in input order
+     */
+    @Override
+    public List<DepTree> parseBatch(List<List<String>> sentences) {
+        return annotator.annotate(dependencyParser.parseBatch(sentences));
+    }
+
+    @Override
+    public List<List<SensePrediction<T>>> predictBatch(List<List<String>> sentences) {
+        List<List<SensePrediction<T>>> results = new ArrayList<>(sentences.size());
+        for (DepTree depTree : parseBatch(sentences)) {
+            results.add(predictions(depTree));
+        }
+        return results;
+    }
+
+    /**
+     * Return sense predictions for each sense-annotated token in a dependency tree.
+     *
+     * @param depTree annotated dependency tree
+     * @return list of sense predictions
+     */
+    protected List<SensePrediction<T>> predictions(DepTree depTree) {
+        List<SensePrediction<T>> predictions = new ArrayList<>();
+        for (DepNode token : depTree) {
+            String sense = token.feature(FeatureType.Sense);
+            if (sense != null) {
+                predictions.add(new DefaultSensePrediction<>(
+                        token.index(),
+                        token.feature(FeatureType.Text),
+                        sense, senseInventory().getSense(sense)));
+            }
+        }
+        return predictions;
+    }
+
     @Override
     public List<String> segment(String input) {
         return dependencyParser.segment(input);
@@ -50,6 +116,16 @@ public abstract class BaseSensePredictor<T> implements NlpParser, SensePredictor
         return dependencyParser.tokenize(sentence);
     }
 
+    @Override
+    public List<TokenizedSentence> segmentTokens(String input) {
+        return dependencyParser.segmentTokens(input);
+    }
+
+    @Override
+    public void close() {
+        dependencyParser.close();
+    }
+
     /**
      * Return the {@link SenseInventory} associated with this sense predictor.
      */
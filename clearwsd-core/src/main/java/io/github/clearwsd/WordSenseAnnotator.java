@@ -16,6 +16,10 @@
 
 package io.github.clearwsd;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 import io.github.clearwsd.classifier.Classifier;
 import io.github.clearwsd.feature.annotator.Annotator;
 import io.github.clearwsd.type.DefaultNlpFocus;
@@ -75,6 +79,32 @@ public class WordSenseAnnotator implements Annotator<DepTree> {
         return instance;
     }
 
+    /**
+     * Annotate a batch of dependency trees. Target instances from all trees are classified together, grouped by predicate, so
+     * that each predicate-specific model is applied to all of its instances in turn.
+     *
+     * @param instances dependency trees
+     * @return annotated dependency trees, in input order
+     */
+    public List<DepTree> annotate(List<DepTree> instances) {
+        List<DepTree> results = new ArrayList<>(instances.size());
+        List<NlpFocus<DepNode, DepTree>> targets = new ArrayList<>();
+        for (DepTree instance : instances) {
+            DepTree annotated = targetAnnotator.annotate(instance);
+            results.add(annotated);
+            for (DepNode token : annotated) {
+                if (token.feature(FeatureType.Predicate) != null) {
+                    targets.add(new DefaultNlpFocus<>(token.index(), token, annotated));
+                }
+            }
+        }
+        targets.sort(Comparator.comparing(target -> target.focus().feature(FeatureType.Predicate)));
+        for (NlpFocus<DepNode, DepTree> target : targets) {
+            target.focus().addFeature(annotationType, classifier.classify(target));
+        }
+        return results;
+    }
+
     @Override
     public boolean initialized() {
         return targetAnnotator.initialized();
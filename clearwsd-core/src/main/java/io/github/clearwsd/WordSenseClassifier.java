@@ -16,10 +16,16 @@
 
 package io.github.clearwsd;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -27,7 +33,13 @@ import java.util.Set;
 import java.util.stream.Stream;
 
 import io.github.clearwsd.classifier.Classifier;
+import io.github.clearwsd.classifier.ClassifierSections;
 import io.github.clearwsd.classifier.Hyperparameter;
+import io.github.clearwsd.classifier.LabelScores;
+import io.github.clearwsd.classifier.ModelFile;
+import io.github.clearwsd.classifier.ModelFileWriter;
+import io.github.clearwsd.classifier.SubModelCache;
+import io.github.clearwsd.feature.pipeline.NlpClassifierCodec;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
@@ -42,6 +54,12 @@ import static io.github.clearwsd.type.FeatureType.Predicate;
 
 /**
  * Word sense classifier--restricts predictions to classes provided by a given sense inventory.
+ * <p>
+ * Classifiers are saved as versioned binary {@link ModelFile model files} (see {@link #save(Path)}), with sections for the
+ * predicate dictionary, sense inventory and classifier, in which the per-predicate sub-models of a classifier are stored as
+ * independent records. Models saved with Java serialization through {@link #save(ObjectOutputStream)} can still be loaded,
+ * and converted using {@link io.github.clearwsd.app.ModelConverter}. Per-predicate sub-models are read from model files on
+ * demand, and may be held in a memory-bounded {@link SubModelCache} (see {@link #load(Path, SubModelCache)}).
  *
  * @author jamesgung
  */
@@ -52,6 +70,12 @@ public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree
 
     private static final long serialVersionUID = -7555582268789530929L;
 
+    private static final ThreadLocal<LabelScores> SCORES = ThreadLocal.withInitial(LabelScores::new);
+
+    private static final String DICTIONARY_SECTION = "dictionary";
+    private static final String INVENTORY_SECTION = "inventory";
+    private static final String CLASSIFIER_SECTION = "classifier";
+
     private Classifier<NlpFocus<DepNode, DepTree>, String> classifier;
     private SenseInventory<?> senseInventory;
     private LemmaDictionary predicateDictionary;
@@ -60,17 +84,23 @@ public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree
         load(is);
     }
 
+    public WordSenseClassifier(ModelFile file) {
+        load(file);
+    }
+
+    public WordSenseClassifier(ModelFile file, SubModelCache cache) {
+        load(file, cache);
+    }
+
     @Override
     public String classify(NlpFocus<DepNode, DepTree> instance) {
         String lemma = instance.focus().feature(Predicate);
         Set<String> options = senseInventory.senses(lemma);
-        Map<String, Double> scores = classifier.score(instance);
-        return scores.entrySet().stream()
-                .filter(e -> options.contains(e.getKey()))
-                .sorted((e1, e2) -> Double.compare(e2.getValue(), e1.getValue()))
-                .map(Map.Entry::getKey)
-                .findFirst() // get highest scoring sense for a given predicate
-                .orElse(senseInventory.defaultSense(lemma)); // or return the default sense for the predicate
+        LabelScores scores = SCORES.get();
+        classifier.score(instance, scores, options); // only score senses available for a given predicate
+        int max = scores.argMax();
+        // get highest scoring sense, or return the default sense for the predicate
+        return max < 0 ? senseInventory.defaultSense(lemma) : scores.name(max);
     }
 
     @Override
@@ -78,6 +108,16 @@ public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree
         return classifier.score(instance);
     }
 
+    @Override
+    public void score(NlpFocus<DepNode, DepTree> instance, LabelScores scores) {
+        classifier.score(instance, scores);
+    }
+
+    @Override
+    public void score(NlpFocus<DepNode, DepTree> instance, LabelScores scores, Set<String> candidates) {
+        classifier.score(instance, scores, candidates);
+    }
+
     @Override
     public void train(List<NlpFocus<DepNode, DepTree>> train, List<NlpFocus<DepNode, DepTree>> valid) {
         predicateDictionary.train(true);
@@ -123,14 +163,104 @@ public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree
     }
 
     /**
-     * Load/initialize a word sense classifier from a provided {@link URL}.
+     * Initialize this classifier from a model file.
+     *
+     * @param file model file
+     */
+    public void load(ModelFile file) {
+        load(file, null);
+    }
+
+    /**
+     * Initialize this classifier from a model file, holding sub-models in a memory-bounded cache as they are read.
+     *
+     * @param file  model file
+     * @param cache sub-model cache, or null to retain every sub-model once read
+     */
+    public void load(ModelFile file, SubModelCache cache) {
+        predicateDictionary = LemmaDictionary.read(file.section(DICTIONARY_SECTION));
+        senseInventory = ModelFile.readObject(file.section(INVENTORY_SECTION));
+        classifier = ClassifierSections.read(file, CLASSIFIER_SECTION, NlpClassifierCodec::new, cache);
+    }
+
+    /**
+     * Save this classifier to a model file.
+     *
+     * @param writer model file writer
+     */
+    public void save(ModelFileWriter writer) {
+        try {
+            predicateDictionary.write(writer.section(DICTIONARY_SECTION));
+            ModelFile.writeObject(writer.section(INVENTORY_SECTION), senseInventory);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to save classifier: " + e.getMessage(), e);
+        }
+        ClassifierSections.write(writer, CLASSIFIER_SECTION, classifier, NlpClassifierCodec::new);
+    }
+
+    /**
+     * Save this classifier to a model file at a given path.
+     *
+     * @param path model file path
+     */
+    public void save(Path path) {
+        try (ModelFileWriter writer = new ModelFileWriter(Files.newOutputStream(path))) {
+            save(writer);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to save classifier model to " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Load/initialize a word sense classifier from a model file at a given path, which may be a {@link ModelFile} (which is
+     * memory-mapped) or a model saved using Java serialization.
+     *
+     * @param path path to classifier model
+     * @return initialized word sense classifier
+     */
+    public static WordSenseClassifier load(Path path) {
+        return load(path, null);
+    }
+
+    /**
+     * Load/initialize a word sense classifier from a model file at a given path, holding sub-models in a memory-bounded cache
+     * as they are read. Models saved using Java serialization are loaded in full, without a cache.
+     *
+     * @param path  path to classifier model
+     * @param cache sub-model cache, or null to retain every sub-model once read
+     * @return initialized word sense classifier
+     */
+    public static WordSenseClassifier load(Path path, SubModelCache cache) {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(path))) {
+            if (!isModelFile(inputStream)) {
+                return new WordSenseClassifier(new ObjectInputStream(inputStream));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to load classifier model at " + path + ": " + e.getMessage(), e);
+        }
+        return new WordSenseClassifier(ModelFile.open(path), cache);
+    }
+
+    /**
+     * Load/initialize a word sense classifier from a provided {@link URL}, which may be a {@link ModelFile} or a model saved
+     * using Java serialization.
      *
      * @param path path to classifier model
      * @return initialized word sense classifier
      */
     public static WordSenseClassifier load(URL path) {
-        try (ObjectInputStream objectInputStream = new ObjectInputStream(path.openStream())) {
-            return new WordSenseClassifier(objectInputStream);
+        if ("file".equals(path.getProtocol())) {
+            try {
+                return load(Paths.get(path.toURI()));
+            } catch (URISyntaxException e) {
+                throw new RuntimeException("Invalid classifier model path " + path + ": " + e.getMessage(), e);
+            }
+        }
+        try (InputStream inputStream = new BufferedInputStream(path.openStream())) {
+            if (isModelFile(inputStream)) {
+                return new WordSenseClassifier(ModelFile.read(inputStream));
+            }
+            return new WordSenseClassifier(new ObjectInputStream(inputStream));
         } catch (IOException e) {
             throw new RuntimeException("Unable to load classifier model at " + path.getPath() + ": " + e.getMessage(), e);
         }
@@ -146,4 +276,19 @@ public class WordSenseClassifier implements Classifier<NlpFocus<DepNode, DepTree
         return load(WordSenseClassifier.class.getClassLoader().getResource(resource));
     }
 
+    private static boolean isModelFile(InputStream inputStream) throws IOException {
+        byte[] header = new byte[Integer.BYTES];
+        inputStream.mark(header.length);
+        int read = 0;
+        while (read < header.length) {
+            int count = inputStream.read(header, read, header.length - read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
+        }
+        inputStream.reset();
+        return read == header.length && ModelFile.isModelFile(header);
+    }
+
 }
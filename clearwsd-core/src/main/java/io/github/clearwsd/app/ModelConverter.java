@@ -0,0 +1,82 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.app;
+
+import com.google.common.base.Stopwatch;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import io.github.clearwsd.WordSenseClassifier;
+import io.github.clearwsd.classifier.ModelFile;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Converter from word sense classifier models saved with Java serialization (such as the bundled {@code .bin} models) to the
+ * versioned binary {@link ModelFile} format.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+public class ModelConverter {
+
+    @Parameter(names = {"-input", "-i"}, description = "Path to input model saved with Java serialization", required = true)
+    private String inputPath;
+    @Parameter(names = {"-output", "-o"}, description = "Output model file path", required = true)
+    private String outputPath;
+
+    private ModelConverter(String... args) {
+        JCommander cmd = new JCommander(this);
+        cmd.setProgramName(this.getClass().getSimpleName());
+        try {
+            cmd.parse(args);
+        } catch (ParameterException e) {
+            System.err.println(e.getMessage());
+            cmd.usage();
+            System.exit(1);
+        }
+    }
+
+    private void run() {
+        Path input = Paths.get(inputPath);
+        Path output = Paths.get(outputPath).toAbsolutePath();
+        Stopwatch sw = Stopwatch.createStarted();
+        WordSenseClassifier classifier = WordSenseClassifier.load(input);
+        log.info("Loaded model from {} in {}", input, sw);
+        try {
+            Files.createDirectories(output.getParent());
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to write to directory at " + output.getParent(), e);
+        }
+        sw.reset().start();
+        classifier.save(output);
+        log.info("Saved model to {} in {}", output, sw);
+        sw.reset().start();
+        WordSenseClassifier.load(output);
+        log.info("Loaded converted model in {}", sw);
+    }
+
+    public static void main(String[] args) {
+        new ModelConverter(args).run();
+    }
+
+}
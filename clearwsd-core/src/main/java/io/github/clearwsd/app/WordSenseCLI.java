@@ -25,20 +25,23 @@ import com.beust.jcommander.ParameterException;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.io.PrintWriter;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
@@ -47,7 +50,9 @@ import java.util.stream.Collectors;
 import io.github.clearwsd.DefaultSensePredictor;
 import io.github.clearwsd.WordSenseAnnotator;
 import io.github.clearwsd.WordSenseClassifier;
+import io.github.clearwsd.classifier.SubModelCache;
 import io.github.clearwsd.corpus.CoNllDepTreeReader;
+import io.github.clearwsd.corpus.CoNllDepTreeReader.MappedTreeIterator;
 import io.github.clearwsd.corpus.CorpusReader;
 import io.github.clearwsd.corpus.TextCorpusReader;
 import io.github.clearwsd.corpus.semeval.ParsingSemevalReader;
@@ -57,8 +62,12 @@ import io.github.clearwsd.corpus.semlink.VerbNetReader;
 import io.github.clearwsd.eval.CrossValidation;
 import io.github.clearwsd.eval.Evaluation;
 import io.github.clearwsd.eval.Predictions;
+import io.github.clearwsd.parser.CachingNlpParser;
 import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.parser.NlpTokenizer;
+import io.github.clearwsd.parser.PooledNlpParser;
 import io.github.clearwsd.parser.WhitespaceTokenizer;
+import io.github.clearwsd.type.DefaultNlpFocus;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
@@ -68,6 +77,7 @@ import io.github.clearwsd.utils.CountingSenseInventory;
 import io.github.clearwsd.utils.InteractiveTestLoop;
 import io.github.clearwsd.utils.LemmaDictionary;
 import io.github.clearwsd.utils.OntoNotesSenseInventory;
+import io.github.clearwsd.utils.ParallelUtils;
 import io.github.clearwsd.utils.SenseInventory;
 import io.github.clearwsd.utils.ExtJwnlSenseInventory;
 import io.github.clearwsd.verbnet.DefaultPredicateAnnotator;
@@ -158,7 +168,8 @@ public abstract class WordSenseCLI {
             "specific path with \"-model path/to/saved/model.bin\".\n 3. To evaluate, you must provide a test file:\n" +
             "\t-test path/to/test/data/txt -model path/to/saved/model.bin\n 4. In order to " +
             "apply the classifier to new data, use the \"-input\" option with an input file:\n" +
-            "\t-input path/to/raw/data.txt -model path/to/saved/model.bin\n 5. You can perform k-fold " +
+            "\t-input path/to/raw/data.txt -model path/to/saved/model.bin\n   Add \"--stream\" to process large inputs " +
+            "incrementally with constant memory.\n 5. You can perform k-fold " +
             "cross-validation using the \"-cv\" option, e.g. \"-cv 5\" for 5-fold cross-validation.\n 6. You can " +
             "start an interactive test loop to try how various inputs are classified using \"--itl\".\n" +
             " 7. Note that all of these options can be combined, so it is possible to train, test, apply, and " +
@@ -177,6 +188,20 @@ public abstract class WordSenseCLI {
     private Boolean reparse = false;
     @Parameter(names = "-ext", description = "Parse file extension, appended to input file names to save parses")
     private String parseSuffix = ".dep";
+    @Parameter(names = "-parseCache", description = "Directory of a persistent cache of parses, shared across inputs and runs")
+    private String parseCache;
+    @Parameter(names = "-parseCacheSize", description = "Maximum size of the persistent parse cache in megabytes")
+    private Integer parseCacheSize = 1024;
+    @Parameter(names = "-modelCacheSize", description = "Maximum estimated size of per-predicate models held in memory in "
+            + "megabytes, evicting the least recently used models (by default, all models are retained once loaded)")
+    private Integer modelCacheSize;
+    @Parameter(names = "-parsers", description = "Number of independent parser instances, pooled to parse from multiple threads "
+            + "(defaults to the number of threads when streaming, 1 otherwise)")
+    private Integer parsers;
+    @Parameter(names = "--stream", description = "Apply the classifier incrementally, writing predictions while reading the input")
+    private Boolean stream = false;
+    @Parameter(names = "-window", description = "Maximum number of sentences processed ahead of the output when streaming")
+    private Integer window = 1000;
 
     @Parameter(names = "--om", description = "Output misses on evaluation data in separate files")
     private Boolean outputMisses = false;
@@ -186,6 +211,12 @@ public abstract class WordSenseCLI {
     @Parameter(names = {"-valid", "-dev", "-v"}, description = "Path to validation data", order = 3)
     private String validPath;
 
+    @Parameter(names = "-threads", description = "Number of threads used to train per-predicate models, or to stream predictions")
+    private Integer threads = Runtime.getRuntime().availableProcessors();
+    @Parameter(names = "-hashBits", description = "Train with hashed features in a space of 2^hashBits indices instead of a "
+            + "feature vocabulary per predicate")
+    private Integer hashBits;
+
     @Parameter(names = "-seed", description = "Random seed for cross-validation fold selection", hidden = true)
     private Integer seed = 0;
     @Parameter(names = {"-cv", "-folds"}, description = "Number of cross-validation folds", order = 5)
@@ -241,6 +272,22 @@ public abstract class WordSenseCLI {
 
     protected abstract NlpParser parser();
 
+    /**
+     * Tokenizer used to segment and tokenize raw text when streaming, separately from the parsers used by worker threads. By
+     * default, an additional parser instance.
+     */
+    protected NlpTokenizer tokenizer() {
+        return parser();
+    }
+
+    /**
+     * Signature of the configuration of parsers returned by {@link #parser()}, such as model names and options affecting
+     * parser output. Parses cached by differently configured parsers of the same class are not shared.
+     */
+    protected String parserConfig() {
+        return "";
+    }
+
     public void run() {
         try {
             checkParameters();     // (1) validate parameters
@@ -255,7 +302,7 @@ public abstract class WordSenseCLI {
         }
     }
 
-    private void checkParameters() {
+    void checkParameters() {
         depPattern = Pattern.compile("\\" + parseSuffix + "$");
         if (modelPath == null) {
             if (trainPath == null) {
@@ -398,8 +445,13 @@ public abstract class WordSenseCLI {
             log.warn("No output path provided, saving predictions to {}", outputPath);
         }
         WordSenseAnnotator annotator = getAnnotator();
-        List<DepTree> instances = getParseTrees(inputPath,
-                parsed(inputPath) ? new CoNllDepTreeReader() : new TextCorpusReader(getParser()));
+        if (stream) {
+            applyStreaming(annotator);
+            return;
+        }
+        CorpusReader<DepTree> reader = parsed(inputPath) ? new CoNllDepTreeReader().threads(threads)
+                : new TextCorpusReader(getParser()).threads(parsers());
+        List<DepTree> instances = getParseTrees(inputPath, reader);
         log.info("Applying word sense annotator at {} to {} instances", modelPath, instances.size());
         instances.parallelStream().forEach(annotator::annotate);
         try (FileOutputStream fos = new FileOutputStream(outputPath)) {
@@ -410,6 +462,71 @@ public abstract class WordSenseCLI {
         }
     }
 
+    void applyStreaming(WordSenseAnnotator annotator) {
+        boolean save = reparse || !parsed(inputPath);
+        String parsePath = new File(inputPath + parseSuffix).getAbsolutePath();
+        log.info("Streaming word sense annotator at {} over {} with {} threads", modelPath, inputPath, threads);
+        if (!parsed(inputPath) && parsers() < threads) {
+            log.info("Parsing is limited to {} of {} threads, use -parsers to increase", parsers(), threads);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (PrintWriter output = new PrintWriter(new FileOutputStream(outputPath));
+             PrintWriter parses = save ? new PrintWriter(new FileOutputStream(parsePath)) : null) {
+            Consumer<DepTree> writer = streamingWriter(output, parses);
+            if (parsed(inputPath)) {
+                // chunks are parsed on the same workers, rather than on additional threads competing with them
+                CoNllDepTreeReader reader = new CoNllDepTreeReader().executor(executor);
+                try (MappedTreeIterator trees = reader.instanceIterator(Paths.get(inputPath))) {
+                    ParallelUtils.forEachOrdered(trees, annotator::annotate, writer, executor, window);
+                }
+            } else {
+                try (InputStream inputStream = new FileInputStream(inputPath)) {
+                    NlpParser parser = getParser();
+                    // segment on the calling thread with a separate tokenizer, so as not to compete with workers for parsers
+                    Iterator<List<String>> sentences = TextCorpusReader.sentenceIterator(tokenizer(), inputStream);
+                    ParallelUtils.forEachOrdered(sentences, tokens -> annotator.annotate(parser.parse(tokens)), writer,
+                            executor, window);
+                }
+            }
+            if (save) {
+                log.info("Saved parsed instances to {}", parsePath);
+            }
+        } catch (IOException e) {
+            log.warn("An error occurred while writing results to {}:", outputPath, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Consumer<DepTree> streamingWriter(PrintWriter output, PrintWriter parses) {
+        VerbNetReader writer = new VerbNetReader();
+        AtomicInteger instances = new AtomicInteger();
+        AtomicInteger trees = new AtomicInteger();
+        Stopwatch sw = Stopwatch.createStarted();
+        return tree -> {
+            if (parses != null) {
+                parses.println(CoNllDepTreeReader.treeToString(tree));
+                parses.println();
+            }
+            List<NlpFocus<DepNode, DepTree>> focusInstances = new ArrayList<>();
+            for (DepNode depNode : tree) {
+                if (depNode.feature(FeatureType.Predicate) != null) {
+                    focusInstances.add(new DefaultNlpFocus<>(instances.get() + focusInstances.size(), depNode, tree));
+                }
+            }
+            if (focusInstances.size() > 0) {
+                if (instances.get() > 0) {
+                    output.println();
+                }
+                writer.writeInstances(focusInstances, output);
+                instances.addAndGet(focusInstances.size());
+            }
+            if (trees.incrementAndGet() % 10000 == 0) {
+                log.debug("Applied annotator to {} trees ({} instances) in {}", trees.get(), instances.get(), sw);
+            }
+        };
+    }
+
     private void interactiveTestLoop() {
         if (!itl) {
             return;
@@ -422,12 +539,23 @@ public abstract class WordSenseCLI {
         if (parser == null) {
             log.debug("Initializing parser...");
             Stopwatch sw = Stopwatch.createStarted();
-            parser = parser();
+            // parsers are not threadsafe, so parsing from multiple threads is bounded by the number of pooled instances
+            parser = parsers() > 1 || stream && threads > 1 ? new PooledNlpParser(this::parser, parsers()) : parser();
+            if (parseCache != null) {
+                parser = new CachingNlpParser(parser, Paths.get(parseCache), parserConfig(), parseCacheSize * 1024L * 1024L);
+            }
             log.debug("Initialized parser in {}", sw);
         }
         return parser;
     }
 
+    private int parsers() {
+        if (parsers != null) {
+            return parsers;
+        }
+        return stream ? threads : 1;
+    }
+
     private WordSenseAnnotator getAnnotator() {
         if (classifier == null) {
             classifier = loadClassifier();
@@ -438,29 +566,25 @@ public abstract class WordSenseCLI {
     private WordSenseClassifier newClassifier() {
         SenseInventory inventory = senseInventoryPath != null ? senseInventory.senseInventory(senseInventoryPath)
                 : senseInventory.senseInventory();
-        return new WordSenseClassifier(new DefaultVerbNetClassifier(), inventory, new LemmaDictionary());
+        DefaultVerbNetClassifier classifier = new DefaultVerbNetClassifier().threads(threads);
+        if (hashBits != null) {
+            classifier.hashBits(hashBits);
+        }
+        return new WordSenseClassifier(classifier, inventory, new LemmaDictionary());
     }
 
     private WordSenseClassifier loadClassifier() {
         log.info("Loading saved classifier model from {}", modelPath);
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(modelPath))) {
-            return new WordSenseClassifier(ois);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException("Unable to locate model at path " + modelPath, e);
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to load word sense classifier model: " + e.getMessage(), e);
+        if (!new File(modelPath).exists()) {
+            throw new RuntimeException("Unable to locate model at path " + modelPath);
         }
+        return WordSenseClassifier.load(Paths.get(modelPath),
+                modelCacheSize == null ? null : new SubModelCache(modelCacheSize * 1024L * 1024L));
     }
 
     private void saveClassifier() {
         log.info("Saving trained classifier model to {}", modelPath);
-        try (ObjectOutputStream ois = new ObjectOutputStream(new FileOutputStream(modelPath))) {
-            classifier.save(ois);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException("Unable to save model to path " + modelPath, e);
-        } catch (Exception e) {
-            throw new RuntimeException("Unable to save word sense classifier model: " + e.getMessage(), e);
-        }
+        classifier.save(Paths.get(modelPath));
     }
 
     private <T extends NlpInstance> List<T> getParseTrees(String path, CorpusReader<T> reader) {
@@ -468,8 +592,11 @@ public abstract class WordSenseCLI {
     }
 
     private <T extends NlpInstance> List<T> parseSafe(String inputPath, CorpusReader<T> reader, boolean save) {
-        try (InputStream inputStream = new FileInputStream(inputPath)) {
-            List<T> instances = reader.readInstances(inputStream);
+        if (!new File(inputPath).exists()) {
+            throw new RuntimeException("Unable to locate input file at " + inputPath);
+        }
+        try {
+            List<T> instances = reader.readInstances(Paths.get(inputPath));
             if (save) {
                 String outputFilePath = new File(inputPath + parseSuffix).getAbsolutePath();
                 try (OutputStream outputStream = new FileOutputStream(outputFilePath)) {
@@ -480,8 +607,6 @@ public abstract class WordSenseCLI {
                 }
             }
             return instances;
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException("Unable to locate input file at " + inputPath, e);
         } catch (Exception e) {
             throw new RuntimeException("Error while parsing file at " + inputPath, e);
         }
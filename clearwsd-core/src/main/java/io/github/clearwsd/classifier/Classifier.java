@@ -19,9 +19,11 @@ package io.github.clearwsd.classifier;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Classification algorithm.
@@ -48,6 +50,32 @@ public interface Classifier<U, O> extends Serializable {
      */
     Map<O, Double> score(U instance);
 
+    /**
+     * Produce confidence scores or probabilities for each label given an input instance, filling a reusable
+     * {@link LabelScores} container. The default implementation adapts {@link #score(Object)}, naming each label by the
+     * string value of its key.
+     *
+     * @param instance input instance
+     * @param scores   output scores
+     */
+    default void score(U instance, LabelScores scores) {
+        scores.assign(score(instance));
+    }
+
+    /**
+     * Produce scores for only a given set of candidate labels, filling a reusable {@link LabelScores} container. Candidates
+     * unknown to this classifier are omitted. The default implementation filters the results of {@link #score(Object)}.
+     *
+     * @param instance   input instance
+     * @param scores     output scores
+     * @param candidates candidate labels
+     */
+    default void score(U instance, LabelScores scores, Set<O> candidates) {
+        Map<O, Double> results = new HashMap<>(score(instance));
+        results.keySet().retainAll(candidates);
+        scores.assign(results);
+    }
+
     /**
      * Trains a new model, overwriting any existing model.
      *
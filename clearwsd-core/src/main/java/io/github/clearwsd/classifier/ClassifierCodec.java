@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of the sub-models of a {@link MultiClassifier}, used to store each sub-model as an independent record of a
+ * {@link ModelFile}. Data shared by all sub-models (such as feature extraction configuration) may be written once, after all
+ * sub-models, and is read before any sub-model.
+ *
+ * @param <U> input type
+ * @param <V> output type
+ * @author jamesgung
+ */
+public interface ClassifierCodec<U, V> {
+
+    /**
+     * Write a single sub-model.
+     *
+     * @param classifier sub-model
+     * @param out        output stream
+     */
+    void write(Classifier<U, V> classifier, DataOutputStream out) throws IOException;
+
+    /**
+     * Read a single sub-model written by {@link #write(Classifier, DataOutputStream)}. Implementations must be threadsafe after
+     * {@link #readShared(ByteBuffer)}.
+     *
+     * @param buffer input buffer
+     * @return sub-model
+     */
+    Classifier<U, V> read(ByteBuffer buffer);
+
+    /**
+     * Estimate the resident size of a sub-model read by this codec, used to bound {@link SubModelCache sub-model caches}.
+     * By default, the size of its record.
+     *
+     * @param classifier  sub-model
+     * @param recordBytes size of the sub-model's record in bytes
+     * @return estimated size in bytes
+     */
+    default long bytes(Classifier<U, V> classifier, int recordBytes) {
+        return recordBytes;
+    }
+
+    /**
+     * Write data shared by all sub-models written by this codec.
+     *
+     * @param out output stream
+     */
+    default void writeShared(DataOutputStream out) throws IOException {
+        // no shared data by default
+    }
+
+    /**
+     * Read data written by {@link #writeShared(DataOutputStream)}.
+     *
+     * @param buffer input buffer
+     */
+    default void readShared(ByteBuffer buffer) {
+        // no shared data by default
+    }
+
+    /**
+     * Codec storing each sub-model using Java serialization, for sub-models without an explicit encoding.
+     *
+     * @param <U> input type
+     * @param <V> output type
+     * @return serializing codec
+     */
+    static <U, V> ClassifierCodec<U, V> serializing() {
+        return new ClassifierCodec<U, V>() {
+            @Override
+            public void write(Classifier<U, V> classifier, DataOutputStream out) throws IOException {
+                ModelFile.writeObject(out, classifier);
+            }
+
+            @Override
+            public Classifier<U, V> read(ByteBuffer buffer) {
+                return ModelFile.readObject(buffer);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import io.github.clearwsd.classifier.ModelFile.ByteBufferInputStream;
+
+/**
+ * Stores {@link Classifier Classifiers} in {@link ModelFile} sections. The structure of a classifier (wrappers, key functions,
+ * annotators and other configuration) is small and stored using Java serialization, but the sub-models of each
+ * {@link MultiClassifier} are written separately, one record per key, by a {@link ClassifierCodec}.
+ * <p>
+ * For a classifier stored under a given name, the structure is stored in the section of that name, while the sub-models of the
+ * i-th {@link MultiClassifier} are stored in sections prefixed by "name/i" (see {@link MultiClassifier}).
+ *
+ * @author jamesgung
+ */
+public final class ClassifierSections {
+
+    private ClassifierSections() {
+        throw new AssertionError("Utility class, should never be instantiated.");
+    }
+
+    /**
+     * Write a classifier to a model file.
+     *
+     * @param writer     model file writer
+     * @param name       section name
+     * @param classifier classifier
+     * @param codecs     codec used to store the sub-models of each {@link MultiClassifier}
+     */
+    @SuppressWarnings("unchecked")
+    public static void write(ModelFileWriter writer, String name, Classifier<?, ?> classifier,
+                             Supplier<ClassifierCodec<?, ?>> codecs) {
+        List<MultiClassifier> multiClassifiers = new ArrayList<>();
+        ByteArrayOutputStream structure = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new StructureOutputStream(structure, name, multiClassifiers)) {
+            out.writeObject(classifier);
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while writing classifier " + name, e);
+        }
+        for (int i = 0; i < multiClassifiers.size(); ++i) {
+            multiClassifiers.get(i).write(writer, subModelSection(name, i), codecs.get());
+        }
+        try {
+            structure.writeTo(writer.section(name));
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while writing classifier " + name, e);
+        }
+    }
+
+    /**
+     * Read a classifier written by {@link #write(ModelFileWriter, String, Classifier, Supplier)}.
+     *
+     * @param file   model file
+     * @param name   section name
+     * @param codecs codec used to read the sub-models of each {@link MultiClassifier}
+     * @param <T>    classifier type
+     * @return classifier
+     */
+    public static <T extends Classifier<?, ?>> T read(ModelFile file, String name, Supplier<ClassifierCodec<?, ?>> codecs) {
+        return read(file, name, codecs, null);
+    }
+
+    /**
+     * Read a classifier written by {@link #write(ModelFileWriter, String, Classifier, Supplier)}, holding sub-models of each
+     * {@link MultiClassifier} in a memory-bounded cache as they are read.
+     *
+     * @param file   model file
+     * @param name   section name
+     * @param codecs codec used to read the sub-models of each {@link MultiClassifier}
+     * @param cache  sub-model cache, or null to retain every sub-model once read
+     * @param <T>    classifier type
+     * @return classifier
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Classifier<?, ?>> T read(ModelFile file, String name, Supplier<ClassifierCodec<?, ?>> codecs,
+                                                      SubModelCache cache) {
+        try (ObjectInputStream in = new StructureInputStream(file, name, codecs, cache)) {
+            return (T) in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("An error occurred while reading classifier " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String subModelSection(String name, int index) {
+        return name + "/" + index;
+    }
+
+    /**
+     * Replaces each {@link MultiClassifier} with a copy without sub-models, recording the section of its sub-models.
+     */
+    private static class StructureOutputStream extends ObjectOutputStream {
+
+        private final String name;
+        private final List<MultiClassifier> multiClassifiers;
+
+        StructureOutputStream(OutputStream out, String name, List<MultiClassifier> multiClassifiers) throws IOException {
+            super(out);
+            this.name = name;
+            this.multiClassifiers = multiClassifiers;
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) {
+            if (obj instanceof MultiClassifier) {
+                MultiClassifier<?, ?> multiClassifier = (MultiClassifier<?, ?>) obj;
+                String section = subModelSection(name, multiClassifiers.size());
+                multiClassifiers.add(multiClassifier);
+                return multiClassifier.withoutSubModels(section);
+            }
+            return obj;
+        }
+
+    }
+
+    /**
+     * Reads the sub-models of each {@link MultiClassifier} from its recorded section.
+     */
+    private static class StructureInputStream extends ObjectInputStream {
+
+        private final ModelFile file;
+        private final Supplier<ClassifierCodec<?, ?>> codecs;
+        private final SubModelCache cache;
+
+        StructureInputStream(ModelFile file, String name, Supplier<ClassifierCodec<?, ?>> codecs, SubModelCache cache)
+                throws IOException {
+            super(new ByteBufferInputStream(file.section(name)));
+            this.file = file;
+            this.codecs = codecs;
+            this.cache = cache;
+            enableResolveObject(true);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Object resolveObject(Object obj) {
+            if (obj instanceof MultiClassifier) {
+                ((MultiClassifier) obj).read(file, codecs.get(), cache);
+            }
+            return obj;
+        }
+
+    }
+
+}
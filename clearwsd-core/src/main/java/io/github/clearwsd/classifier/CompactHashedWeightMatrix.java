@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Read-only sparse weight matrix backed by an open-addressing hash table from flat (feature * labels + column) keys to weights,
+ * produced by {@link HashedWeightMatrix#compact()} for large, sparsely populated feature spaces (such as hashed features), in
+ * which a CSR matrix would be dominated by its per-feature row offsets.
+ *
+ * @author jamesgung
+ */
+@Accessors(fluent = true)
+public class CompactHashedWeightMatrix implements WeightMatrix {
+
+    private static final long serialVersionUID = 6035311262591373917L;
+
+    @Getter
+    private final int features;
+    private final int[] labels;
+    private final int[] keys;
+    private final float[] values;
+    private final int size;
+
+    /**
+     * Initialize a hashed weight matrix from a table populated by {@link HashedWeightMatrix}.
+     *
+     * @param features number of features
+     * @param labels   sorted label indices, one per column
+     * @param keys     hash table keys, with empty slots set to {@link HashedWeightMatrix#EMPTY}
+     * @param values   weights corresponding to each key
+     * @param size     number of non-empty slots
+     */
+    CompactHashedWeightMatrix(int features, int[] labels, int[] keys, float[] values, int size) {
+        this.features = features;
+        this.labels = labels;
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    public int labels() {
+        return labels.length;
+    }
+
+    @Override
+    public int label(int column) {
+        return labels[column];
+    }
+
+    @Override
+    public int column(int label) {
+        return Arrays.binarySearch(labels, label);
+    }
+
+    @Override
+    public float weight(int feature, int column) {
+        int slot = HashedWeightMatrix.slot(keys, feature * labels.length + column);
+        return keys[slot] == HashedWeightMatrix.EMPTY ? 0 : values[slot];
+    }
+
+    @Override
+    public int stored() {
+        return size;
+    }
+
+    @Override
+    public long bytes() {
+        return (long) keys.length * (Integer.BYTES + Float.BYTES);
+    }
+
+    @Override
+    public void score(SparseVector vector, float[] scores) {
+        int numLabels = labels.length;
+        Arrays.fill(scores, 0, numLabels, 0);
+        if (size == 0) {
+            return;
+        }
+        int[] indices = vector.indices();
+        float[] data = vector.data();
+        for (int i = 0; i < indices.length; ++i) {
+            int index = indices[i];
+            if (index >= features) {
+                continue;
+            }
+            float value = data[i];
+            int offset = index * numLabels;
+            for (int column = 0; column < numLabels; ++column) {
+                int slot = HashedWeightMatrix.slot(keys, offset + column);
+                if (keys[slot] != HashedWeightMatrix.EMPTY) {
+                    scores[column] += value * values[slot];
+                }
+            }
+        }
+    }
+
+    @Override
+    public float score(SparseVector vector, int column) {
+        int[] indices = vector.indices();
+        float[] data = vector.data();
+        float total = 0;
+        for (int i = 0; i < indices.length; ++i) {
+            if (indices[i] < features) {
+                total += data[i] * weight(indices[i], column);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeByte(WeightMatrixType.CompactHashed.tag());
+        out.writeInt(features);
+        out.writeInt(size);
+        ModelFile.writeInts(out, labels);
+        ModelFile.writeInts(out, keys);
+        ModelFile.writeFloats(out, values);
+    }
+
+    static CompactHashedWeightMatrix read(ByteBuffer buffer) {
+        int features = buffer.getInt();
+        int size = buffer.getInt();
+        return new CompactHashedWeightMatrix(features, ModelFile.readInts(buffer), ModelFile.readInts(buffer),
+                ModelFile.readFloats(buffer), size);
+    }
+
+}
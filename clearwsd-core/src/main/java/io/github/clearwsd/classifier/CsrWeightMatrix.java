@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Read-only sparse weight matrix in compressed sparse row (CSR) form, with one row per feature. Only non-zero weights are
+ * stored, and the non-zero label weights of a feature remain contiguous, so scoring touches one short block per active feature.
+ *
+ * @author jamesgung
+ */
+@Accessors(fluent = true)
+public class CsrWeightMatrix implements WeightMatrix {
+
+    private static final long serialVersionUID = 2986437286190472387L;
+
+    @Getter
+    private final int features;
+    private final int[] labels;
+    private final int[] offsets;
+    private final int[] columns;
+    private final float[] values;
+
+    /**
+     * Initialize a CSR weight matrix from non-zero weights given in feature-major order.
+     *
+     * @param features number of features
+     * @param labels   sorted label indices, one per column
+     * @param keys     ascending flat indices of non-zero weights, computed as (feature * labels + column)
+     * @param values   non-zero weights corresponding to each key
+     */
+    CsrWeightMatrix(int features, int[] labels, int[] keys, float[] values) {
+        this.features = features;
+        this.labels = labels;
+        this.offsets = new int[features + 1];
+        this.columns = new int[keys.length];
+        this.values = values;
+        for (int i = 0; i < keys.length; ++i) {
+            columns[i] = keys[i] % labels.length;
+            ++offsets[keys[i] / labels.length + 1];
+        }
+        for (int feature = 0; feature < features; ++feature) {
+            offsets[feature + 1] += offsets[feature];
+        }
+    }
+
+    private CsrWeightMatrix(int features, int[] labels, int[] offsets, int[] columns, float[] values) {
+        this.features = features;
+        this.labels = labels;
+        this.offsets = offsets;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    @Override
+    public int labels() {
+        return labels.length;
+    }
+
+    @Override
+    public int label(int column) {
+        return labels[column];
+    }
+
+    @Override
+    public int column(int label) {
+        return Arrays.binarySearch(labels, label);
+    }
+
+    @Override
+    public float weight(int feature, int column) {
+        for (int i = offsets[feature]; i < offsets[feature + 1]; ++i) {
+            if (columns[i] == column) {
+                return values[i];
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public int stored() {
+        return values.length;
+    }
+
+    @Override
+    public long bytes() {
+        return bytes(features, values.length);
+    }
+
+    @Override
+    public void score(SparseVector vector, float[] scores) {
+        Arrays.fill(scores, 0, labels.length, 0);
+        int[] indices = vector.indices();
+        float[] data = vector.data();
+        for (int i = 0; i < indices.length; ++i) {
+            int index = indices[i];
+            if (index >= features) {
+                continue;
+            }
+            float value = data[i];
+            for (int j = offsets[index]; j < offsets[index + 1]; ++j) {
+                scores[columns[j]] += value * values[j];
+            }
+        }
+    }
+
+    @Override
+    public float score(SparseVector vector, int column) {
+        int[] indices = vector.indices();
+        float[] data = vector.data();
+        float total = 0;
+        for (int i = 0; i < indices.length; ++i) {
+            if (indices[i] < features) {
+                total += data[i] * weight(indices[i], column);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        out.writeByte(WeightMatrixType.Csr.tag());
+        out.writeInt(features);
+        ModelFile.writeInts(out, labels);
+        ModelFile.writeInts(out, offsets);
+        ModelFile.writeInts(out, columns);
+        ModelFile.writeFloats(out, values);
+    }
+
+    static CsrWeightMatrix read(ByteBuffer buffer) {
+        int features = buffer.getInt();
+        return new CsrWeightMatrix(features, ModelFile.readInts(buffer), ModelFile.readInts(buffer), ModelFile.readInts(buffer),
+                ModelFile.readFloats(buffer));
+    }
+
+    /**
+     * Approximate number of bytes required to store a CSR matrix with a given number of features and non-zero weights.
+     *
+     * @param features number of features
+     * @param nonZero  number of non-zero weights
+     * @return size in bytes
+     */
+    static long bytes(int features, long nonZero) {
+        return (features + 1L) * Integer.BYTES + nonZero * (Integer.BYTES + Float.BYTES);
+    }
+
+}
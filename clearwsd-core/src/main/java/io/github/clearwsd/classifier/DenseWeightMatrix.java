@@ -0,0 +1,237 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import com.google.common.base.Preconditions;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Linear model weights stored in a single feature-major array, such that the weights of every label for a given feature are
+ * contiguous. Scoring a {@link SparseVector} then touches one block of label weights per active feature. Labels are addressed
+ * by column, in ascending order of label index.
+ *
+ * @author jamesgung
+ */
+@Accessors(fluent = true)
+public class DenseWeightMatrix implements TrainableWeightMatrix {
+
+    private static final long serialVersionUID = -4273391584418315042L;
+
+    @Getter
+    private final int features;
+    private final int[] labels;
+    private final float[] weights;
+
+    /**
+     * Initialize a zero-valued weight matrix.
+     *
+     * @param features number of features
+     * @param labels   label indices, one per column
+     */
+    public DenseWeightMatrix(int features, int[] labels) {
+        Preconditions.checkArgument((long) features * labels.length <= Integer.MAX_VALUE,
+                "Weight matrix of %s features by %s labels is too large.", features, labels.length);
+        this.features = features;
+        this.labels = Arrays.stream(labels).sorted().distinct().toArray();
+        this.weights = new float[features * this.labels.length];
+    }
+
+    /**
+     * Initialize a dense weight matrix from a flat feature-major array of weights.
+     *
+     * @param features number of features
+     * @param labels   sorted label indices, one per column
+     * @param weights  weights, of length features * labels
+     */
+    DenseWeightMatrix(int features, int[] labels, float[] weights) {
+        this.features = features;
+        this.labels = labels;
+        this.weights = weights;
+    }
+
+    /**
+     * Initialize a weight matrix from per-label weight vectors.
+     *
+     * @param parameters map from label indices to dense weight vectors of equal length
+     * @return feature-major weight matrix
+     */
+    public static DenseWeightMatrix fromParameters(Map<Integer, float[]> parameters) {
+        int features = parameters.values().stream().mapToInt(p -> p.length).max().orElse(0);
+        DenseWeightMatrix matrix = new DenseWeightMatrix(features, parameters.keySet().stream().mapToInt(i -> i).toArray());
+        for (int column = 0; column < matrix.labels.length; ++column) {
+            float[] params = parameters.get(matrix.labels[column]);
+            for (int feature = 0; feature < params.length; ++feature) {
+                matrix.weights[feature * matrix.labels.length + column] = params[feature];
+            }
+        }
+        return matrix;
+    }
+
+    @Override
+    public int labels() {
+        return labels.length;
+    }
+
+    @Override
+    public int label(int column) {
+        return labels[column];
+    }
+
+    @Override
+    public int column(int label) {
+        return Arrays.binarySearch(labels, label);
+    }
+
+    @Override
+    public void score(SparseVector vector, float[] scores) {
+        int numLabels = labels.length;
+        Arrays.fill(scores, 0, numLabels, 0);
+        int[] indices = vector.indices();
+        float[] values = vector.data();
+        for (int i = 0; i < indices.length; ++i) {
+            int index = indices[i];
+            if (index >= features) {
+                continue;
+            }
+            float value = values[i];
+            int offset = index * numLabels;
+            for (int column = 0; column < numLabels; ++column) {
+                scores[column] += value * weights[offset + column];
+            }
+        }
+    }
+
+    @Override
+    public float score(SparseVector vector, int column) {
+        int numLabels = labels.length;
+        int[] indices = vector.indices();
+        float[] values = vector.data();
+        float total = 0;
+        for (int i = 0; i < indices.length; ++i) {
+            if (indices[i] < features) {
+                total += values[i] * weights[indices[i] * numLabels + column];
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void add(SparseVector vector, int column, double scale) {
+        int numLabels = labels.length;
+        int[] indices = vector.indices();
+        float[] values = vector.data();
+        for (int i = 0; i < indices.length; ++i) {
+            weights[indices[i] * numLabels + column] += values[i] * scale;
+        }
+    }
+
+    @Override
+    public float weight(int feature, int column) {
+        return weights[feature * labels.length + column];
+    }
+
+    @Override
+    public int stored() {
+        return weights.length;
+    }
+
+    @Override
+    public long bytes() {
+        return bytes(features, labels.length);
+    }
+
+    @Override
+    public void copyTo(TrainableWeightMatrix target) {
+        DenseWeightMatrix dense = cast(target);
+        System.arraycopy(weights, 0, dense.weights, 0, weights.length);
+    }
+
+    @Override
+    public void average(TrainableWeightMatrix totals, int count) {
+        DenseWeightMatrix dense = cast(totals);
+        for (int i = 0; i < weights.length; ++i) {
+            weights[i] = (weights[i] * count - dense.weights[i]) / (count - 1);
+        }
+    }
+
+    @Override
+    public WeightMatrix compact() {
+        int nonZero = 0;
+        for (float weight : weights) {
+            if (weight != 0) {
+                ++nonZero;
+            }
+        }
+        if (CsrWeightMatrix.bytes(features, nonZero) >= bytes(features, labels.length)) {
+            return this;
+        }
+        int[] keys = new int[nonZero];
+        float[] values = new float[nonZero];
+        int index = 0;
+        for (int key = 0; key < weights.length; ++key) {
+            if (weights[key] != 0) {
+                keys[index] = key;
+                values[index++] = weights[key];
+            }
+        }
+        return new CsrWeightMatrix(features, labels, keys, values);
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        WeightMatrix compact = compact();
+        if (compact != this) {
+            compact.write(out);
+            return;
+        }
+        out.writeByte(WeightMatrixType.Dense.tag());
+        out.writeInt(features);
+        ModelFile.writeInts(out, labels);
+        ModelFile.writeFloats(out, weights);
+    }
+
+    static DenseWeightMatrix read(ByteBuffer buffer) {
+        int features = buffer.getInt();
+        return new DenseWeightMatrix(features, ModelFile.readInts(buffer), ModelFile.readFloats(buffer));
+    }
+
+    /**
+     * Approximate number of bytes required to store the weights of a dense matrix with given dimensions.
+     *
+     * @param features number of features
+     * @param labels   number of labels
+     * @return size in bytes
+     */
+    static long bytes(int features, int labels) {
+        return (long) features * labels * Float.BYTES;
+    }
+
+    private DenseWeightMatrix cast(TrainableWeightMatrix other) {
+        Preconditions.checkArgument(other instanceof DenseWeightMatrix
+                && ((DenseWeightMatrix) other).weights.length == weights.length, "Weight matrix dimensions do not match.");
+        return (DenseWeightMatrix) other;
+    }
+
+}
@@ -26,6 +26,8 @@ import java.util.List;
 import java.util.Map;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.experimental.Accessors;
 
 /**
  * Single-label classifier.
@@ -36,6 +38,8 @@ import lombok.AllArgsConstructor;
 public class DummyClassifier implements SparseClassifier {
 
     private static final long serialVersionUID = 4110868818631078034L;
+    @Getter
+    @Accessors(fluent = true)
     private int label;
 
     @Override
@@ -48,6 +52,11 @@ public class DummyClassifier implements SparseClassifier {
         return ImmutableMap.of(label, 1d);
     }
 
+    @Override
+    public void score(SparseInstance instance, LabelScores scores) {
+        scores.reset(1).set(0, label, 1);
+    }
+
     @Override
     public void train(List<SparseInstance> train, List<SparseInstance> valid) {
         throw new UnsupportedOperationException();
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import com.google.common.base.Preconditions;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import lombok.Getter;
+import lombok.experimental.Accessors;
+
+/**
+ * Sparse weight matrix used for training, backed by an open-addressing hash map from flat (feature * labels + column) keys to
+ * weights. Only weights that have been updated are stored, which keeps models with many features and few co-occurring labels
+ * small during training.
+ *
+ * @author jamesgung
+ */
+@Accessors(fluent = true)
+public class HashedWeightMatrix implements TrainableWeightMatrix {
+
+    private static final long serialVersionUID = -1187232760139016214L;
+
+    static final int EMPTY = -1;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    @Getter
+    private final int features;
+    private final int[] labels;
+
+    private int[] keys;
+    private float[] values;
+    private int size;
+
+    /**
+     * Initialize an empty weight matrix.
+     *
+     * @param features number of features
+     * @param labels   label indices, one per column
+     * @param expected expected number of non-zero weights
+     */
+    public HashedWeightMatrix(int features, int[] labels, int expected) {
+        Preconditions.checkArgument((long) features * labels.length <= Integer.MAX_VALUE,
+                "Weight matrix of %s features by %s labels is too large.", features, labels.length);
+        this.features = features;
+        this.labels = Arrays.stream(labels).sorted().distinct().toArray();
+        allocate(capacity(expected));
+    }
+
+    @Override
+    public int labels() {
+        return labels.length;
+    }
+
+    @Override
+    public int label(int column) {
+        return labels[column];
+    }
+
+    @Override
+    public int column(int label) {
+        return Arrays.binarySearch(labels, label);
+    }
+
+    @Override
+    public float weight(int feature, int column) {
+        int slot = slot(feature * labels.length + column);
+        return keys[slot] == EMPTY ? 0 : values[slot];
+    }
+
+    @Override
+    public int stored() {
+        return size;
+    }
+
+    @Override
+    public long bytes() {
+        return (long) keys.length * (Integer.BYTES + Float.BYTES);
+    }
+
+    @Override
+    public void score(SparseVector vector, float[] scores) {
+        int numLabels = labels.length;
+        Arrays.fill(scores, 0, numLabels, 0);
+        if (size == 0) {
+            return;
+        }
+        int[] indices = vector.indices();
+        float[] data = vector.data();
+        for (int i = 0; i < indices.length; ++i) {
+            int index = indices[i];
+            if (index >= features) {
+                continue;
+            }
+            float value = data[i];
+            int offset = index * numLabels;
+            for (int column = 0; column < numLabels; ++column) {
+                int slot = slot(offset + column);
+                if (keys[slot] != EMPTY) {
+                    scores[column] += value * values[slot];
+                }
+            }
+        }
+    }
+
+    @Override
+    public float score(SparseVector vector, int column) {
+        int[] indices = vector.indices();
+        float[] data = vector.data();
+        float total = 0;
+        for (int i = 0; i < indices.length; ++i) {
+            if (indices[i] < features) {
+                total += data[i] * weight(indices[i], column);
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void add(SparseVector vector, int column, double scale) {
+        int numLabels = labels.length;
+        int[] indices = vector.indices();
+        float[] data = vector.data();
+        for (int i = 0; i < indices.length; ++i) {
+            int key = indices[i] * numLabels + column;
+            int slot = slot(key);
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                if (++size > keys.length * LOAD_FACTOR) {
+                    rehash(keys.length * 2);
+                    slot = slot(key);
+                }
+            }
+            values[slot] += data[i] * scale;
+        }
+    }
+
+    @Override
+    public void copyTo(TrainableWeightMatrix target) {
+        HashedWeightMatrix hashed = cast(target);
+        hashed.keys = keys.clone();
+        hashed.values = values.clone();
+        hashed.size = size;
+    }
+
+    @Override
+    public void average(TrainableWeightMatrix totals, int count) {
+        HashedWeightMatrix hashed = cast(totals);
+        for (int slot = 0; slot < keys.length; ++slot) {
+            if (keys[slot] != EMPTY) {
+                values[slot] = (values[slot] * count - hashed.weight(keys[slot])) / (count - 1);
+            }
+        }
+        // weights absent here but present in the totals average to a non-zero value
+        for (int slot = 0; slot < hashed.keys.length; ++slot) {
+            int key = hashed.keys[slot];
+            if (key != EMPTY && keys[slot(key)] == EMPTY) {
+                put(key, -hashed.values[slot] / (count - 1));
+            }
+        }
+    }
+
+    @Override
+    public WeightMatrix compact() {
+        long csrBytes = CsrWeightMatrix.bytes(features, size);
+        long denseBytes = DenseWeightMatrix.bytes(features, labels.length);
+        if (bytes(size) < Math.min(csrBytes, denseBytes)) {
+            // large, sparsely populated feature spaces (e.g. hashed features) are cheaper to keep in a hash table
+            HashedWeightMatrix trimmed = new HashedWeightMatrix(features, labels, size);
+            for (int slot = 0; slot < keys.length; ++slot) {
+                if (keys[slot] != EMPTY && values[slot] != 0) {
+                    trimmed.put(keys[slot], values[slot]);
+                }
+            }
+            return new CompactHashedWeightMatrix(features, labels, trimmed.keys, trimmed.values, trimmed.size);
+        }
+        int[] sorted = new int[size];
+        int index = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                sorted[index++] = key;
+            }
+        }
+        Arrays.sort(sorted);
+        if (csrBytes >= denseBytes) {
+            float[] dense = new float[features * labels.length];
+            for (int key : sorted) {
+                dense[key] = weight(key);
+            }
+            return new DenseWeightMatrix(features, labels, dense);
+        }
+        float[] sortedValues = new float[size];
+        for (int i = 0; i < sorted.length; ++i) {
+            sortedValues[i] = weight(sorted[i]);
+        }
+        return new CsrWeightMatrix(features, labels, sorted, sortedValues);
+    }
+
+    @Override
+    public void write(DataOutputStream out) throws IOException {
+        compact().write(out);
+    }
+
+    /**
+     * Approximate number of bytes required to store a given number of weights during training.
+     *
+     * @param expected expected number of non-zero weights
+     * @return size in bytes
+     */
+    static long bytes(long expected) {
+        return (long) (expected / LOAD_FACTOR) * (Integer.BYTES + Float.BYTES);
+    }
+
+    private float weight(int key) {
+        int slot = slot(key);
+        return keys[slot] == EMPTY ? 0 : values[slot];
+    }
+
+    private void put(int key, float value) {
+        int slot = slot(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size > keys.length * LOAD_FACTOR) {
+                rehash(keys.length * 2);
+                slot = slot(key);
+            }
+        }
+        values[slot] = value;
+    }
+
+    private int slot(int key) {
+        return slot(keys, key);
+    }
+
+    /**
+     * Return the slot of a given key in an open-addressing table, or the empty slot at which it would be inserted.
+     *
+     * @param keys table keys, with a power-of-two length
+     * @param key  key
+     * @return table slot
+     */
+    static int slot(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        float[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new float[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private HashedWeightMatrix cast(TrainableWeightMatrix other) {
+        Preconditions.checkArgument(other instanceof HashedWeightMatrix
+                && ((HashedWeightMatrix) other).features == features
+                && ((HashedWeightMatrix) other).labels.length == labels.length, "Weight matrix dimensions do not match.");
+        return (HashedWeightMatrix) other;
+    }
+
+    private static int capacity(int expected) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expected) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+}
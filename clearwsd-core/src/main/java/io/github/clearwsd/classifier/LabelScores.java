@@ -0,0 +1,237 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reusable, primitive container of label scores produced by a {@link Classifier}. Labels are identified by index, and label
+ * names are only materialized on request from a shared array of names indexed by label (if provided). Containers are not
+ * thread-safe, but may be reused across calls to avoid allocation.
+ *
+ * @author jamesgung
+ */
+public class LabelScores {
+
+    private int size;
+    private int[] labels;
+    private float[] scores;
+    private String[] names;
+
+    public LabelScores() {
+        this(16);
+    }
+
+    public LabelScores(int capacity) {
+        labels = new int[capacity];
+        scores = new float[capacity];
+    }
+
+    /**
+     * Clear these scores and ensure capacity for a given number of labels, returning this container with the given size. Scores
+     * and labels are undefined until assigned.
+     *
+     * @param size number of labels
+     * @return this {@link LabelScores}
+     */
+    public LabelScores reset(int size) {
+        if (labels.length < size) {
+            int capacity = Math.max(size, labels.length * 2);
+            labels = new int[capacity];
+            scores = new float[capacity];
+        }
+        this.size = size;
+        this.names = null;
+        return this;
+    }
+
+    /**
+     * Assign a label and score at a given position.
+     *
+     * @param index position, less than {@link #size()}
+     * @param label label index
+     * @param score label score
+     * @return this {@link LabelScores}
+     */
+    public LabelScores set(int index, int label, float score) {
+        labels[index] = label;
+        scores[index] = score;
+        return this;
+    }
+
+    /**
+     * Assign names for labels, indexed by label.
+     *
+     * @param names label names
+     * @return this {@link LabelScores}
+     */
+    public LabelScores names(String[] names) {
+        this.names = names;
+        return this;
+    }
+
+    /**
+     * Assign scores from a map, naming each label by the string value of its key. Labels are indexed by position.
+     *
+     * @param results map from labels to scores
+     * @return this {@link LabelScores}
+     */
+    public LabelScores assign(Map<?, Double> results) {
+        String[] names = new String[results.size()];
+        reset(results.size());
+        int index = 0;
+        for (Map.Entry<?, Double> entry : results.entrySet()) {
+            names[index] = String.valueOf(entry.getKey());
+            set(index, index, entry.getValue().floatValue());
+            ++index;
+        }
+        return names(names);
+    }
+
+    /**
+     * Retain only scores for a given set of labels, preserving order.
+     *
+     * @param candidates label indices to retain
+     * @return this {@link LabelScores}
+     */
+    public LabelScores retain(int[] candidates) {
+        int retained = 0;
+        for (int i = 0; i < size; ++i) {
+            for (int candidate : candidates) {
+                if (labels[i] == candidate) {
+                    labels[retained] = labels[i];
+                    scores[retained++] = scores[i];
+                    break;
+                }
+            }
+        }
+        size = retained;
+        return this;
+    }
+
+    /**
+     * Number of scored labels.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Label index at a given position.
+     */
+    public int label(int index) {
+        return labels[index];
+    }
+
+    /**
+     * Score at a given position.
+     */
+    public float score(int index) {
+        return scores[index];
+    }
+
+    /**
+     * Name of the label at a given position, or its index as a string if no names were assigned.
+     */
+    public String name(int index) {
+        return names == null ? Integer.toString(labels[index]) : names[labels[index]];
+    }
+
+    /**
+     * Backing array of labels, with capacity at least {@link #size()}, used to fill these scores directly.
+     */
+    public int[] labels() {
+        return labels;
+    }
+
+    /**
+     * Backing array of scores, with capacity at least {@link #size()}, used to fill these scores directly.
+     */
+    public float[] scores() {
+        return scores;
+    }
+
+    /**
+     * Return the position of the highest score (the first in the case of ties), or -1 if there are no scores.
+     */
+    public int argMax() {
+        int max = size > 0 ? 0 : -1;
+        for (int i = 1; i < size; ++i) {
+            if (scores[i] > scores[max]) {
+                max = i;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Return the positions of the k highest scores, in order of decreasing score.
+     *
+     * @param k maximum number of positions
+     * @return positions of the highest scores
+     */
+    public int[] topK(int k) {
+        int[] top = new int[Math.min(k, size)];
+        int count = 0;
+        for (int i = 0; i < size; ++i) {
+            int position = count < top.length ? count++ : top.length;
+            while (position > 0 && scores[i] > scores[top[position - 1]]) {
+                if (position < top.length) {
+                    top[position] = top[position - 1];
+                }
+                --position;
+            }
+            if (position < top.length) {
+                top[position] = i;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Return a map from label indices to scores.
+     */
+    public Map<Integer, Double> toMap() {
+        Map<Integer, Double> results = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            results.put(labels[i], (double) scores[i]);
+        }
+        return results;
+    }
+
+    /**
+     * Return a map from label names to scores.
+     */
+    public Map<String, Double> toNameMap() {
+        Map<String, Double> results = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            results.put(name(i), (double) scores[i]);
+        }
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < size; ++i) {
+            builder.append(i > 0 ? ", " : "").append(name(i)).append('=').append(scores[i]);
+        }
+        return builder.append('}').toString();
+    }
+
+}
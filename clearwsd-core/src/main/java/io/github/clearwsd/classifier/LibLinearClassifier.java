@@ -30,18 +30,20 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.function.BiConsumer;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Classifier wrapper for LibLinear (http://www.csie.ntu.edu.tw/~cjlin/liblinear/).
+ * Classifier wrapper for LibLinear (http://www.csie.ntu.edu.tw/~cjlin/liblinear/). After training or loading, model weights are
+ * copied into a {@link DenseWeightMatrix}, which is used to compute decision values and probabilities directly from
+ * {@link SparseVector SparseVectors} without allocating LibLinear {@link Feature Features}.
  *
  * @author jamesgung
  */
@@ -87,8 +89,18 @@ public class LibLinearClassifier implements SparseClassifier {
         }
     }
 
+    private static final ThreadLocal<float[]> SCORES = ThreadLocal.withInitial(() -> new float[0]);
+
     @Getter
     private Model model;
+    /**
+     * Model weights, with one column per label (a binary model's single weight vector is stored along with its negation).
+     */
+    @Getter
+    private transient DenseWeightMatrix weights;
+    // column of each class in the order used by LibLinear, used to break ties consistently with LibLinear
+    @Getter(AccessLevel.NONE)
+    private transient int[] columns;
 
     private SolverType solverType;
     private double cost;
@@ -106,23 +118,63 @@ public class LibLinearClassifier implements SparseClassifier {
 
     @Override
     public Map<Integer, Double> score(SparseInstance instance) {
-        double[] scores = new double[model.getNrClass()];
-        if (model.isProbabilityModel()) {
-            Linear.predictProbability(model, getFeatureArray(instance), scores);
-        } else {
-            Linear.predictValues(model, getFeatureArray(instance), scores);
-        }
-        Map<Integer, Double> results = new HashMap<>();
-        for (double score : scores) {
-            results.put(results.size(), score);
+        LabelScores scores = new LabelScores(weights.labels());
+        score(instance, scores);
+        return scores.toMap();
+    }
+
+    @Override
+    public void score(SparseInstance instance, LabelScores scores) {
+        scores.reset(weights.labels());
+        score(instance, scores.scores());
+        for (int column = 0; column < weights.labels(); ++column) {
+            scores.labels()[column] = weights.label(column);
         }
-        return results;
     }
 
     @Override
     public Integer classify(SparseInstance instance) {
-        Feature[] feat = getFeatureArray(instance);
-        return (int) Linear.predict(model, feat);
+        float[] scores = scoreBuffer(weights.labels());
+        weights.score(instance, scores);
+        if (isBinary()) {
+            // consistent with LibLinear, predict the first label only given a positive decision value
+            return weights.label(scores[columns[0]] > 0 ? columns[0] : columns[1]);
+        }
+        int max = columns[0];
+        for (int column : columns) {
+            if (scores[column] > scores[max]) {
+                max = column;
+            }
+        }
+        return weights.label(max);
+    }
+
+    /**
+     * Compute scores for each label without allocating, filling a caller-provided buffer indexed by label column (see
+     * {@link DenseWeightMatrix#label(int)}). Scores are probabilities for probability models, and decision values otherwise.
+     *
+     * @param instance input instance
+     * @param scores   output buffer, of length at least {@link DenseWeightMatrix#labels()}
+     */
+    public void score(SparseVector instance, float[] scores) {
+        weights.score(instance, scores);
+        if (!model.isProbabilityModel()) {
+            return;
+        }
+        if (isBinary()) {
+            float probability = (float) (1 / (1 + Math.exp(-scores[columns[0]])));
+            scores[columns[0]] = probability;
+            scores[columns[1]] = 1 - probability;
+            return;
+        }
+        float sum = 0;
+        for (int column = 0; column < weights.labels(); ++column) {
+            scores[column] = (float) (1 / (1 + Math.exp(-scores[column])));
+            sum += scores[column];
+        }
+        for (int column = 0; column < weights.labels(); ++column) {
+            scores[column] /= sum;
+        }
     }
 
     @Override
@@ -143,6 +195,7 @@ public class LibLinearClassifier implements SparseClassifier {
             log.debug("Commencing training on {} examples with {} features.", problem.l, problem.n);
         }
         model = Linear.train(problem, new Parameter(solverType, cost, eps));
+        initializeWeights();
         if (verbose) {
             log.debug("Training completed successfully in {}.", sw.toString());
         }
@@ -152,6 +205,7 @@ public class LibLinearClassifier implements SparseClassifier {
     public void load(ObjectInputStream inputStream) {
         try {
             model = (Model) inputStream.readObject();
+            initializeWeights();
         } catch (IOException | ClassNotFoundException e) {
             throw new RuntimeException(e);
         }
@@ -166,6 +220,55 @@ public class LibLinearClassifier implements SparseClassifier {
         }
     }
 
+    private void readObject(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        if (model != null) {
+            initializeWeights();
+        }
+    }
+
+    private void initializeWeights() {
+        int[] labels = model.getLabels();
+        int numClasses = model.getNrClass();
+        int features = model.getNrFeature();
+        double[] modelWeights = model.getFeatureWeights();
+        // binary models (other than Crammer and Singer) have a single weight vector for the first label
+        int numWeights = numClasses == 2 && model.getSolverType() != SolverType.MCSVM_CS ? 1 : numClasses;
+
+        int[] sortedLabels = Arrays.stream(labels).sorted().toArray();
+        columns = new int[numClasses];
+        for (int i = 0; i < numClasses; ++i) {
+            columns[i] = Arrays.binarySearch(sortedLabels, labels[i]);
+        }
+        float[] matrix = new float[features * numClasses];
+        for (int feature = 0; feature < features; ++feature) {
+            for (int i = 0; i < numWeights; ++i) {
+                matrix[feature * numClasses + columns[i]] = (float) modelWeights[feature * numWeights + i];
+            }
+            if (numWeights == 1 && numClasses == 2) {
+                matrix[feature * numClasses + columns[1]] = (float) -modelWeights[feature];
+            }
+        }
+        weights = new DenseWeightMatrix(features, sortedLabels, matrix);
+    }
+
+    /**
+     * Returns true if this model has a single decision value for two classes, as for every LibLinear solver other than Crammer
+     * and Singer, which keeps a weight vector per class and predicts the highest scoring class.
+     */
+    private boolean isBinary() {
+        return columns.length == 2 && model.getSolverType() != SolverType.MCSVM_CS;
+    }
+
+    private static float[] scoreBuffer(int size) {
+        float[] scores = SCORES.get();
+        if (scores.length < size) {
+            scores = new float[size];
+            SCORES.set(scores);
+        }
+        return scores;
+    }
+
     private double[] getLabels(List<SparseInstance> instances) {
         return instances.stream()
                 .mapToDouble(SparseInstance::target)
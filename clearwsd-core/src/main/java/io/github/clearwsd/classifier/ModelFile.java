@@ -0,0 +1,314 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import com.google.common.base.Preconditions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only view of a versioned binary model file written by {@link ModelFileWriter}. A model file is a container of named
+ * sections, each holding an explicitly encoded part of a model (such as a sense inventory, vocabularies, or blocks of model
+ * weights). Only the section table is read on open. Sections of files opened from a {@link Path} are memory-mapped, so that
+ * large sections are paged in only as they are accessed.
+ * <p>
+ * Layout: a header ({@link #MAGIC}, {@link #VERSION}), section data aligned to 8 bytes, a section table (count followed by
+ * name, offset and length of each section), and a footer (offset of the section table, {@link #MAGIC}).
+ * <p>
+ * Also provides the primitive encodings shared by model sections. All values are big-endian, and arrays are prefixed by their
+ * length.
+ *
+ * @author jamesgung
+ */
+public class ModelFile {
+
+    public static final int MAGIC = 0x4357534D;
+    public static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+    static final int FOOTER_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final int version;
+    private final Map<String, ByteBuffer> sections;
+
+    private ModelFile(int version, Map<String, ByteBuffer> sections) {
+        this.version = version;
+        this.sections = sections;
+    }
+
+    /**
+     * Open a model file at a given path, memory-mapping its sections.
+     *
+     * @param path model file path
+     * @return model file
+     */
+    public static ModelFile open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Preconditions.checkArgument(size >= HEADER_BYTES + FOOTER_BYTES, "Not a model file: %s", path);
+            ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_BYTES);
+            ByteBuffer footer = channel.map(MapMode.READ_ONLY, size - FOOTER_BYTES, FOOTER_BYTES);
+            int version = checkHeader(header, footer, path.toString());
+            long tableOffset = footer.getLong(0);
+            ByteBuffer table = channel.map(MapMode.READ_ONLY, tableOffset, size - FOOTER_BYTES - tableOffset);
+            Map<String, ByteBuffer> sections = new LinkedHashMap<>();
+            int count = table.getInt();
+            for (int i = 0; i < count; ++i) {
+                String name = readString(table);
+                long offset = table.getLong();
+                long length = table.getLong();
+                Preconditions.checkArgument(length <= Integer.MAX_VALUE, "Section %s is too large to map: %s", name, length);
+                sections.put(name, channel.map(MapMode.READ_ONLY, offset, length));
+            }
+            return new ModelFile(version, sections);
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while opening model file at " + path, e);
+        }
+    }
+
+    /**
+     * Read a model file from a given input stream, such as a classpath resource, into memory. The stream is not closed.
+     *
+     * @param inputStream model file input stream
+     * @return model file
+     */
+    public static ModelFile read(InputStream inputStream) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                bytes.write(buffer, 0, read);
+            }
+            ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray());
+            int size = data.capacity();
+            Preconditions.checkArgument(size >= HEADER_BYTES + FOOTER_BYTES, "Not a model file.");
+            ByteBuffer footer = slice(data, size - FOOTER_BYTES, FOOTER_BYTES);
+            int version = checkHeader(slice(data, 0, HEADER_BYTES), footer, "input stream");
+            int tableOffset = (int) footer.getLong(0);
+            ByteBuffer table = slice(data, tableOffset, size - FOOTER_BYTES - tableOffset);
+            Map<String, ByteBuffer> sections = new LinkedHashMap<>();
+            int count = table.getInt();
+            for (int i = 0; i < count; ++i) {
+                String name = readString(table);
+                int offset = (int) table.getLong();
+                int length = (int) table.getLong();
+                sections.put(name, slice(data, offset, length));
+            }
+            return new ModelFile(version, sections);
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while reading model file.", e);
+        }
+    }
+
+    /**
+     * Returns true if the given leading bytes of a file identify a model file.
+     *
+     * @param header first bytes of a file
+     * @return true if the bytes begin with {@link #MAGIC}
+     */
+    public static boolean isModelFile(byte[] header) {
+        return header.length >= Integer.BYTES && ByteBuffer.wrap(header).getInt() == MAGIC;
+    }
+
+    /**
+     * Format version of this file.
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Names of the sections in this file, in the order written.
+     */
+    public Set<String> sections() {
+        return Collections.unmodifiableSet(sections.keySet());
+    }
+
+    /**
+     * Returns true if this file contains a section with a given name.
+     *
+     * @param name section name
+     */
+    public boolean contains(String name) {
+        return sections.containsKey(name);
+    }
+
+    /**
+     * Return the contents of a given section. Each call returns an independent buffer positioned at the start of the section,
+     * so sections may be read concurrently.
+     *
+     * @param name section name
+     * @return section contents
+     */
+    public ByteBuffer section(String name) {
+        ByteBuffer section = sections.get(name);
+        Preconditions.checkArgument(section != null, "Missing model file section: %s", name);
+        return section.duplicate();
+    }
+
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    public static int[] readInts(ByteBuffer buffer) {
+        int[] values = new int[buffer.getInt()];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    public static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    public static long[] readLongs(ByteBuffer buffer) {
+        long[] values = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Long.BYTES);
+        return values;
+    }
+
+    public static void writeFloats(DataOutputStream out, float[] values) throws IOException {
+        out.writeInt(values.length);
+        for (float value : values) {
+            out.writeFloat(value);
+        }
+    }
+
+    public static float[] readFloats(ByteBuffer buffer) {
+        float[] values = new float[buffer.getInt()];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Float.BYTES);
+        return values;
+    }
+
+    /**
+     * Write an object using Java serialization, for parts of a model without an explicit encoding.
+     *
+     * @param out    output
+     * @param object serializable object
+     */
+    public static void writeObject(DataOutputStream out, Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(object);
+        }
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    /**
+     * Read an object written by {@link #writeObject(DataOutputStream, Object)}.
+     *
+     * @param buffer input buffer
+     * @param <T>    object type
+     * @return deserialized object
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T readObject(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        ByteBuffer bytes = slice(buffer, buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteBufferInputStream(bytes))) {
+            return (T) ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("An error occurred while reading serialized model data: " + e.getMessage(), e);
+        }
+    }
+
+    static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer result = buffer.duplicate();
+        result.position(offset);
+        result.limit(offset + length);
+        return result.slice();
+    }
+
+    private static int checkHeader(ByteBuffer header, ByteBuffer footer, String source) {
+        if (header.getInt(0) != MAGIC || footer.getInt(Long.BYTES) != MAGIC) {
+            throw new IllegalArgumentException("Not a model file: " + source);
+        }
+        int version = header.getInt(Integer.BYTES);
+        if (version > VERSION) {
+            throw new IllegalArgumentException("Unsupported model file version " + version + " (expected at most " + VERSION
+                    + "): " + source);
+        }
+        return version;
+    }
+
+    /**
+     * Input stream over the remaining bytes of a buffer.
+     */
+    static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            length = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, length);
+            return length;
+        }
+
+    }
+
+}
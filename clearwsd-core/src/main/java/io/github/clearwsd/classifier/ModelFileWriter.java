@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.github.clearwsd.classifier.ModelFile.MAGIC;
+import static io.github.clearwsd.classifier.ModelFile.VERSION;
+
+/**
+ * Streaming writer for versioned binary model files (see {@link ModelFile}). Sections are written one at a time: each call to
+ * {@link #section(String)} ends the previous section and begins a new one. The section table is written on {@link #close()}.
+ *
+ * @author jamesgung
+ */
+public class ModelFileWriter implements AutoCloseable {
+
+    private static final int ALIGNMENT = Long.BYTES;
+
+    private final CountingOutputStream counter;
+    private final DataOutputStream out;
+    private final Map<String, long[]> sections = new LinkedHashMap<>();
+
+    private String section;
+    private long start;
+    private boolean closed;
+
+    /**
+     * Initialize a writer over a given output stream, which is closed along with this writer.
+     *
+     * @param outputStream target output
+     */
+    public ModelFileWriter(OutputStream outputStream) {
+        this.counter = new CountingOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+        this.out = new DataOutputStream(counter);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while writing model file.", e);
+        }
+    }
+
+    /**
+     * Begin a new section, ending the current section. The returned stream is only valid until the next section is started,
+     * and should not be closed.
+     *
+     * @param name unique section name
+     * @return section output stream
+     */
+    public DataOutputStream section(String name) {
+        Preconditions.checkState(!closed, "Writer has already been closed.");
+        Preconditions.checkArgument(!sections.containsKey(name) && !name.equals(section), "Duplicate section: %s", name);
+        try {
+            endSection();
+            while (counter.getCount() % ALIGNMENT != 0) {
+                out.write(0);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while writing model file.", e);
+        }
+        section = name;
+        start = counter.getCount();
+        return out;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            endSection();
+            long tableOffset = counter.getCount();
+            out.writeInt(sections.size());
+            for (Map.Entry<String, long[]> entry : sections.entrySet()) {
+                ModelFile.writeString(out, entry.getKey());
+                out.writeLong(entry.getValue()[0]);
+                out.writeLong(entry.getValue()[1]);
+            }
+            out.writeLong(tableOffset);
+            out.writeInt(MAGIC);
+            out.close();
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while writing model file.", e);
+        }
+    }
+
+    private void endSection() throws IOException {
+        if (section != null) {
+            out.flush();
+            sections.put(section, new long[]{start, counter.getCount() - start});
+            section = null;
+        }
+    }
+
+}
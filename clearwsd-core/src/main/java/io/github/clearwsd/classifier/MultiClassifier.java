@@ -16,23 +16,51 @@
 
 package io.github.clearwsd.classifier;
 
-import com.google.common.collect.ImmutableList;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.Multimaps;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Multi-model classifier. Given a key function, map inputs onto sub-models, specialized for the input types.
+ * <p>
+ * Sub-models are independent, and may be trained in parallel by setting {@link #threads(int)} or providing an
+ * {@link ExecutorService}. Training jobs are submitted in order of decreasing training set size, so that a few large models do
+ * not delay completion. As each sub-model is trained from its own data and initialized from the prototype, parallel training
+ * produces the same models as sequential training.
+ * <p>
+ * When stored in a {@link ModelFile} (see {@link ClassifierSections}), each sub-model is written as an independent record by a
+ * {@link ClassifierCodec}, in a section named "{section}/models", along with an index of the offset of each key's record
+ * ("{section}/index") and data shared by all sub-models ("{section}/shared"). When read back, only the index is loaded, and
+ * each sub-model is decoded the first time its key is encountered, so that models for rarely seen keys are never loaded. If
+ * read with a {@link SubModelCache}, sub-models are held in the cache rather than retained by this classifier, bounding the
+ * memory used by sub-models to the budget of the cache.
  *
  * @author jamesgung
  */
@@ -44,6 +72,37 @@ public class MultiClassifier<U, V> implements Classifier<U, V> {
     private Function<U, String> keyFunction;
     private transient Supplier<Classifier<U, V>> prototypeClassifier;
     private Map<String, Classifier<U, V>> classifierMap;
+    /**
+     * Model file section containing sub-models, for copies written by {@link ClassifierSections}.
+     */
+    private String subModelSection;
+    /**
+     * Index of sub-models not yet loaded, for classifiers read from a {@link ModelFile}. Cleared once every sub-model is loaded.
+     */
+    private transient volatile SubModelIndex<U, V> subModels;
+    /**
+     * Cache of sub-models read from a {@link ModelFile}, or null if sub-models are retained once read.
+     */
+    private transient volatile SubModelCache subModelCache;
+    /**
+     * Sub-models currently being read from a {@link ModelFile}, so that concurrent requests for a key wait on a single read.
+     */
+    private transient Map<String, FutureTask<Classifier<U, V>>> pending;
+
+    /**
+     * Number of threads used for training sub-models, if no {@link #executor(ExecutorService) executor} is provided.
+     */
+    @Getter
+    @Setter
+    @Accessors(fluent = true, chain = true)
+    private transient int threads = 1;
+    /**
+     * Executor used for training sub-models, not shut down after training.
+     */
+    @Getter
+    @Setter
+    @Accessors(fluent = true, chain = true)
+    private transient ExecutorService executor;
 
     /**
      * Instantiate a multi-model classifier with a function used to determine which sub-model to apply to a given istanceinstance.
@@ -57,39 +116,178 @@ public class MultiClassifier<U, V> implements Classifier<U, V> {
         classifierMap = new HashMap<>();
     }
 
+    private MultiClassifier(MultiClassifier<U, V> other, String subModelSection) {
+        this.keyFunction = other.keyFunction;
+        this.subModelSection = subModelSection;
+    }
+
     @Override
     public V classify(U instance) {
-        String key = keyFunction.apply(instance);
-        if (classifierMap.containsKey(key)) {
-            classifierMap.get(key).classify(instance);
+        Classifier<U, V> classifier = classifier(keyFunction.apply(instance));
+        if (classifier != null) {
+            return classifier.classify(instance);
         }
         return null;
     }
 
     @Override
     public Map<V, Double> score(U instance) {
-        String key = keyFunction.apply(instance);
-        if (classifierMap.containsKey(key)) {
-            return classifierMap.get(key).score(instance);
+        Classifier<U, V> classifier = classifier(keyFunction.apply(instance));
+        if (classifier != null) {
+            return classifier.score(instance);
         } else {
             return new HashMap<>();
         }
     }
 
+    @Override
+    public void score(U instance, LabelScores scores) {
+        Classifier<U, V> classifier = classifier(keyFunction.apply(instance));
+        if (classifier != null) {
+            classifier.score(instance, scores);
+        } else {
+            scores.reset(0);
+        }
+    }
+
+    @Override
+    public void score(U instance, LabelScores scores, Set<V> candidates) {
+        Classifier<U, V> classifier = classifier(keyFunction.apply(instance));
+        if (classifier != null) {
+            classifier.score(instance, scores, candidates);
+        } else {
+            scores.reset(0);
+        }
+    }
+
+    /**
+     * Return the sub-model for a given key, reading it from the model file if it has not been loaded yet.
+     */
+    private Classifier<U, V> classifier(String key) {
+        if (key == null) {
+            return null;
+        }
+        Classifier<U, V> classifier = classifierMap.get(key);
+        // read once, as the index is cleared when every sub-model is loaded, such as by a concurrent save
+        SubModelIndex<U, V> index = subModels;
+        if (classifier == null && index != null) {
+            SubModelCache cache = subModelCache;
+            if (cache != null) {
+                return cache.get(index, key);
+            }
+            if (index.contains(key)) {
+                classifier = load(index, key);
+            }
+        }
+        return classifier;
+    }
+
+    /**
+     * Read a sub-model from the model file and retain it. Sub-models are decoded outside of any map lock, so that reading one
+     * sub-model does not block requests for others, while concurrent requests for the same key wait for a single read.
+     */
+    private Classifier<U, V> load(SubModelIndex<U, V> index, String key) {
+        FutureTask<Classifier<U, V>> task = new FutureTask<>(() -> {
+            // may have been loaded since the caller's lookup
+            Classifier<U, V> loaded = classifierMap.get(key);
+            return loaded != null ? loaded : index.read(key);
+        });
+        FutureTask<Classifier<U, V>> previous = pending.putIfAbsent(key, task);
+        try {
+            if (previous != null) {
+                return previous.get();
+            }
+            task.run();
+            Classifier<U, V> classifier = task.get();
+            classifierMap.putIfAbsent(key, classifier);
+            return classifier;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reading sub-model " + key, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Error while reading sub-model " + key, e.getCause());
+        } finally {
+            if (previous == null) {
+                pending.remove(key, task);
+            }
+        }
+    }
+
+    /**
+     * Load any sub-models not yet read from the model file, such as before saving.
+     */
+    private void loadAll() {
+        SubModelIndex<U, V> index = subModels;
+        if (index != null) {
+            Stopwatch sw = Stopwatch.createStarted();
+            index.keys().forEach(key -> {
+                if (!classifierMap.containsKey(key)) {
+                    load(index, key);
+                }
+            });
+            log.debug("Loaded {} models from {} in {}", index.size(), index.section(), sw);
+            subModels = null;
+            subModelCache = null;
+        }
+    }
+
     @Override
     public void train(List<U> train, List<U> valid) {
         ImmutableListMultimap<String, U> trainSplits = Multimaps.index(train, keyFunction::apply);
         ImmutableListMultimap<String, U> validSplits = Multimaps.index(valid, keyFunction::apply);
-        int numCategories = trainSplits.keySet().size();
-        int index = 1;
-        for (String category : trainSplits.keySet()) {
-            log.debug("Training model for {} ({} of {})", category, index++, numCategories);
-            ImmutableList<U> trainCat = trainSplits.get(category);
-            ImmutableList<U> validCat = validSplits.get(category);
-            Classifier<U, V> classifier = prototypeClassifier.get();
-            classifier.train(trainCat, validCat);
-            classifierMap.put(category, classifier);
+        // largest models first, to avoid waiting on a few large models at the end of training
+        List<String> categories = trainSplits.keySet().stream()
+                .sorted(Comparator.comparingInt((String category) -> trainSplits.get(category).size()).reversed())
+                .collect(Collectors.toList());
+        AtomicInteger completed = new AtomicInteger();
+        Stopwatch sw = Stopwatch.createStarted();
+        if (executor == null && threads <= 1) {
+            for (String category : categories) {
+                classifierMap.put(category, train(category, trainSplits.get(category), validSplits.get(category),
+                        completed, categories.size()));
+            }
+        } else {
+            ExecutorService service = executor == null ? new ForkJoinPool(threads) : executor;
+            List<Future<Classifier<U, V>>> results = new ArrayList<>();
+            try {
+                for (String category : categories) {
+                    results.add(service.submit(() -> train(category, trainSplits.get(category), validSplits.get(category),
+                            completed, categories.size())));
+                }
+                for (int i = 0; i < categories.size(); ++i) {
+                    classifierMap.put(categories.get(i), results.get(i).get());
+                }
+            } catch (InterruptedException e) {
+                cancel(results);
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while training sub-models.", e);
+            } catch (ExecutionException e) {
+                // a provided executor is not shut down, so remaining jobs are cancelled rather than left to run
+                cancel(results);
+                throw new RuntimeException("Error while training sub-model: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                if (executor == null) {
+                    service.shutdownNow();
+                }
+            }
         }
+        log.debug("Trained {} models in {}", categories.size(), sw);
+    }
+
+    private static void cancel(List<? extends Future<?>> results) {
+        results.forEach(result -> result.cancel(true));
+    }
+
+    private Classifier<U, V> train(String category, List<U> train, List<U> valid, AtomicInteger completed, int total) {
+        Stopwatch sw = Stopwatch.createStarted();
+        Classifier<U, V> classifier = prototypeClassifier.get();
+        classifier.train(train, valid);
+        log.debug("Trained model for {} on {} instances in {} ({} of {})", category, train.size(), sw,
+                completed.incrementAndGet(), total);
+        return classifier;
     }
 
     @Override
@@ -111,6 +309,7 @@ public class MultiClassifier<U, V> implements Classifier<U, V> {
 
     @Override
     public void save(ObjectOutputStream outputStream) {
+        loadAll();
         try {
             outputStream.writeObject(classifierMap);
             outputStream.writeObject(keyFunction);
@@ -119,4 +318,68 @@ public class MultiClassifier<U, V> implements Classifier<U, V> {
         }
     }
 
+    private void writeObject(ObjectOutputStream outputStream) throws IOException {
+        loadAll();
+        outputStream.defaultWriteObject();
+    }
+
+    /**
+     * Return a copy of this classifier without sub-models, recording the model file section containing its sub-models.
+     */
+    MultiClassifier<U, V> withoutSubModels(String section) {
+        return new MultiClassifier<>(this, section);
+    }
+
+    /**
+     * Write the sub-models of this classifier to model file sections with a given prefix.
+     *
+     * @param writer  model file writer
+     * @param section section prefix
+     * @param codec   sub-model codec
+     */
+    void write(ModelFileWriter writer, String section, ClassifierCodec<U, V> codec) {
+        loadAll();
+        try {
+            List<String> keys = classifierMap.keySet().stream().sorted().collect(Collectors.toList());
+            long[] offsets = new long[keys.size() + 1];
+            DataOutputStream out = writer.section(section + "/models");
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            for (int i = 0; i < keys.size(); ++i) {
+                record.reset();
+                codec.write(classifierMap.get(keys.get(i)), new DataOutputStream(record));
+                record.writeTo(out);
+                offsets[i + 1] = offsets[i] + record.size();
+            }
+            out = writer.section(section + "/index");
+            out.writeInt(keys.size());
+            for (int i = 0; i < keys.size(); ++i) {
+                ModelFile.writeString(out, keys.get(i));
+                out.writeLong(offsets[i]);
+                out.writeInt((int) (offsets[i + 1] - offsets[i]));
+            }
+            codec.writeShared(writer.section(section + "/shared"));
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while writing sub-models to " + section, e);
+        }
+    }
+
+    /**
+     * Read the sub-model index of a copy written by {@link ClassifierSections}. Sub-models are read on demand.
+     *
+     * @param file  model file
+     * @param codec sub-model codec
+     * @param cache cache holding sub-models once read, or null to retain every sub-model read
+     */
+    void read(ModelFile file, ClassifierCodec<U, V> codec, SubModelCache cache) {
+        if (subModelSection == null) {
+            return;
+        }
+        Stopwatch sw = Stopwatch.createStarted();
+        classifierMap = new ConcurrentHashMap<>();
+        pending = new ConcurrentHashMap<>();
+        subModelCache = cache;
+        subModels = new SubModelIndex<>(file, subModelSection, codec);
+        log.debug("Indexed {} models from {} in {}", subModels.size(), subModelSection, sw);
+    }
+
 }
@@ -21,27 +21,26 @@ import com.google.common.base.Stopwatch;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
-import java.util.Set;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import io.github.clearwsd.eval.Evaluation;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Multi-class passive aggressive classifier (PA-I).
+ * Multi-class passive aggressive classifier (PA-I). Weights are kept in a feature-major {@link WeightMatrix}, so that scoring
+ * an instance touches one contiguous block of label weights per active feature. Sparse storage is used during training when
+ * most weights are expected to remain zero.
  *
  * @author jamesgung
  */
@@ -63,7 +62,9 @@ public class PaClassifier implements SparseClassifier {
         Shuffle("shuffle data prior to training", "true", (c, value) -> c.shuffle = Boolean.valueOf(value)),
         Seed("random seed for shuffling", "0", (c, value) -> c.seed = Integer.valueOf(value)),
         Verbose("display training logs", "false", (c, value) -> c.verbose = Boolean.valueOf(value)),
-        Multithread("compute scores in multiple threads", "true", (c, value) -> c.multithread = Boolean.valueOf(value));
+        Multithread("compute scores in multiple threads (unused)", "true", (c, value) -> c.multithread = Boolean.valueOf(value)),
+        Storage("weight storage during training (Auto, Dense or Sparse)", WeightStorage.Auto.name(),
+                (c, value) -> c.storage = WeightStorage.valueOf(value));
 
         private Hyperparameter<PaClassifier> parameter;
 
@@ -93,6 +94,17 @@ public class PaClassifier implements SparseClassifier {
         }
     }
 
+    /**
+     * Weight representation used during training. {@link WeightStorage#Auto} selects sparse storage when the estimated number of
+     * non-zero weights makes it smaller than dense storage. After training, weights are always compacted to the smallest of a
+     * dense, CSR or read-only hashed representation.
+     */
+    public enum WeightStorage {
+        Auto, Dense, Sparse
+    }
+
+    private static final ThreadLocal<float[]> SCORES = ThreadLocal.withInitial(() -> new float[0]);
+
     private boolean averaging;
     private float aggressiveness;
     private int epochs;
@@ -101,9 +113,23 @@ public class PaClassifier implements SparseClassifier {
     private int seed;
     private boolean verbose;
     private boolean multithread;
-
-    private Map<Integer, float[]> parameters = new HashMap<>();
-    private Map<Integer, float[]> cachedParameters = new HashMap<>();
+    private WeightStorage storage;
+
+    private WeightMatrix weights;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient TrainableWeightMatrix trainWeights;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient TrainableWeightMatrix cachedWeights;
+
+    // per-label weights of models saved prior to the introduction of WeightMatrix, converted when deserialized
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<Integer, float[]> parameters;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<Integer, float[]> cachedParameters;
 
     public PaClassifier() {
         initialize(new Properties());
@@ -111,13 +137,37 @@ public class PaClassifier implements SparseClassifier {
 
     @Override
     public Integer classify(SparseInstance instance) {
-        return getMax(instance);
+        float[] scores = scoreBuffer(weights.labels());
+        weights.score(instance, scores);
+        return weights.label(argMax(scores, weights.labels()));
     }
 
     @Override
     public Map<Integer, Double> score(SparseInstance instance) {
-        return entryStream()
-                .collect(Collectors.toMap(Map.Entry::getKey, i -> (double) score(instance, i.getValue())));
+        LabelScores scores = new LabelScores(weights.labels());
+        score(instance, scores);
+        return scores.toMap();
+    }
+
+    @Override
+    public void score(SparseInstance instance, LabelScores scores) {
+        weights.score(instance, scores);
+    }
+
+    @Override
+    public void score(SparseInstance instance, LabelScores scores, int[] candidates) {
+        weights.score(instance, candidates, scores);
+    }
+
+    /**
+     * Compute scores for each label without allocating, filling a caller-provided buffer indexed by label column (see
+     * {@link WeightMatrix#label(int)}).
+     *
+     * @param instance input instance
+     * @param scores   output buffer, of length at least {@link WeightMatrix#labels()}
+     */
+    public void score(SparseVector instance, float[] scores) {
+        weights.score(instance, scores);
     }
 
     @Override
@@ -127,8 +177,11 @@ public class PaClassifier implements SparseClassifier {
             return;
         }
         initParameters(train);
-        if (parameters.size() == 1) {
+        if (weights.labels() == 1) {
             log.warn("Only one class provided, skipping training.");
+            weights = trainWeights.compact();
+            trainWeights = null;
+            cachedWeights = null;
             return;
         }
         int epochsNoChange = 0;
@@ -137,8 +190,10 @@ public class PaClassifier implements SparseClassifier {
         double maxScore = -Double.MAX_VALUE;
         if (verbose) {
             log.debug("Commencing training on {} examples with {} features and {} classes.", train.size(),
-                    parameters.get(0).length, parameters.size());
+                    weights.features(), weights.labels());
         }
+        float[] scores = new float[weights.labels()];
+        train = new ArrayList<>(train); // shuffled in place
         Random random = new Random(seed);
         Stopwatch sw = Stopwatch.createStarted();
         for (int epoch = 0; epoch < epochs && epochsNoChange < patience; ++epoch) {
@@ -147,7 +202,7 @@ public class PaClassifier implements SparseClassifier {
             }
             int incorrect = 0;
             for (SparseInstance instance : train) {
-                if (update(instance, count)) {
+                if (update(instance, count, scores)) {
                     ++incorrect;
                 }
             }
@@ -160,7 +215,7 @@ public class PaClassifier implements SparseClassifier {
                     epochsNoChange = 0;
                     maxScore = validScore;
                     if (!averaging) {
-                        saveParameters();
+                        trainWeights.copyTo(cachedWeights);
                     }
                 } else {
                     ++epochsNoChange;
@@ -172,7 +227,7 @@ public class PaClassifier implements SparseClassifier {
                 if (incorrect < min) {
                     min = incorrect;
                     epochsNoChange = 0;
-                    saveParameters();
+                    trainWeights.copyTo(cachedWeights);
                 } else {
                     ++epochsNoChange;
                 }
@@ -185,10 +240,13 @@ public class PaClassifier implements SparseClassifier {
             ++count;
         }
         if (averaging) {
-            averageParameters(count);
+            trainWeights.average(cachedWeights, count);
+            weights = trainWeights.compact();
         } else {
-            parameters = cachedParameters;
+            weights = cachedWeights.compact();
         }
+        trainWeights = null;
+        cachedWeights = null;
         if (verbose) {
             log.debug("Training completed successfully in {}.", sw.toString());
         }
@@ -202,8 +260,13 @@ public class PaClassifier implements SparseClassifier {
     @Override
     public void load(ObjectInputStream inputStream) {
         try {
-            //noinspection unchecked
-            parameters = (Map<Integer, float[]>) inputStream.readObject();
+            Object stored = inputStream.readObject();
+            if (stored instanceof WeightMatrix) {
+                weights = (WeightMatrix) stored;
+            } else {
+                //noinspection unchecked
+                weights = DenseWeightMatrix.fromParameters((Map<Integer, float[]>) stored).compact();
+            }
         } catch (IOException | ClassNotFoundException e) {
             throw new RuntimeException(e);
         }
@@ -212,12 +275,21 @@ public class PaClassifier implements SparseClassifier {
     @Override
     public void save(ObjectOutputStream outputStream) {
         try {
-            outputStream.writeObject(parameters);
+            outputStream.writeObject(weights);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private void readObject(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        if (weights == null && parameters != null) {
+            weights = DenseWeightMatrix.fromParameters(parameters).compact();
+        }
+        parameters = null;
+        cachedParameters = null;
+    }
+
     private double test(List<SparseInstance> instances) {
         Evaluation evaluation = new Evaluation();
         for (SparseInstance instance : instances) {
@@ -231,104 +303,89 @@ public class PaClassifier implements SparseClassifier {
                 .map(i -> Arrays.stream(i.indices()).max().orElse(0))
                 .mapToInt(i -> i)
                 .max().orElse(0) + 1;
-        Set<Integer> targets = instances.stream()
-                .map(SparseInstance::target)
-                .distinct().collect(Collectors.toSet());
-        parameters = targets.stream().collect(Collectors.toMap(i -> i, i -> new float[features]));
-        cachedParameters = targets.stream().collect(Collectors.toMap(i -> i, i -> new float[features]));
+        int[] targets = instances.stream()
+                .mapToInt(SparseInstance::target)
+                .distinct().toArray();
+        int expected = expectedWeights(instances, features, targets.length);
+        if (storage == WeightStorage.Sparse || (storage == WeightStorage.Auto
+                && HashedWeightMatrix.bytes(expected) < DenseWeightMatrix.bytes(features, targets.length))) {
+            trainWeights = new HashedWeightMatrix(features, targets, expected);
+            cachedWeights = new HashedWeightMatrix(features, targets, expected);
+        } else {
+            trainWeights = new DenseWeightMatrix(features, targets);
+            cachedWeights = new DenseWeightMatrix(features, targets);
+        }
+        weights = trainWeights;
     }
 
-    private float score(SparseVector featureVector, float[] weights) {
-        float total = 0;
-        float[] values = featureVector.data();
-        int i = 0;
-        for (int index : featureVector.indices()) {
-            total += values[i] * weights[index];
+    /**
+     * Estimate the number of non-zero weights after training. Each update touches at most two labels per active feature, so a
+     * feature occurring in n instances has at most min(2n, labels) non-zero weights.
+     */
+    private static int expectedWeights(List<SparseInstance> instances, int features, int labels) {
+        int[] counts = new int[features];
+        for (SparseInstance instance : instances) {
+            for (int index : instance.indices()) {
+                ++counts[index];
+            }
+        }
+        long expected = 0;
+        for (int count : counts) {
+            expected += Math.min(2L * count, labels);
         }
-        return total;
+        return (int) Math.min(expected, Integer.MAX_VALUE);
     }
 
-    private boolean update(SparseInstance instance, int count) {
-        float[] correctVec = parameters.get(instance.target());
-        double correctScore = score(instance, correctVec);
-
-        ScoredLabel maxIncorrect = getMaxIncorrect(instance, instance.target());
-        float maxScore = maxIncorrect.score;
+    private boolean update(SparseInstance instance, int count, float[] scores) {
+        int correct = trainWeights.column(instance.target());
+        trainWeights.score(instance, scores);
+        double correctScore = scores[correct];
+
+        int maxIncorrect = -1;
+        float maxScore = -Float.MAX_VALUE;
+        for (int column = 0; column < trainWeights.labels(); ++column) {
+            if (column != correct && (maxIncorrect < 0 || scores[column] > maxScore)) {
+                maxIncorrect = column;
+                maxScore = scores[column];
+            }
+        }
 
         double loss = Math.max(0, 1 - correctScore + maxScore);
         if (loss > 0) {
-            update(loss, instance, instance.target(), maxIncorrect.label, count);
+            update(loss, instance, correct, maxIncorrect, count);
         }
         return (correctScore < maxScore);
     }
 
-    private ScoredLabel getMaxIncorrect(SparseVector instance, int correctLabel) {
-        return entryStream()
-                .filter(p -> p.getKey() != correctLabel)
-                .map(p -> new ScoredLabel(p.getKey(), score(instance, p.getValue())))
-                .max((p1, p2) -> Float.compare(p1.score, p2.score))
-                .orElseThrow(() -> new IllegalStateException("No parameters found."));
-    }
-
-    private void update(double loss, SparseVector featureVector, int correctLabel, int incorrectLabel, int count) {
-        float[] correct = parameters.get(correctLabel);
-        float[] incorrect = parameters.get(incorrectLabel);
+    private void update(double loss, SparseVector featureVector, int correct, int incorrect, int count) {
         double norm = featureVector.l2();
         double tau = loss / (2 * norm * norm);
         tau = Math.min(aggressiveness, tau);
-        addToDense(tau, featureVector, correct);
-        addToDense(-tau, featureVector, incorrect);
+        trainWeights.add(featureVector, correct, tau);
+        trainWeights.add(featureVector, incorrect, -tau);
         if (averaging) {
-            addToDense(tau * count, featureVector, cachedParameters.get(correctLabel));
-            addToDense(-tau * count, featureVector, cachedParameters.get(incorrectLabel));
+            cachedWeights.add(featureVector, correct, tau * count);
+            cachedWeights.add(featureVector, incorrect, -tau * count);
         }
     }
 
-    private void addToDense(double weight, SparseVector sparseVector, float[] denseVector) {
-        int[] indices = sparseVector.indices();
-        float[] values = sparseVector.data();
-        for (int i = 0; i < indices.length; ++i) {
-            denseVector[indices[i]] += values[i] * weight;
+    private static int argMax(float[] scores, int length) {
+        int max = 0;
+        for (int i = 1; i < length; ++i) {
+            if (scores[i] > scores[max]) {
+                max = i;
+            }
         }
+        return max;
     }
 
-    private int getMax(SparseVector featureVector) {
-        return entryStream()
-                .map(p -> new ScoredLabel(p.getKey(), score(featureVector, p.getValue())))
-                .max((p1, p2) -> Float.compare(p1.score, p2.score))
-                .orElseThrow(() -> new IllegalStateException("No parameters found.")).label;
-    }
-
-    private void averageParameters(int count) {
-        entryStream().forEach(
-                param -> {
-                    float[] params = parameters.get(param.getKey());
-                    float[] cached = cachedParameters.get(param.getKey());
-                    for (int i = 0; i < cached.length; ++i) {
-                        params[i] = (params[i] * count - cached[i]) / (count - 1);
-                    }
-                }
-        );
-    }
-
-    private void saveParameters() {
-        entryStream().forEach(
-                param -> {
-                    float[] params = parameters.get(param.getKey());
-                    float[] cached = cachedParameters.get(param.getKey());
-                    System.arraycopy(params, 0, cached, 0, cached.length);
-                }
-        );
-    }
-
-    private Stream<Map.Entry<Integer, float[]>> entryStream() {
-        return multithread ? parameters.entrySet().parallelStream() : parameters.entrySet().stream();
-    }
-
-    @AllArgsConstructor
-    private static final class ScoredLabel {
-        private final int label;
-        private final float score;
+    private static float[] scoreBuffer(int size) {
+        float[] scores = SCORES.get();
+        if (scores.length < size) {
+            scores = new float[size];
+            SCORES.set(scores);
+        }
+        return scores;
     }
 
 }
@@ -16,6 +16,9 @@
 
 package io.github.clearwsd.classifier;
 
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Classification algorithm over sparse data.
  *
@@ -23,4 +26,40 @@ package io.github.clearwsd.classifier;
  */
 public interface SparseClassifier extends Classifier<SparseInstance, Integer> {
 
+    /**
+     * Produce scores for each label given an input instance, identifying labels by their indices. The default implementation
+     * adapts {@link #score(Object)}.
+     *
+     * @param instance input instance
+     * @param scores   output scores
+     */
+    @Override
+    default void score(SparseInstance instance, LabelScores scores) {
+        Map<Integer, Double> results = score(instance);
+        scores.reset(results.size());
+        int index = 0;
+        for (Map.Entry<Integer, Double> entry : results.entrySet()) {
+            scores.set(index++, entry.getKey(), entry.getValue().floatValue());
+        }
+    }
+
+    @Override
+    default void score(SparseInstance instance, LabelScores scores, Set<Integer> candidates) {
+        score(instance, scores, candidates.stream().mapToInt(i -> i).toArray());
+    }
+
+    /**
+     * Produce scores for only a given set of candidate label indices. Candidates unknown to this classifier are omitted. The
+     * default implementation scores all labels and then retains the candidates, but implementations may avoid scoring
+     * non-candidate labels entirely.
+     *
+     * @param instance   input instance
+     * @param scores     output scores
+     * @param candidates candidate label indices
+     */
+    default void score(SparseInstance instance, LabelScores scores, int[] candidates) {
+        score(instance, scores);
+        scores.retain(candidates);
+    }
+
 }
@@ -16,20 +16,50 @@
 
 package io.github.clearwsd.classifier;
 
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
 /**
- * Sparse vector builder.
+ * Sparse vector builder. Values are collected into growable primitive buffers, then sorted by index and merged on
+ * {@link #build()}. A builder can be reused for multiple vectors by calling {@link #reset()}.
  *
  * @author jamesgung
  */
 public class SparseVectorBuilder {
 
-    private Map<Integer, Float> indexValueMap = new HashMap<>();
+    /**
+     * Policy for combining multiple values added at the same index.
+     */
+    public enum DuplicatePolicy {
+        /**
+         * Keep the most recently added value.
+         */
+        Overwrite,
+        /**
+         * Sum all values.
+         */
+        Sum,
+        /**
+         * Keep the largest value.
+         */
+        Max
+    }
+
+    private final DuplicatePolicy policy;
+
+    private int[] indices;
+    private float[] values;
+    private long[] order;
+    private int size;
+
+    public SparseVectorBuilder() {
+        this(DuplicatePolicy.Overwrite);
+    }
+
+    public SparseVectorBuilder(DuplicatePolicy policy) {
+        this.policy = policy;
+        this.indices = new int[16];
+        this.values = new float[16];
+    }
 
     /**
      * Add a new value to this sparse vector.
@@ -39,7 +69,12 @@ public class SparseVectorBuilder {
      * @return this {@link SparseVectorBuilder}
      */
     public SparseVectorBuilder addValue(int index, float value) {
-        indexValueMap.put(index, value);
+        if (size == indices.length) {
+            indices = Arrays.copyOf(indices, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        indices[size] = index;
+        values[size++] = value;
         return this;
     }
 
@@ -53,22 +88,73 @@ public class SparseVectorBuilder {
         return addValue(index, 1);
     }
 
+    /**
+     * Remove all values from this builder, retaining allocated buffers.
+     *
+     * @return this {@link SparseVectorBuilder}
+     */
+    public SparseVectorBuilder reset() {
+        size = 0;
+        return this;
+    }
+
     /**
      * Build an immutable sparse vector given the current state of this builder.
      *
      * @return sparse vector
      */
     public SparseVector build() {
-        List<Map.Entry<Integer, Float>> entries = indexValueMap.entrySet().stream().sorted(
-                Comparator.comparingInt(Map.Entry::getKey)).collect(Collectors.toList());
-        int[] indexArray = new int[entries.size()];
-        float[] valueArray = new float[indexArray.length];
-        int index = 0;
-        for (Map.Entry<Integer, Float> entry : entries) {
-            indexArray[index] = entry.getKey();
-            valueArray[index++] = entry.getValue();
+        if (isStrictlyIncreasing()) {
+            return new DefaultSparseVector(Arrays.copyOf(indices, size), Arrays.copyOf(values, size));
+        }
+        // sort (index, insertion order) pairs, so that duplicates are merged in the order they were added
+        if (order == null || order.length < size) {
+            order = new long[indices.length];
+        }
+        for (int i = 0; i < size; ++i) {
+            order[i] = ((long) indices[i] << Integer.SIZE) | i;
+        }
+        Arrays.sort(order, 0, size);
+
+        int[] indexArray = new int[size];
+        float[] valueArray = new float[size];
+        int length = 0;
+        for (int i = 0; i < size; ++i) {
+            int position = (int) order[i];
+            int index = indices[position];
+            float value = values[position];
+            if (length > 0 && indexArray[length - 1] == index) {
+                valueArray[length - 1] = merge(valueArray[length - 1], value);
+            } else {
+                indexArray[length] = index;
+                valueArray[length++] = value;
+            }
+        }
+        if (length < size) {
+            indexArray = Arrays.copyOf(indexArray, length);
+            valueArray = Arrays.copyOf(valueArray, length);
         }
         return new DefaultSparseVector(indexArray, valueArray);
     }
 
+    private boolean isStrictlyIncreasing() {
+        for (int i = 1; i < size; ++i) {
+            if (indices[i] <= indices[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private float merge(float previous, float value) {
+        switch (policy) {
+            case Sum:
+                return previous + value;
+            case Max:
+                return Math.max(previous, value);
+            default:
+                return value;
+        }
+    }
+
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory-bounded cache of {@link MultiClassifier} sub-models read on demand from a {@link ModelFile}. The cache is bounded by
+ * the total estimated size of its sub-models (see {@link ClassifierCodec#bytes(Classifier, int)}), mostly that of their
+ * weights, rather than by number of entries. When the budget is exceeded, the least recently used sub-models are evicted, and
+ * are read again from the model file when next needed. A sub-model larger than the whole budget is never cached, rather than
+ * evicting every other sub-model. A single cache may be shared by every {@link MultiClassifier} of a model, bounding the model
+ * as a whole.
+ * <p>
+ * This cache is threadsafe. Sub-models are read outside of the cache lock, so a sub-model requested concurrently by several
+ * threads may occasionally be read more than once, but only a single copy is retained.
+ *
+ * @author jamesgung
+ */
+public class SubModelCache {
+
+    private final long maxBytes;
+
+    // cached sub-models, in access order
+    private final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+
+    /**
+     * Initialize a sub-model cache with a given memory budget.
+     *
+     * @param maxBytes maximum total estimated size of cached sub-models in bytes
+     */
+    public SubModelCache(long maxBytes) {
+        Preconditions.checkArgument(maxBytes > 0, "Maximum cache size must be positive, got %s", maxBytes);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Maximum total estimated size of cached sub-models in bytes.
+     */
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Number of sub-model requests served from the cache.
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Number of sub-model requests requiring a sub-model to be read from its model file.
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Number of sub-models evicted from the cache.
+     */
+    public long evictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Total time spent reading sub-models from model files.
+     *
+     * @param unit time unit
+     * @return total load time in the given unit
+     */
+    public long loadTime(TimeUnit unit) {
+        return unit.convert(loadNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Number of sub-models currently in the cache.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Total estimated size of sub-models currently in the cache, in bytes.
+     */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d hits, %d misses, %d evictions, %d ms loading, %d models (%d of %d bytes)", hits(), misses(),
+                evictions(), loadTime(TimeUnit.MILLISECONDS), size(), bytes(), maxBytes);
+    }
+
+    /**
+     * Return the sub-model for a given key, reading it from the model file if it is not cached.
+     *
+     * @param index sub-model index
+     * @param key   sub-model key
+     * @return sub-model, or null if there is no sub-model for the key
+     */
+    <U, V> Classifier<U, V> get(SubModelIndex<U, V> index, String key) {
+        CacheKey cacheKey = new CacheKey(index, key);
+        synchronized (this) {
+            Entry entry = entries.get(cacheKey);
+            if (entry != null) {
+                hits.incrementAndGet();
+                //noinspection unchecked
+                return (Classifier<U, V>) entry.classifier;
+            }
+        }
+        if (!index.contains(key)) {
+            return null;
+        }
+        misses.incrementAndGet();
+        long start = System.nanoTime();
+        Classifier<U, V> classifier = index.read(key);
+        long size = index.bytes(classifier, key);
+        loadNanos.addAndGet(System.nanoTime() - start);
+        if (size > maxBytes) {
+            // would evict every other sub-model, and then itself
+            return classifier;
+        }
+        synchronized (this) {
+            Entry previous = entries.putIfAbsent(cacheKey, new Entry(classifier, size));
+            if (previous != null) {
+                // read concurrently by another thread
+                //noinspection unchecked
+                return (Classifier<U, V>) previous.classifier;
+            }
+            bytes += size;
+            evict();
+        }
+        return classifier;
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            bytes -= iterator.next().bytes;
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static final class Entry {
+
+        private final Classifier<?, ?> classifier;
+        private final long bytes;
+
+        Entry(Classifier<?, ?> classifier, long bytes) {
+            this.classifier = classifier;
+            this.bytes = bytes;
+        }
+
+    }
+
+    /**
+     * Sub-model key, qualified by the identity of its index.
+     */
+    private static final class CacheKey {
+
+        private final SubModelIndex<?, ?> index;
+        private final String key;
+
+        CacheKey(SubModelIndex<?, ?> index, String key) {
+            this.index = index;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey cacheKey = (CacheKey) other;
+            return index == cacheKey.index && key.equals(cacheKey.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(index) + key.hashCode();
+        }
+
+    }
+
+}
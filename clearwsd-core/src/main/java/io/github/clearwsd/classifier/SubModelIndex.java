@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index over the sub-model records of a {@link MultiClassifier} stored in a {@link ModelFile}, used to read individual
+ * sub-models on demand. Only the index (keys and record offsets) is read on open; records are decoded by a
+ * {@link ClassifierCodec} when requested. Reading is threadsafe.
+ *
+ * @param <U> input type
+ * @param <V> output type
+ * @author jamesgung
+ */
+class SubModelIndex<U, V> {
+
+    private final String section;
+    private final ClassifierCodec<U, V> codec;
+    private final ByteBuffer models;
+    // keys in sorted order, as written by MultiClassifier
+    private final String[] keys;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    /**
+     * Read the index of sub-models written under a given section prefix.
+     *
+     * @param file    model file
+     * @param section section prefix
+     * @param codec   sub-model codec, initialized with shared data by this index
+     */
+    SubModelIndex(ModelFile file, String section, ClassifierCodec<U, V> codec) {
+        this.section = section;
+        this.codec = codec;
+        codec.readShared(file.section(section + "/shared"));
+        models = file.section(section + "/models");
+        ByteBuffer index = file.section(section + "/index");
+        int size = index.getInt();
+        keys = new String[size];
+        offsets = new int[size];
+        lengths = new int[size];
+        for (int i = 0; i < size; ++i) {
+            keys[i] = ModelFile.readString(index);
+            offsets[i] = (int) index.getLong();
+            lengths[i] = index.getInt();
+        }
+    }
+
+    /**
+     * Model file section prefix of this index.
+     */
+    String section() {
+        return section;
+    }
+
+    /**
+     * Number of indexed sub-models.
+     */
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * Indexed keys, in sorted order.
+     */
+    List<String> keys() {
+        return Arrays.asList(keys);
+    }
+
+    /**
+     * Returns true if a sub-model is stored for a given key.
+     */
+    boolean contains(String key) {
+        return Arrays.binarySearch(keys, key) >= 0;
+    }
+
+    /**
+     * Estimated resident size in bytes of a sub-model read from this index.
+     *
+     * @param classifier sub-model
+     * @param key        sub-model key
+     * @return estimated size in bytes
+     */
+    long bytes(Classifier<U, V> classifier, String key) {
+        return codec.bytes(classifier, lengths[Arrays.binarySearch(keys, key)]);
+    }
+
+    /**
+     * Read and decode the sub-model of a given key.
+     *
+     * @param key sub-model key
+     * @return sub-model, or null if there is no sub-model for the key
+     */
+    Classifier<U, V> read(String key) {
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            return null;
+        }
+        return codec.read(ModelFile.slice(models, offsets[index], lengths[index]));
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+/**
+ * Mutable {@link WeightMatrix} used during training, which can be compacted into a read-only representation for inference.
+ *
+ * @author jamesgung
+ */
+public interface TrainableWeightMatrix extends WeightMatrix {
+
+    /**
+     * Add a scaled sparse vector to the weights of a single label column.
+     *
+     * @param vector sparse vector
+     * @param column label column
+     * @param scale  scaling factor applied to the vector
+     */
+    void add(SparseVector vector, int column, double scale);
+
+    /**
+     * Copy the weights of this matrix into another matrix of the same type and dimensions.
+     *
+     * @param target target matrix
+     */
+    void copyTo(TrainableWeightMatrix target);
+
+    /**
+     * Replace the weights of this matrix with their average over training updates, given a matrix of the same type holding
+     * update totals, each weighted by the update count at which it was applied.
+     *
+     * @param totals count-weighted sum of updates
+     * @param count  final update count
+     */
+    void average(TrainableWeightMatrix totals, int count);
+
+    /**
+     * Return the smallest representation (dense, CSR or hashed) of the current weights, for use at inference time. Only a dense
+     * matrix may return itself, if already smallest; other trainable matrices return a read-only copy.
+     *
+     * @return compact weight matrix
+     */
+    WeightMatrix compact();
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Weights of a linear multi-class model, addressed by feature index and label column. Labels are stored in ascending order of
+ * label index.
+ *
+ * @author jamesgung
+ */
+public interface WeightMatrix extends Serializable {
+
+    /**
+     * Number of feature rows in this matrix. Feature indices outside this range are ignored during scoring.
+     */
+    int features();
+
+    /**
+     * Number of label columns in this matrix.
+     */
+    int labels();
+
+    /**
+     * Return the label index for a given column.
+     *
+     * @param column label column
+     * @return label index
+     */
+    int label(int column);
+
+    /**
+     * Return the column for a given label index, or a negative value if the label is not in this matrix.
+     *
+     * @param label label index
+     * @return label column
+     */
+    int column(int label);
+
+    /**
+     * Return the weight for a given feature and label column.
+     *
+     * @param feature feature index
+     * @param column  label column
+     * @return weight
+     */
+    float weight(int feature, int column);
+
+    /**
+     * Number of weights stored explicitly by this matrix.
+     */
+    int stored();
+
+    /**
+     * Compute the score of every label for a given vector, filling the first {@link #labels()} entries of a provided buffer.
+     *
+     * @param vector sparse input vector
+     * @param scores output buffer, indexed by column
+     */
+    void score(SparseVector vector, float[] scores);
+
+    /**
+     * Compute the score of a single label column for a given vector.
+     *
+     * @param vector sparse input vector
+     * @param column label column
+     * @return score
+     */
+    float score(SparseVector vector, int column);
+
+    /**
+     * Compute the score of every label for a given vector, filling a reusable {@link LabelScores} container in column order.
+     *
+     * @param vector sparse input vector
+     * @param scores output scores
+     */
+    default void score(SparseVector vector, LabelScores scores) {
+        scores.reset(labels());
+        score(vector, scores.scores());
+        int[] labels = scores.labels();
+        for (int column = 0; column < labels(); ++column) {
+            labels[column] = label(column);
+        }
+    }
+
+    /**
+     * Compute scores for only a given set of candidate labels, filling a reusable {@link LabelScores} container. Candidates
+     * not in this matrix are omitted, and non-candidate labels are not scored. The vector is traversed once, accumulating the
+     * weights of each feature for every candidate column.
+     *
+     * @param vector     sparse input vector
+     * @param candidates candidate label indices
+     * @param scores     output scores
+     */
+    default void score(SparseVector vector, int[] candidates, LabelScores scores) {
+        // candidate columns are held in the label buffer until scored
+        int[] columns = scores.reset(candidates.length).labels();
+        int size = 0;
+        for (int candidate : candidates) {
+            int column = column(candidate);
+            if (column >= 0) {
+                columns[size++] = column;
+            }
+        }
+        float[] totals = scores.reset(size).scores();
+        Arrays.fill(totals, 0, size, 0);
+        int features = features();
+        int[] indices = vector.indices();
+        float[] values = vector.data();
+        for (int i = 0; i < indices.length; ++i) {
+            int index = indices[i];
+            if (index >= features) {
+                continue;
+            }
+            float value = values[i];
+            for (int k = 0; k < size; ++k) {
+                totals[k] += value * weight(index, columns[k]);
+            }
+        }
+        for (int k = 0; k < size; ++k) {
+            columns[k] = label(columns[k]);
+        }
+    }
+
+    /**
+     * Approximate number of bytes required to store the weights of this matrix.
+     */
+    long bytes();
+
+    /**
+     * Write this matrix in an explicit binary form (see {@link ModelFile}), preceded by a tag identifying its type, with weights
+     * stored as contiguous float arrays. Trainable matrices are written in their {@link TrainableWeightMatrix#compact() compact}
+     * form.
+     *
+     * @param out output stream
+     */
+    void write(DataOutputStream out) throws IOException;
+
+    /**
+     * Read a weight matrix written by {@link #write(DataOutputStream)}.
+     *
+     * @param buffer input buffer
+     * @return weight matrix
+     */
+    static WeightMatrix read(ByteBuffer buffer) {
+        return WeightMatrixType.read(buffer);
+    }
+
+
+}
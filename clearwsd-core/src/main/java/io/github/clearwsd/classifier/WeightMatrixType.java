@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+/**
+ * Read-only {@link WeightMatrix} types written to model files, identified by a fixed tag preceding each matrix (see
+ * {@link WeightMatrix#write(java.io.DataOutputStream)}). Tags must not be changed or reused once written.
+ *
+ * @author jamesgung
+ */
+enum WeightMatrixType {
+
+    Dense(0, DenseWeightMatrix::read),
+    Csr(1, CsrWeightMatrix::read),
+    CompactHashed(2, CompactHashedWeightMatrix::read);
+
+    private final int tag;
+    private final Function<ByteBuffer, WeightMatrix> reader;
+
+    WeightMatrixType(int tag, Function<ByteBuffer, WeightMatrix> reader) {
+        this.tag = tag;
+        this.reader = reader;
+    }
+
+    /**
+     * Tag written before matrices of this type.
+     */
+    int tag() {
+        return tag;
+    }
+
+    /**
+     * Read a tagged weight matrix.
+     *
+     * @param buffer input buffer
+     * @return weight matrix
+     */
+    static WeightMatrix read(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        for (WeightMatrixType type : values()) {
+            if (type.tag == tag) {
+                return type.reader.apply(buffer);
+            }
+        }
+        throw new IllegalArgumentException("Unsupported weight matrix type: " + tag);
+    }
+
+}
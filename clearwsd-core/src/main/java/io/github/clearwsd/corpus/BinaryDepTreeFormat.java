@@ -0,0 +1,282 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.corpus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+
+/**
+ * Binary dependency tree corpus format shared by {@link BinaryDepTreeWriter}, {@link BinaryDepTreeReader} and
+ * {@link IndexedDepTreeFile}. A corpus consists of:
+ * <ol>
+ * <li>a header (magic number and version)</li>
+ * <li>a sequence of length-prefixed, self-contained blocks of trees, terminated by a zero length</li>
+ * <li>a block index giving the number of trees and byte length of each block</li>
+ * <li>a footer giving the offset of the block index, followed by the magic number</li>
+ * </ol>
+ * Each block stores a dictionary of distinct strings for each of the text, lemma, part-of-speech and dependency label columns,
+ * plus a dictionary for any other string features, followed by the byte length of each tree and the trees themselves. Trees
+ * store dictionary IDs and head offsets as variable-length integers. Non-string features are not stored.
+ *
+ * @author jamesgung
+ */
+final class BinaryDepTreeFormat {
+
+    static final int MAGIC = 0x43574454;
+    static final int VERSION = 1;
+    static final int FOOTER_BYTES = Long.BYTES + Integer.BYTES;
+
+    private static final FeatureType[] COLUMNS = {FeatureType.Text, FeatureType.Lemma, FeatureType.Pos, FeatureType.Dep};
+    private static final int OTHER = COLUMNS.length;
+
+    private BinaryDepTreeFormat() {
+        throw new AssertionError("Utility class, should never be instantiated.");
+    }
+
+    /**
+     * Accumulates trees into a single encoded block.
+     */
+    static class BlockEncoder {
+
+        private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+        private final ByteArrayOutputStream trees = new ByteArrayOutputStream();
+        private final List<Integer> lengths = new ArrayList<>();
+
+        BlockEncoder() {
+            for (int i = 0; i <= OTHER; ++i) {
+                dictionaries.add(new LinkedHashMap<>());
+            }
+        }
+
+        int size() {
+            return lengths.size();
+        }
+
+        void add(DepTree tree) {
+            int start = trees.size();
+            writeVarint(trees, tree.tokens().size());
+            for (DepNode node : tree.tokens()) {
+                for (int column = 0; column < COLUMNS.length; ++column) {
+                    Object value = node.feature(COLUMNS[column]);
+                    writeVarint(trees, value instanceof String ? id(column, (String) value) + 1 : 0);
+                }
+                writeVarint(trees, zigzag(node.isRoot() ? 0 : node.head().index() - node.index()));
+                writeOther(node.features(), true);
+            }
+            writeOther(tree.features(), false);
+            lengths.add(trees.size() - start);
+        }
+
+        byte[] encode() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(trees.size() + 1024);
+            writeVarint(out, lengths.size());
+            for (Map<String, Integer> dictionary : dictionaries) {
+                writeVarint(out, dictionary.size());
+                for (String value : dictionary.keySet()) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    writeVarint(out, bytes.length);
+                    out.write(bytes, 0, bytes.length);
+                }
+            }
+            for (int length : lengths) {
+                writeVarint(out, length);
+            }
+            byte[] data = trees.toByteArray();
+            out.write(data, 0, data.length);
+            return out.toByteArray();
+        }
+
+        private void writeOther(Map<String, Object> features, boolean skipColumns) {
+            List<Map.Entry<String, Object>> other = new ArrayList<>();
+            for (Map.Entry<String, Object> feature : features.entrySet()) {
+                if (feature.getValue() instanceof String && !(skipColumns && isColumn(feature.getKey()))) {
+                    other.add(feature);
+                }
+            }
+            writeVarint(trees, other.size());
+            for (Map.Entry<String, Object> feature : other) {
+                writeVarint(trees, id(OTHER, feature.getKey()));
+                writeVarint(trees, id(OTHER, (String) feature.getValue()));
+            }
+        }
+
+        private int id(int dictionary, String value) {
+            Map<String, Integer> ids = dictionaries.get(dictionary);
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = ids.size();
+                ids.put(value, id);
+            }
+            return id;
+        }
+
+    }
+
+    /**
+     * Decoded block, providing access to individual trees by their position in the block.
+     */
+    static class Block {
+
+        private final int first;
+        private final String[][] dictionaries;
+        private final int[] offsets;
+        private final ByteBuffer data;
+
+        /**
+         * Decode a block's dictionaries and tree offsets. Trees are decoded on demand.
+         *
+         * @param first ID of the first tree in the block
+         * @param data  encoded block
+         */
+        Block(int first, ByteBuffer data) {
+            this.first = first;
+            this.data = data;
+            int trees = (int) readVarint(data);
+            dictionaries = new String[OTHER + 1][];
+            for (int i = 0; i <= OTHER; ++i) {
+                String[] dictionary = new String[(int) readVarint(data)];
+                for (int j = 0; j < dictionary.length; ++j) {
+                    int length = (int) readVarint(data);
+                    dictionary[j] = new String(data.array(), data.arrayOffset() + data.position(), length,
+                            StandardCharsets.UTF_8);
+                    data.position(data.position() + length);
+                }
+                dictionaries[i] = dictionary;
+            }
+            offsets = new int[trees + 1];
+            for (int i = 0; i < trees; ++i) {
+                offsets[i + 1] = offsets[i] + (int) readVarint(data);
+            }
+            int start = data.position();
+            for (int i = 0; i <= trees; ++i) {
+                offsets[i] += start;
+            }
+        }
+
+        int size() {
+            return offsets.length - 1;
+        }
+
+        DepTree tree(int index) {
+            ByteBuffer buffer = data.duplicate();
+            buffer.position(offsets[index]);
+            int size = (int) readVarint(buffer);
+            List<DepNode> nodes = new ArrayList<>(size);
+            int[] heads = new int[size];
+            for (int i = 0; i < size; ++i) {
+                DefaultDepNode node = new DefaultDepNode(i);
+                for (int column = 0; column < COLUMNS.length; ++column) {
+                    int id = (int) readVarint(buffer);
+                    if (id > 0) {
+                        node.addFeature(COLUMNS[column], dictionaries[column][id - 1]);
+                    }
+                }
+                heads[i] = i + unzigzag(readVarint(buffer));
+                readOther(buffer, node.features());
+                nodes.add(node);
+            }
+            DepNode root = null;
+            for (int i = 0; i < size; ++i) {
+                if (heads[i] == i) {
+                    root = nodes.get(i);
+                } else {
+                    ((DefaultDepNode) nodes.get(i)).head(nodes.get(heads[i]));
+                }
+            }
+            DefaultDepTree tree = new DefaultDepTree(first + index, nodes, root);
+            readOther(buffer, tree.features());
+            return tree;
+        }
+
+        private void readOther(ByteBuffer buffer, Map<String, Object> features) {
+            int count = (int) readVarint(buffer);
+            for (int i = 0; i < count; ++i) {
+                String key = dictionaries[OTHER][(int) readVarint(buffer)];
+                features.put(key, dictionaries[OTHER][(int) readVarint(buffer)]);
+            }
+        }
+
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed variable-length integer.");
+    }
+
+    static long readVarint(InputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Unexpected end of binary tree corpus.");
+            }
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable-length integer.");
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unzigzag(long value) {
+        int bits = (int) value;
+        return (bits >>> 1) ^ -(bits & 1);
+    }
+
+    private static boolean isColumn(String key) {
+        for (FeatureType column : COLUMNS) {
+            if (column.name().equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
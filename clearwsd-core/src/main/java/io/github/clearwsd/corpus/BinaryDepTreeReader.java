@@ -0,0 +1,102 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.corpus;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+
+import io.github.clearwsd.corpus.BinaryDepTreeFormat.Block;
+import io.github.clearwsd.type.DepTree;
+
+import static io.github.clearwsd.corpus.BinaryDepTreeFormat.MAGIC;
+import static io.github.clearwsd.corpus.BinaryDepTreeFormat.VERSION;
+import static io.github.clearwsd.corpus.BinaryDepTreeFormat.readVarint;
+
+/**
+ * Sequential reader/writer for the compact binary dependency tree corpus format. Trees are stored in blocks with dictionary-encoded
+ * text, lemma, part-of-speech and dependency label columns and variable-length head offsets, so corpora are typically several
+ * times smaller and much faster to read than their CoNLL equivalents. Other string features on nodes and trees (such as gold
+ * senses) are retained. Use {@link IndexedDepTreeFile} for random access to individual trees by ID.
+ *
+ * @author jamesgung
+ */
+public class BinaryDepTreeReader implements CorpusReader<DepTree> {
+
+    @Override
+    public List<DepTree> readInstances(InputStream inputStream) {
+        return Lists.newArrayList(instanceIterator(inputStream));
+    }
+
+    @Override
+    public void writeInstances(List<DepTree> instances, OutputStream outputStream) {
+        try (BinaryDepTreeWriter writer = new BinaryDepTreeWriter(outputStream)) {
+            instances.forEach(writer::write);
+        }
+    }
+
+    @Override
+    public Iterator<DepTree> instanceIterator(InputStream inputStream) {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Input is not a binary dependency tree corpus.");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported binary dependency tree corpus version: " + version);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while reading binary dependency trees.", e);
+        }
+        return new AbstractIterator<DepTree>() {
+            private Block block;
+            private int index;
+            private int first;
+
+            @Override
+            protected DepTree computeNext() {
+                try {
+                    if (block == null || index == block.size()) {
+                        int length = (int) readVarint(in);
+                        if (length == 0) {
+                            in.close();
+                            return endOfData();
+                        }
+                        byte[] payload = new byte[length];
+                        in.readFully(payload);
+                        first += block == null ? 0 : block.size();
+                        block = new Block(first, ByteBuffer.wrap(payload));
+                        index = 0;
+                    }
+                    return block.tree(index++);
+                } catch (IOException e) {
+                    throw new RuntimeException("An error occurred while reading binary dependency trees.", e);
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.corpus;
+
+import com.google.common.base.Preconditions;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import io.github.clearwsd.corpus.BinaryDepTreeFormat.BlockEncoder;
+import io.github.clearwsd.type.DepTree;
+
+import static io.github.clearwsd.corpus.BinaryDepTreeFormat.MAGIC;
+import static io.github.clearwsd.corpus.BinaryDepTreeFormat.VERSION;
+import static io.github.clearwsd.corpus.BinaryDepTreeFormat.writeVarint;
+
+/**
+ * Streaming writer for the binary dependency tree corpus format (see {@link BinaryDepTreeReader}). Trees are buffered into
+ * blocks of a fixed number of trees, each with its own string dictionaries, and a block index is written on {@link #close()},
+ * enabling random access through {@link IndexedDepTreeFile}.
+ *
+ * @author jamesgung
+ */
+public class BinaryDepTreeWriter implements AutoCloseable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+
+    private final DataOutputStream out;
+    private final int blockSize;
+    private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+
+    private BlockEncoder block = new BlockEncoder();
+    private long offset;
+    private int blocks;
+    private boolean closed;
+
+    /**
+     * Initialize a writer over a given output stream, which is closed along with this writer.
+     *
+     * @param outputStream target output
+     * @param blockSize    maximum number of trees per block
+     */
+    public BinaryDepTreeWriter(OutputStream outputStream, int blockSize) {
+        Preconditions.checkArgument(blockSize > 0, "Block size must be positive: %s", blockSize);
+        this.out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        this.blockSize = blockSize;
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while writing binary dependency trees.", e);
+        }
+        offset = Integer.BYTES + 1;
+    }
+
+    public BinaryDepTreeWriter(OutputStream outputStream) {
+        this(outputStream, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Append a tree to the corpus. Tree IDs in the written corpus correspond to the order in which trees are added.
+     *
+     * @param tree dependency tree
+     */
+    public void write(DepTree tree) {
+        Preconditions.checkState(!closed, "Writer has already been closed.");
+        block.add(tree);
+        if (block.size() >= blockSize) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flushBlock();
+            out.write(0);
+            long indexOffset = offset + 1;
+            ByteArrayOutputStream header = new ByteArrayOutputStream();
+            writeVarint(header, blocks);
+            header.writeTo(out);
+            index.writeTo(out);
+            out.writeLong(indexOffset);
+            out.writeInt(MAGIC);
+            out.close();
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while writing binary dependency trees.", e);
+        }
+    }
+
+    private void flushBlock() {
+        if (block.size() == 0) {
+            return;
+        }
+        byte[] payload = block.encode();
+        ByteArrayOutputStream length = new ByteArrayOutputStream(10);
+        writeVarint(length, payload.length);
+        try {
+            length.writeTo(out);
+            out.write(payload);
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while writing binary dependency trees.", e);
+        }
+        writeVarint(index, block.size());
+        writeVarint(index, length.size() + payload.length);
+        offset += length.size() + payload.length;
+        ++blocks;
+        block = new BlockEncoder();
+    }
+
+}
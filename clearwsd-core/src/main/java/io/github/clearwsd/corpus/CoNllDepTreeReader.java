@@ -16,31 +16,53 @@
 
 package io.github.clearwsd.corpus;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.ArrayDepTree;
 import io.github.clearwsd.type.DefaultDepNode;
 import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.SymbolTable;
+import io.github.clearwsd.utils.ParallelUtils;
+import lombok.Getter;
 import lombok.Setter;
+import lombok.experimental.Accessors;
 
 /**
  * CoNLL-U-style dependency tree corpus reader.
+ * <p>
+ * Corpora read from a {@link Path} are memory-mapped and split into chunks at tree boundaries, which are parsed directly from
+ * the mapped bytes (in parallel given more than one {@link #threads(int) thread} or an {@link #executor(ExecutorService)
+ * executor}) and returned in corpus order. If a {@link SymbolTable} is provided, such corpora are read into
+ * compact {@link ArrayDepTree ArrayDepTrees}.
  *
  * @author jamesgung
  */
@@ -48,8 +70,41 @@ public class CoNllDepTreeReader implements CorpusReader<DepTree> {
 
     private static final String FIELD_DELIM = "\t";
 
+    private static final int SCAN_BYTES = 1 << 16;
+
     private Pattern headerPattern = Pattern.compile("^#.*$");
 
+    /**
+     * Number of threads used to parse memory-mapped corpora, if no {@link #executor(ExecutorService) executor} is provided. By
+     * default, chunks are parsed on the thread reading trees.
+     */
+    @Getter
+    @Setter
+    @Accessors(fluent = true, chain = true)
+    private int threads = 1;
+    /**
+     * Executor used to parse memory-mapped corpora, not shut down after use.
+     */
+    @Getter
+    @Setter
+    @Accessors(fluent = true, chain = true)
+    private ExecutorService executor;
+    /**
+     * Approximate number of bytes in each chunk of a memory-mapped corpus.
+     */
+    @Getter
+    @Setter
+    @Accessors(fluent = true, chain = true)
+    private int chunkSize = 1 << 24;
+    /**
+     * Symbol table used to read memory-mapped corpora into compact {@link ArrayDepTree ArrayDepTrees}, if provided. Token
+     * features of other trees are interned in this table, or in the {@link SymbolTable#shared() shared} table if not provided.
+     */
+    @Getter
+    @Setter
+    @Accessors(fluent = true, chain = true)
+    private SymbolTable symbols;
+
     @Override
     public List<DepTree> readInstances(InputStream inputStream) {
         List<DepTree> results = new ArrayList<>();
@@ -69,6 +124,294 @@ public class CoNllDepTreeReader implements CorpusReader<DepTree> {
         return new TreeIterator(inputStream);
     }
 
+    /**
+     * Read all trees from a memory-mapped file, parsing in parallel.
+     *
+     * @param path corpus path
+     * @return list of trees, in corpus order
+     */
+    @Override
+    public List<DepTree> readInstances(Path path) {
+        try (MappedTreeIterator iterator = instanceIterator(path)) {
+            return Lists.newArrayList(iterator);
+        }
+    }
+
+    /**
+     * Iterate over trees in a memory-mapped file, parsing chunks in parallel and returning trees in corpus order. At most
+     * two chunks per thread are parsed ahead of the tree being returned. Threads created to parse chunks are stopped once all
+     * trees have been read, or when the iterator is {@link MappedTreeIterator#close() closed}, such as when abandoned early.
+     *
+     * @param path corpus path
+     * @return closeable iterator over trees
+     */
+    public MappedTreeIterator instanceIterator(Path path) {
+        return new MappedTreeIterator(mapChunks(path));
+    }
+
+    /**
+     * Iterator over trees of a memory-mapped corpus, which should be closed if not read to the end.
+     */
+    public class MappedTreeIterator extends AbstractIterator<DepTree> implements AutoCloseable {
+
+        private final ExecutorService owned;
+        private final Iterator<List<ChunkTree>> chunks;
+        private Iterator<ChunkTree> current = Collections.emptyIterator();
+        private int index = 0;
+
+        private MappedTreeIterator(List<ByteBuffer> mapped) {
+            if (executor != null) {
+                owned = null;
+                chunks = ParallelUtils.orderedIterator(mapped.iterator(), CoNllDepTreeReader.this::readChunk, executor,
+                        Math.max(1, threads) * 2);
+            } else if (threads > 1) {
+                owned = new ForkJoinPool(threads);
+                chunks = ParallelUtils.orderedIterator(mapped.iterator(), CoNllDepTreeReader.this::readChunk, owned, threads * 2);
+            } else {
+                owned = null;
+                chunks = Iterators.transform(mapped.iterator(), CoNllDepTreeReader.this::readChunk);
+            }
+        }
+
+        @Override
+        protected DepTree computeNext() {
+            try {
+                while (!current.hasNext()) {
+                    if (!chunks.hasNext()) {
+                        close();
+                        return endOfData();
+                    }
+                    current = chunks.next().iterator();
+                }
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+            ChunkTree next = current.next();
+            DepTree tree = next.tree.index(index++);
+            // headers are processed on the consuming thread, in corpus order, once the tree index is known
+            processHeader(next.header, tree);
+            return tree;
+        }
+
+        /**
+         * Stop any threads created to parse chunks. Chunks submitted to a provided {@link #executor(ExecutorService) executor}
+         * are left to complete.
+         */
+        @Override
+        public void close() {
+            if (owned != null) {
+                owned.shutdownNow();
+            }
+        }
+
+    }
+
+    private List<ByteBuffer> mapChunks(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<ByteBuffer> chunks = new ArrayList<>();
+            long size = channel.size();
+            long start = 0;
+            while (start < size) {
+                long end = nextBoundary(channel, Math.min(size, start + chunkSize), size);
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Tree at offset " + start + " exceeds maximum chunk size.");
+                }
+                chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                start = end;
+            }
+            return chunks;
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while mapping dependency trees at " + path, e);
+        }
+    }
+
+    /**
+     * Find the end of the first blank line at or after a given position, or the end of the file if there is none.
+     */
+    private static long nextBoundary(FileChannel channel, long position, long size) throws IOException {
+        if (position >= size) {
+            return size;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BYTES);
+        long offset = position - 1;
+        boolean newline = false;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; ++i) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    if (newline) {
+                        return offset + i + 1;
+                    }
+                    newline = true;
+                } else if (b != '\r') {
+                    newline = false;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * Parse all trees in a chunk of a memory-mapped corpus without creating intermediate strings for each line.
+     */
+    private List<ChunkTree> readChunk(ByteBuffer chunk) {
+        chunk = chunk.duplicate();
+        List<ChunkTree> trees = new ArrayList<>();
+        List<String> header = new ArrayList<>();
+        List<String[]> rows = new ArrayList<>();
+        List<int[]> heads = new ArrayList<>();
+        byte[] line = new byte[256];
+        int[] fields = new int[7];
+        while (chunk.hasRemaining()) {
+            int length = 0;
+            while (chunk.hasRemaining()) {
+                byte b = chunk.get();
+                if (b == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                --length;
+            }
+            if (length == 0) {
+                if (rows.size() > 0) {
+                    trees.add(new ChunkTree(buildTree(rows, heads), header));
+                }
+                continue;
+            }
+            if (rows.isEmpty() && line[0] == '#') {
+                String text = new String(line, 0, length, StandardCharsets.UTF_8);
+                if (headerPattern.matcher(text).matches()) {
+                    header.add(text);
+                    continue;
+                }
+            }
+            rows.add(readRow(line, length, fields, heads));
+        }
+        if (rows.size() > 0) {
+            trees.add(new ChunkTree(buildTree(rows, heads), header));
+        }
+        return trees;
+    }
+
+    private String[] readRow(byte[] line, int length, int[] fields, List<int[]> heads) {
+        int field = 0;
+        fields[0] = 0;
+        for (int i = 0; i < length && field < 6; ++i) {
+            if (line[i] == '\t') {
+                fields[++field] = i + 1;
+            }
+        }
+        if (field < 5) {
+            throw new RuntimeException("Error parsing line: " + new String(line, 0, length, StandardCharsets.UTF_8));
+        }
+        if (field == 5) {
+            fields[++field] = length + 1;
+        }
+        try {
+            String[] row = {field(line, fields, 1), field(line, fields, 2), field(line, fields, 3), field(line, fields, 4)};
+            heads.add(new int[]{parseInt(line, fields[0], fields[1] - 1), parseInt(line, fields[5], fields[6] - 1)});
+            return row;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Error parsing line: " + new String(line, 0, length, StandardCharsets.UTF_8), e);
+        }
+    }
+
+    private static String field(byte[] line, int[] fields, int field) {
+        return new String(line, fields[field], fields[field + 1] - fields[field] - 1, StandardCharsets.UTF_8);
+    }
+
+    private static int parseInt(byte[] line, int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("Empty integer field");
+        }
+        boolean negative = line[start] == '-';
+        int result = 0;
+        for (int i = negative ? start + 1 : start; i < end; ++i) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid integer field: "
+                        + new String(line, start, end - start, StandardCharsets.UTF_8));
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    private DepTree buildTree(List<String[]> rows, List<int[]> heads) {
+        // token IDs are normally consecutive from 0, in which case heads can be used directly
+        Map<Integer, Integer> indices = null;
+        for (int i = 0; i < rows.size() && indices == null; ++i) {
+            if (heads.get(i)[0] != i) {
+                indices = new HashMap<>();
+                for (int j = 0; j < rows.size(); ++j) {
+                    indices.put(heads.get(j)[0], j);
+                }
+            }
+        }
+        int[] headIndices = new int[rows.size()];
+        for (int i = 0; i < rows.size(); ++i) {
+            int head = heads.get(i)[1];
+            if (head < 0) {
+                headIndices[i] = -1;
+                continue;
+            }
+            Integer headIndex = indices == null ? (head < rows.size() ? head : null) : indices.get(head);
+            if (headIndex == null) {
+                throw new RuntimeException("Missing head " + head + " for token " + heads.get(i)[0]);
+            }
+            headIndices[i] = headIndex;
+        }
+        DepTree result = symbols == null ? defaultTree(rows, headIndices) : compactTree(rows, headIndices);
+        rows.clear();
+        heads.clear();
+        return result;
+    }
+
+    private DepTree defaultTree(List<String[]> rows, int[] heads) {
+        SymbolTable interner = symbolTable();
+        List<DepNode> nodes = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); ++i) {
+            DefaultDepNode depNode = new DefaultDepNode(i);
+            String[] row = rows.get(i);
+            depNode.addFeature(FeatureType.Text, interner.intern(row[0]));
+            depNode.addFeature(FeatureType.Lemma, interner.intern(row[1]));
+            depNode.addFeature(FeatureType.Pos, interner.intern(row[2]));
+            depNode.addFeature(FeatureType.Dep, interner.intern(row[3]));
+            nodes.add(depNode);
+        }
+        DepNode root = null;
+        for (int i = 0; i < nodes.size(); ++i) {
+            if (heads[i] < 0) {
+                root = nodes.get(i);
+            } else {
+                ((DefaultDepNode) nodes.get(i)).head(nodes.get(heads[i]));
+            }
+        }
+        return new DefaultDepTree(0, nodes, root);
+    }
+
+    private DepTree compactTree(List<String[]> rows, int[] heads) {
+        String[][] columns = new String[4][rows.size()];
+        for (int i = 0; i < rows.size(); ++i) {
+            for (int column = 0; column < columns.length; ++column) {
+                columns[column][i] = rows.get(i)[column];
+            }
+        }
+        return new ArrayDepTree(0, symbols, heads, columns[0], columns[1], columns[2], columns[3]);
+    }
+
     private List<String> readTree(BufferedReader reader) throws IOException {
         List<String> lines = new ArrayList<>();
         String currentLine;
@@ -120,20 +463,49 @@ public class CoNllDepTreeReader implements CorpusReader<DepTree> {
         return result;
     }
 
+    private SymbolTable symbolTable() {
+        return symbols == null ? SymbolTable.shared() : symbols;
+    }
+
+    /**
+     * Process the header (comment) lines of a tree, such as to add features from annotations stored in comments. Called once per
+     * tree, after its {@link DepTree#index() index} has been assigned, from the thread reading trees and in corpus order (also
+     * for memory-mapped corpora parsed in parallel), so implementations need not be threadsafe.
+     *
+     * @param header header lines, possibly empty
+     * @param result tree following the header
+     */
     protected void processHeader(List<String> header, DepTree result) {
         // template method
     }
 
+    /**
+     * Tree parsed from a chunk of a memory-mapped corpus, along with its header lines.
+     */
+    private static final class ChunkTree {
+
+        private final DepTree tree;
+        private final List<String> header;
+
+        ChunkTree(DepTree tree, List<String> header) {
+            this.tree = tree;
+            this.header = header.isEmpty() ? Collections.emptyList() : new ArrayList<>(header);
+            header.clear();
+        }
+
+    }
+
     private DefaultDepNode getDepNode(int index, String[] fields,
                                       Map<Integer, DepNode> tokenMap,
                                       Map<DefaultDepNode, Integer> tokenHeadMap) {
         try {
+            SymbolTable interner = symbolTable();
             DefaultDepNode depNode = new DefaultDepNode(index);
             tokenMap.put(Integer.parseInt(fields[0]), depNode);
-            depNode.addFeature(FeatureType.Text, fields[1]);
-            depNode.addFeature(FeatureType.Lemma, fields[2]);
-            depNode.addFeature(FeatureType.Pos, fields[3]);
-            depNode.addFeature(FeatureType.Dep, fields[4]);
+            depNode.addFeature(FeatureType.Text, interner.intern(fields[1]));
+            depNode.addFeature(FeatureType.Lemma, interner.intern(fields[2]));
+            depNode.addFeature(FeatureType.Pos, interner.intern(fields[3]));
+            depNode.addFeature(FeatureType.Dep, interner.intern(fields[4]));
             tokenHeadMap.put(depNode, Integer.parseInt(fields[5]));
             return depNode;
         } catch (RuntimeException e) {
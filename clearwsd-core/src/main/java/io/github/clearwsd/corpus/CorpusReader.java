@@ -16,8 +16,11 @@
 
 package io.github.clearwsd.corpus;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
 
@@ -39,6 +42,20 @@ public interface CorpusReader<T extends NlpInstance> {
      */
     List<T> readInstances(InputStream inputStream);
 
+    /**
+     * Read all instances from a file at a given path. Readers may override this to take advantage of random access to the file.
+     *
+     * @param path input file path
+     * @return list of instances
+     */
+    default List<T> readInstances(Path path) {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return readInstances(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while reading instances from " + path, e);
+        }
+    }
+
     /**
      * Write a list of instances to a given output stream.
      *
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.corpus;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import io.github.clearwsd.corpus.BinaryDepTreeFormat.Block;
+import io.github.clearwsd.type.DepTree;
+
+import static io.github.clearwsd.corpus.BinaryDepTreeFormat.FOOTER_BYTES;
+import static io.github.clearwsd.corpus.BinaryDepTreeFormat.MAGIC;
+import static io.github.clearwsd.corpus.BinaryDepTreeFormat.readVarint;
+
+/**
+ * Random access to trees in a binary dependency tree corpus written by {@link BinaryDepTreeWriter}. Only the block index is
+ * loaded on open; retrieving a tree reads and decodes the dictionaries of its enclosing block (the most recently used block
+ * is retained) followed by the single requested tree.
+ *
+ * @author jamesgung
+ */
+public class IndexedDepTreeFile implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final int[] firstTrees;
+    private final long[] offsets;
+
+    private Block block;
+    private int blockIndex = -1;
+
+    public IndexedDepTreeFile(Path path) {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            ByteBuffer footer = read(channel.size() - FOOTER_BYTES, FOOTER_BYTES);
+            long indexOffset = footer.getLong();
+            if (footer.getInt() != MAGIC) {
+                channel.close();
+                throw new IllegalArgumentException("Not an indexed binary dependency tree corpus: " + path);
+            }
+            ByteBuffer index = read(indexOffset, (int) (channel.size() - FOOTER_BYTES - indexOffset));
+            int blocks = (int) readVarint(index);
+            firstTrees = new int[blocks + 1];
+            offsets = new long[blocks + 1];
+            offsets[0] = Integer.BYTES + 1;
+            for (int i = 0; i < blocks; ++i) {
+                firstTrees[i + 1] = firstTrees[i] + (int) readVarint(index);
+                offsets[i + 1] = offsets[i] + readVarint(index);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while opening binary dependency trees at " + path, e);
+        }
+    }
+
+    /**
+     * Number of trees in this corpus.
+     */
+    public int size() {
+        return firstTrees[firstTrees.length - 1];
+    }
+
+    /**
+     * Retrieve a tree by its ID (its position in the corpus).
+     *
+     * @param id tree ID
+     * @return dependency tree
+     */
+    public synchronized DepTree get(int id) {
+        Preconditions.checkElementIndex(id, size(), "tree ID");
+        int index = Arrays.binarySearch(firstTrees, id);
+        index = index < 0 ? -index - 2 : index;
+        if (index != blockIndex) {
+            block = readBlock(index);
+            blockIndex = index;
+        }
+        return block.tree(id - firstTrees[index]);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while closing binary dependency trees.", e);
+        }
+    }
+
+    private Block readBlock(int index) {
+        try {
+            ByteBuffer buffer = read(offsets[index], (int) (offsets[index + 1] - offsets[index]));
+            readVarint(buffer);
+            return new Block(firstTrees[index], buffer.slice());
+        } catch (IOException e) {
+            throw new RuntimeException("An error occurred while reading binary dependency trees.", e);
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of binary dependency tree corpus.");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+}
@@ -17,6 +17,9 @@
 package io.github.clearwsd.corpus;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -25,15 +28,31 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.parser.NlpTokenizer;
+import io.github.clearwsd.parser.TokenizedSentence;
 import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.utils.ParallelUtils;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Corpus reader over a plain text file. Text is segmented and tokenized, and dependency trees are produced.
+ * <p>
+ * When {@link #threads(int)} is greater than 1, {@link #readInstances(InputStream)} and
+ * {@link #parseAndWrite(InputStream, OutputStream, int)} parse sentences in parallel, each worker thread using its own parser
+ * from the provided parser factory, while segmentation, tokenization and output remain on the calling thread in input order.
  *
  * @author jamesgung
  */
@@ -41,30 +60,94 @@ import lombok.extern.slf4j.Slf4j;
 public class TextCorpusReader implements CorpusReader<DepTree> {
 
     private NlpParser parser;
+    private Supplier<NlpParser> parserFactory;
 
+    /**
+     * Number of threads used to tokenize and parse sentences.
+     */
+    @Getter
+    @Setter
+    @Accessors(fluent = true, chain = true)
+    private int threads = 1;
+
+    /**
+     * Initialize a reader with a single parser, which must be threadsafe if parsing with multiple {@link #threads(int) threads}.
+     *
+     * @param parser dependency parser
+     */
     public TextCorpusReader(NlpParser parser) {
         this.parser = parser;
+        this.parserFactory = () -> parser;
+    }
+
+    /**
+     * Initialize a reader with a parser factory, used to create one parser per parsing thread (plus one used for segmentation).
+     *
+     * @param parserFactory dependency parser factory
+     * @param threads       number of parsing threads
+     */
+    public TextCorpusReader(Supplier<NlpParser> parserFactory, int threads) {
+        this.parser = parserFactory.get();
+        this.parserFactory = parserFactory;
+        this.threads = threads;
     }
 
     @Override
     public List<DepTree> readInstances(InputStream inputStream) {
         List<DepTree> results = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.length() == 0) {
-                    continue;
-                }
-                for (String sentence : parser.segment(line)) {
-                    DepTree tree = parser.parse(parser.tokenize(sentence));
-                    results.add(tree);
+        parse(inputStream, results::add, Integer.MAX_VALUE);
+        return results;
+    }
+
+    @Override
+    public Iterator<DepTree> instanceIterator(InputStream inputStream) {
+        return Iterators.transform(sentenceIterator(inputStream), parser::parse);
+    }
+
+    /**
+     * Create an iterator over segmented and tokenized sentences, reading lines from the input stream as needed. Each line is
+     * segmented and tokenized in a single pass. The input stream is closed once all sentences have been read.
+     *
+     * @param inputStream input stream
+     * @return iterator over tokenized sentences
+     */
+    public Iterator<List<String>> sentenceIterator(InputStream inputStream) {
+        return sentenceIterator(parser, inputStream);
+    }
+
+    /**
+     * Create an iterator over sentences segmented and tokenized by a given tokenizer, reading lines from the input stream as
+     * needed. The input stream is closed once all sentences have been read.
+     *
+     * @param tokenizer   tokenizer used to segment and tokenize each line
+     * @param inputStream input stream
+     * @return iterator over tokenized sentences
+     */
+    public static Iterator<List<String>> sentenceIterator(NlpTokenizer tokenizer, InputStream inputStream) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+        return new AbstractIterator<List<String>>() {
+            private Iterator<TokenizedSentence> sentences = Collections.emptyIterator();
+
+            @Override
+            protected List<String> computeNext() {
+                try {
+                    while (!sentences.hasNext()) {
+                        String line = reader.readLine();
+                        if (line == null) {
+                            reader.close();
+                            return endOfData();
+                        }
+                        line = line.trim();
+                        if (line.length() > 0) {
+                            sentences = tokenizer.segmentTokens(line).iterator();
+                        }
+                    }
+                    return sentences.next().tokens();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
                 }
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        return results;
+        };
     }
 
     @Override
@@ -74,41 +157,65 @@ public class TextCorpusReader implements CorpusReader<DepTree> {
 
     /**
      * Simultaneously parse and write dependency trees to an output stream. Memory usage can be controlled with
-     * a provided cache size parameter, which controls the number of trees to parse before writing them (and GC).
+     * a provided cache size parameter, which controls the number of trees to parse before writing them (and GC). When parsing
+     * with multiple {@link #threads(int) threads}, the cache size instead bounds the number of sentences read ahead of the
+     * next tree to be written, and trees are written in input order as they complete.
      *
      * @param inputStream  input stream
      * @param outputStream output stream
      * @param maxCache     maximum number of trees to parse before writing/flushing
      */
     public void parseAndWrite(InputStream inputStream, OutputStream outputStream, int maxCache) {
-        List<DepTree> cache = new ArrayList<>();
-        int processed = 0;
-        Stopwatch sw = Stopwatch.createStarted();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-             PrintWriter writer = new PrintWriter(outputStream)) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.length() == 0) {
-                    continue;
-                }
-                for (String sentence : parser.segment(line)) {
-                    DepTree tree = parser.parse(parser.tokenize(sentence));
-                    cache.add(tree);
-                    ++processed;
-                    if (cache.size() >= maxCache) {
-                        CoNllDepTreeReader.writeDependencyTrees(cache, writer);
-                        cache = new ArrayList<>();
-                        log.debug("Parsing {} trees/s", processed / sw.elapsed(TimeUnit.SECONDS));
-                    }
+        try (PrintWriter writer = new PrintWriter(outputStream)) {
+            List<DepTree> cache = new ArrayList<>();
+            parse(inputStream, tree -> {
+                cache.add(tree);
+                if (cache.size() >= maxCache) {
+                    CoNllDepTreeReader.writeDependencyTrees(cache, writer);
+                    cache.clear();
                 }
-            }
+            }, maxCache);
             if (cache.size() > 0) {
                 CoNllDepTreeReader.writeDependencyTrees(cache, writer);
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Parse sentences from an input stream, passing trees to a consumer in input order on the calling thread.
+     *
+     * @param inputStream input stream
+     * @param consumer    consumer of parsed trees
+     * @param window      maximum number of sentences parsed ahead of the next tree to be consumed
+     */
+    private void parse(InputStream inputStream, Consumer<DepTree> consumer, int window) {
+        Stopwatch sw = Stopwatch.createStarted();
+        int[] processed = {0};
+        Consumer<DepTree> counter = tree -> {
+            consumer.accept(tree);
+            if (++processed[0] % 1000 == 0) {
+                log.debug("Parsed {} trees ({} trees/s)", processed[0],
+                        String.format("%.1f", processed[0] * 1000.0 / Math.max(1, sw.elapsed(TimeUnit.MILLISECONDS))));
+            }
+        };
+        Iterator<List<String>> sentences = sentenceIterator(inputStream);
+        if (threads <= 1) {
+            sentences.forEachRemaining(sentence -> counter.accept(parser.parse(sentence)));
+        } else {
+            ThreadLocal<NlpParser> parsers = ThreadLocal.withInitial(parserFactory);
+            ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                    .setNameFormat("text-parser-%d")
+                    .setDaemon(true)
+                    .build());
+            try {
+                ParallelUtils.forEachOrdered(sentences, sentence -> parsers.get().parse(sentence), counter, executor,
+                        Math.min(window, threads * 64));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        log.debug("Parsed {} trees in {} ({} trees/s)", processed[0], sw,
+                String.format("%.1f", processed[0] * 1000.0 / Math.max(1, sw.elapsed(TimeUnit.MILLISECONDS))));
+    }
+
 }
@@ -40,6 +40,7 @@ import javax.xml.bind.JAXBException;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.SymbolTable;
 import io.github.clearwsd.type.NlpFocus;
 import io.github.clearwsd.corpus.CorpusReader;
 import io.github.clearwsd.type.DefaultDepNode;
@@ -124,16 +125,17 @@ public class SemevalReader implements CorpusReader<NlpFocus<DepNode, DepTree>> {
         DefaultDepTree sentence = new DefaultDepTree(sentenceIndex, tokens, null);
         DefaultDepNode root = null;
         Map<Integer, Integer> headMap = new HashMap<>();
+        SymbolTable symbols = SymbolTable.shared();
         int index = 0;
         for (SemevalWordForm word : semevalSentence) {
             DefaultDepNode token = new DefaultDepNode(index++);
-            token.addFeature(FeatureType.Text, word.getValue());
-            token.addFeature(FeatureType.GoldLemma, word.getLemma());
-            token.addFeature(FeatureType.GoldPos, word.getPos());
+            token.addFeature(FeatureType.Text, symbols.intern(word.getValue()));
+            token.addFeature(FeatureType.GoldLemma, symbols.intern(word.getLemma()));
+            token.addFeature(FeatureType.GoldPos, symbols.intern(word.getPos()));
             if (word.getDep() != null) {
-                token.addFeature(FeatureType.Lemma, word.getPredictedLemma());
-                token.addFeature(FeatureType.Pos, word.getPredictedPos());
-                token.addFeature(FeatureType.Dep, word.getDep());
+                token.addFeature(FeatureType.Lemma, symbols.intern(word.getPredictedLemma()));
+                token.addFeature(FeatureType.Pos, symbols.intern(word.getPredictedPos()));
+                token.addFeature(FeatureType.Dep, symbols.intern(word.getDep()));
                 headMap.put(token.index(), Integer.parseInt(word.getHead()));
             }
             tokens.add(token);
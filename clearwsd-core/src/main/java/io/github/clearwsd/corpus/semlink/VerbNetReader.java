@@ -19,17 +19,20 @@ package io.github.clearwsd.corpus.semlink;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import io.github.clearwsd.type.ArrayDepTree;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.NlpFocus;
 import io.github.clearwsd.corpus.CoNllDepTreeReader;
 import io.github.clearwsd.corpus.CorpusReader;
 import io.github.clearwsd.type.DefaultNlpFocus;
+import io.github.clearwsd.type.SymbolTable;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -52,9 +55,29 @@ public class VerbNetReader implements CorpusReader<NlpFocus<DepNode, DepTree>> {
 
     @Override
     public List<NlpFocus<DepNode, DepTree>> readInstances(InputStream inputStream) {
+        return getFocusInstances(depReader.readInstances(inputStream));
+    }
+
+    /**
+     * Read corpora from files into compact {@link ArrayDepTree ArrayDepTrees} with a given symbol table.
+     *
+     * @param symbols symbol table shared by trees
+     * @return this reader
+     */
+    public VerbNetReader symbols(SymbolTable symbols) {
+        depReader.symbols(symbols);
+        return this;
+    }
+
+    @Override
+    public List<NlpFocus<DepNode, DepTree>> readInstances(Path path) {
+        return getFocusInstances(depReader.readInstances(path));
+    }
+
+    private static List<NlpFocus<DepNode, DepTree>> getFocusInstances(List<DepTree> trees) {
         List<NlpFocus<DepNode, DepTree>> results = new ArrayList<>();
         int index = 0;
-        for (DepTree tree : depReader.readInstances(inputStream)) {
+        for (DepTree tree : trees) {
             for (DepNode focus : tree.tokens().stream()
                     .filter(t -> t.feature(Gold) != null)
                     .collect(Collectors.toList())) {
@@ -69,35 +92,46 @@ public class VerbNetReader implements CorpusReader<NlpFocus<DepNode, DepTree>> {
     @Override
     public void writeInstances(List<NlpFocus<DepNode, DepTree>> instances, OutputStream outputStream) {
         try (PrintWriter writer = new PrintWriter(outputStream)) {
-            if (instances.size() == 0) {
-                return;
+            writeInstances(instances, writer);
+        }
+    }
+
+    /**
+     * Write a list of instances with a given {@link PrintWriter} without closing it, such as to write a corpus incrementally.
+     *
+     * @param instances list of instances
+     * @param writer    writer
+     */
+    public void writeInstances(List<NlpFocus<DepNode, DepTree>> instances, PrintWriter writer) {
+        if (instances.size() == 0) {
+            return;
+        }
+        DepTree currentTree = instances.get(0).sequence();
+        for (NlpFocus<DepNode, DepTree> instance : instances) {
+            if (instance.sequence() != currentTree) {
+                writer.println(treeToString(currentTree, Sense.name()));
+                writer.println();
+                currentTree = instance.sequence();
             }
-            DepTree currentTree = instances.get(0).sequence();
-            for (NlpFocus<DepNode, DepTree> instance : instances) {
-                if (instance.sequence() != currentTree) {
-                    writer.println(treeToString(currentTree, Sense.name()));
-                    writer.println();
-                    currentTree = instance.sequence();
-                }
-                String metadata = instance.feature(Metadata);
-                if (metadata == null) {
-                    writer.println("# " + VerbNetInstanceParser.toString(new VerbNetInstance()
-                            .path(Integer.toString(instance.index()))
-                            .label(Optional.<String>ofNullable(instance.focus().feature(Gold))
-                                    .orElse(instance.focus().feature(Sense)))
-                            .sentence(instance.sequence().index())
-                            .token(instance.focus().index())
-                            .lemma(instance.focus().feature(Predicate))
-                            .originalText(Optional.<String>ofNullable(instance.sequence().feature(Text)).orElse(
-                                    currentTree.tokens().stream().map(t -> (String) t.feature(Text))
-                                            .collect(Collectors.joining(" "))))));
-                } else {
-                    writer.println("# " + metadata);
-                }
-                writer.flush();
+            String metadata = instance.feature(Metadata);
+            if (metadata == null) {
+                writer.println("# " + VerbNetInstanceParser.toString(new VerbNetInstance()
+                        .path(Integer.toString(instance.index()))
+                        .label(Optional.<String>ofNullable(instance.focus().feature(Gold))
+                                .orElse(instance.focus().feature(Sense)))
+                        .sentence(instance.sequence().index())
+                        .token(instance.focus().index())
+                        .lemma(instance.focus().feature(Predicate))
+                        .originalText(Optional.<String>ofNullable(instance.sequence().feature(Text)).orElse(
+                                currentTree.tokens().stream().map(t -> (String) t.feature(Text))
+                                        .collect(Collectors.joining(" "))))));
+            } else {
+                writer.println("# " + metadata);
             }
-            writer.println(treeToString(currentTree, Sense.name()));
+            writer.flush();
         }
+        writer.println(treeToString(currentTree, Sense.name()));
+        writer.flush();
     }
 
     public static class VerbNetCoNllDepReader extends CoNllDepTreeReader {
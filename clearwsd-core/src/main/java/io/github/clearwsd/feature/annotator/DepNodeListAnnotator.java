@@ -46,7 +46,7 @@ public class DepNodeListAnnotator<T extends NlpInstance, S extends NlpSequence<T
     public S annotate(S instance) {
         for (NlpContext<T> context : contextFactory.apply(instance)) {
             for (T token : context.tokens()) {
-                token.addFeature(resourceKey, resource.lookup(token));
+                addResourceFeature(token, resource.lookup(token));
             }
         }
         return instance;
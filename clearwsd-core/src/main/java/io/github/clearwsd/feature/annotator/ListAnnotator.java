@@ -54,7 +54,7 @@ public class ListAnnotator<T extends NlpInstance, S extends NlpSequence<T>> exte
         for (NlpContext<T> context : contextFactory.apply(instance)) {
             for (T token : context.tokens()) {
                 String key = baseExtractor.extract(token);
-                token.addFeature(resourceKey, resource.lookup(key));
+                addResourceFeature(token, resource.lookup(key));
             }
         }
         return instance;
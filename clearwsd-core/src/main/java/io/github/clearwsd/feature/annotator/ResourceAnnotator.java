@@ -18,6 +18,7 @@ package io.github.clearwsd.feature.annotator;
 
 import java.util.List;
 
+import io.github.clearwsd.type.FeatureSlots;
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.resource.FeatureResource;
 import io.github.clearwsd.feature.resource.FeatureResourceManager;
@@ -33,6 +34,7 @@ public abstract class ResourceAnnotator<T, S extends NlpInstance> implements Ann
 
     protected String resourceKey;
     protected FeatureResource<T, List<String>> resource;
+    private transient Integer slot;
 
     public ResourceAnnotator(String resourceKey) {
         this.resourceKey = resourceKey;
@@ -48,4 +50,22 @@ public abstract class ResourceAnnotator<T, S extends NlpInstance> implements Ann
         this.resource = featureResourceManager.getResource(resourceKey);
     }
 
+    /**
+     * Add a resource feature to a given token, using the feature slot for this annotator's resource key, which is only resolved
+     * once per annotator.
+     *
+     * @param token token to annotate
+     * @param value resource feature value
+     */
+    protected <V> void addResourceFeature(NlpInstance token, V value) {
+        if (slot == null) {
+            slot = FeatureSlots.register(resourceKey);
+        }
+        if (slot < 0) {
+            token.addFeature(resourceKey, value);
+        } else {
+            token.addFeature(slot, value);
+        }
+    }
+
 }
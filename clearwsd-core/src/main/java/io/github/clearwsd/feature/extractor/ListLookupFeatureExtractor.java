@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import io.github.clearwsd.type.FeatureSlots;
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.util.FeatureUtils;
 
@@ -34,6 +35,7 @@ public class ListLookupFeatureExtractor<T extends NlpInstance> implements String
 
     private List<String> keys;
     private String id;
+    private transient int[] slots;
 
     public ListLookupFeatureExtractor(List<String> keys) {
         this.keys = keys;
@@ -52,8 +54,9 @@ public class ListLookupFeatureExtractor<T extends NlpInstance> implements String
     @Override
     public List<String> extract(T instance) {
         List<String> results = new ArrayList<>();
-        for (String key : keys) {
-            List<String> feature = instance.feature(key);
+        int[] slots = slots();
+        for (int i = 0; i < slots.length; ++i) {
+            List<String> feature = slots[i] < 0 ? instance.feature(keys.get(i)) : instance.feature(slots[i]);
             if (feature != null) {
                 results.addAll(feature);
             }
@@ -61,4 +64,12 @@ public class ListLookupFeatureExtractor<T extends NlpInstance> implements String
         return results;
     }
 
+    private int[] slots() {
+        if (slots == null) {
+            // resolve feature slots once, rather than hashing keys for every instance
+            slots = keys.stream().mapToInt(FeatureSlots::register).toArray();
+        }
+        return slots;
+    }
+
 }
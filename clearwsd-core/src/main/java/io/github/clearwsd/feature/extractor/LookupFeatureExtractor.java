@@ -19,6 +19,7 @@ package io.github.clearwsd.feature.extractor;
 import java.util.Collections;
 import java.util.List;
 
+import io.github.clearwsd.type.FeatureSlots;
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.util.FeatureUtils;
 
@@ -35,6 +36,7 @@ public class LookupFeatureExtractor<T extends NlpInstance> implements StringExtr
     private List<String> keys;
     private FeatureExtractor<T, String> fallbackExtractor;
     private String id;
+    private transient int[] slots;
 
     public LookupFeatureExtractor(List<String> keys, FeatureExtractor<T, String> fallbackExtractor) {
         this.keys = keys;
@@ -57,8 +59,9 @@ public class LookupFeatureExtractor<T extends NlpInstance> implements StringExtr
 
     @Override
     public String extract(T instance) {
-        for (String key : keys) {
-            String feature = instance.feature(key);
+        int[] slots = slots();
+        for (int i = 0; i < slots.length; ++i) {
+            String feature = slots[i] < 0 ? instance.feature(keys.get(i)) : instance.feature(slots[i]);
             if (feature != null) {
                 return feature;
             }
@@ -69,4 +72,12 @@ public class LookupFeatureExtractor<T extends NlpInstance> implements StringExtr
         return fallbackExtractor.extract(instance);
     }
 
+    private int[] slots() {
+        if (slots == null) {
+            // resolve feature slots once, rather than hashing keys for every instance
+            slots = keys.stream().mapToInt(FeatureSlots::register).toArray();
+        }
+        return slots;
+    }
+
 }
@@ -16,8 +16,12 @@
 
 package io.github.clearwsd.feature.extractor.string;
 
+import io.github.clearwsd.type.SymbolTable;
+
 /**
- * Lowercase string function.
+ * Lowercase string function. Lowercased forms of inputs interned in the {@link SymbolTable#shared() shared} symbol table (such
+ * as token text read by corpus readers and parsers) are computed once, rather than allocated for every token. Other inputs are
+ * lowercased directly, without being added to the table.
  *
  * @author jamesgung
  */
@@ -33,7 +37,7 @@ public class LowercaseFunction extends StringFunction {
 
     @Override
     public String apply(String input) {
-        return input.toLowerCase();
+        return SymbolTable.shared().lowercase(input);
     }
 
 }
@@ -22,6 +22,7 @@ import java.util.stream.Collectors;
 
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.StringFeature;
+import io.github.clearwsd.feature.model.FeatureTemplates;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
@@ -51,4 +52,11 @@ public class AggregateFeatureFunction<InputT extends NlpInstance> implements Fea
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void apply(InputT input, FeatureTemplates templates, FeatureKeys keys) {
+        for (FeatureFunction<InputT> function : functions) {
+            function.apply(input, templates, keys);
+        }
+    }
+
 }
@@ -21,6 +21,7 @@ import java.util.List;
 
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.StringFeature;
+import io.github.clearwsd.feature.model.FeatureTemplates;
 import io.github.clearwsd.feature.util.FeatureUtils;
 import lombok.AllArgsConstructor;
 
@@ -52,4 +53,23 @@ public class ConjunctionFunction<InputT extends NlpInstance> implements FeatureF
         return results;
     }
 
+    @Override
+    public void apply(InputT input, FeatureTemplates templates, FeatureKeys keys) {
+        FeatureKeys firstKeys = new FeatureKeys();
+        first.apply(input, templates, firstKeys);
+        if (firstKeys.size() == 0) {
+            return;
+        }
+        FeatureKeys secondKeys = new FeatureKeys();
+        second.apply(input, templates, secondKeys);
+        for (int i = 0; i < firstKeys.size(); ++i) {
+            for (int j = 0; j < secondKeys.size(); ++j) {
+                if (firstKeys.get(i) == secondKeys.get(j)) {
+                    continue;
+                }
+                keys.add(templates.key(firstKeys.get(i), secondKeys.get(j)));
+            }
+        }
+    }
+
 }
@@ -21,6 +21,7 @@ import java.util.List;
 
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.StringFeature;
+import io.github.clearwsd.feature.model.FeatureTemplates;
 
 /**
  * Feature function that produces a list of features given a context and an extractor.
@@ -38,4 +39,19 @@ public interface FeatureFunction<InputT extends NlpInstance> extends Serializabl
      */
     List<StringFeature> apply(InputT input);
 
+    /**
+     * Given an NLP instance type, collect packed (template ID, value ID) keys of its features. By default, features are
+     * produced using {@link #apply(NlpInstance)}, with a template for each distinct feature ID. Implementations may override
+     * this to avoid building feature ID and value strings.
+     *
+     * @param input     input NLP instance
+     * @param templates feature template dictionary
+     * @param keys      collected feature keys
+     */
+    default void apply(InputT input, FeatureTemplates templates, FeatureKeys keys) {
+        for (StringFeature feature : apply(input)) {
+            keys.add(templates.key(templates.template(feature.id()), feature.value()));
+        }
+    }
+
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.function;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of packed (template ID, value ID) feature keys, used to collect features without boxing. Negative (unknown) keys
+ * are ignored.
+ *
+ * @author jamesgung
+ */
+public class FeatureKeys {
+
+    private long[] keys;
+    private int size;
+
+    public FeatureKeys() {
+        this(32);
+    }
+
+    public FeatureKeys(int capacity) {
+        keys = new long[Math.max(1, capacity)];
+    }
+
+    /**
+     * Add a feature key, ignoring negative keys.
+     *
+     * @param key packed feature key
+     * @return this {@link FeatureKeys}
+     */
+    public FeatureKeys add(long key) {
+        if (key < 0) {
+            return this;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key;
+        return this;
+    }
+
+    /**
+     * Return the key at a given position.
+     */
+    public long get(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Number of keys collected.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove all keys, retaining allocated capacity.
+     *
+     * @return this {@link FeatureKeys}
+     */
+    public FeatureKeys clear() {
+        size = 0;
+        return this;
+    }
+
+}
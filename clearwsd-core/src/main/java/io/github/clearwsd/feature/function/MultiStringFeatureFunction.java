@@ -25,6 +25,7 @@ import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.feature.StringFeature;
 import io.github.clearwsd.feature.context.NlpContext;
 import io.github.clearwsd.feature.context.NlpContextFactory;
+import io.github.clearwsd.feature.model.FeatureTemplates;
 import io.github.clearwsd.feature.util.FeatureUtils;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -64,4 +65,24 @@ public class MultiStringFeatureFunction<InputT extends NlpInstance, OutputT exte
         return features;
     }
 
+    @Override
+    public void apply(InputT instance, FeatureTemplates templates, FeatureKeys keys) {
+        for (NlpContext<OutputT> context : contextFactory.apply(instance)) {
+            if (context.tokens().size() > 1) {
+                log.warn("Warning: using a multi-string feature extractor for a multi-token context.");
+            }
+            for (FeatureExtractor<OutputT, List<String>> featureExtractor : featureExtractors) {
+                int template = templates.template(context.identifier(), featureExtractor.id());
+                if (template < 0) {
+                    continue;
+                }
+                for (OutputT token : context.tokens()) {
+                    for (String result : featureExtractor.extract(token)) {
+                        keys.add(templates.key(template, result));
+                    }
+                }
+            }
+        }
+    }
+
 }
@@ -25,6 +25,7 @@ import io.github.clearwsd.feature.context.NlpContext;
 import io.github.clearwsd.feature.context.NlpContextFactory;
 import io.github.clearwsd.feature.extractor.FeatureExtractor;
 import io.github.clearwsd.feature.extractor.StringExtractor;
+import io.github.clearwsd.feature.model.FeatureTemplates;
 import io.github.clearwsd.feature.util.FeatureUtils;
 import lombok.AllArgsConstructor;
 
@@ -58,4 +59,27 @@ public class StringFeatureFunction<InputT extends NlpInstance, OutputT extends N
         return features;
     }
 
+    @Override
+    public void apply(InputT instance, FeatureTemplates templates, FeatureKeys keys) {
+        for (NlpContext<OutputT> context : contextFactory.apply(instance)) {
+            for (FeatureExtractor<OutputT, String> featureExtractor : featureExtractors) {
+                int template = templates.template(context.identifier(), featureExtractor.id());
+                if (template < 0) {
+                    continue;
+                }
+                String value;
+                if (context.tokens().size() == 1) {
+                    value = featureExtractor.extract(context.tokens().get(0));
+                } else {
+                    List<String> results = new ArrayList<>();
+                    for (OutputT token : context.tokens()) {
+                        results.add(featureExtractor.extract(token));
+                    }
+                    value = String.join(FeatureUtils.CONTEXT_DELIM, results);
+                }
+                keys.add(templates.key(template, value));
+            }
+        }
+    }
+
 }
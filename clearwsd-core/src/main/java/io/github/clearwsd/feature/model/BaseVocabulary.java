@@ -19,8 +19,14 @@ package io.github.clearwsd.feature.model;
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.Map;
 
+import io.github.clearwsd.classifier.ModelFile;
+
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -55,4 +61,34 @@ public class BaseVocabulary implements Vocabulary {
         return indices.inverse().get(index);
     }
 
+    /**
+     * Write this vocabulary in an explicit binary form (see {@link ModelFile}).
+     *
+     * @param out output stream
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(defaultIndex);
+        out.writeInt(indices.size());
+        for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+            ModelFile.writeString(out, entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    /**
+     * Read a vocabulary written by {@link #write(DataOutputStream)}.
+     *
+     * @param buffer input buffer
+     * @return vocabulary
+     */
+    public static BaseVocabulary read(ByteBuffer buffer) {
+        int defaultIndex = buffer.getInt();
+        int size = buffer.getInt();
+        Map<String, Integer> indices = new HashMap<>(size * 2);
+        for (int i = 0; i < size; ++i) {
+            indices.put(ModelFile.readString(buffer), buffer.getInt());
+        }
+        return new BaseVocabulary(indices).defaultIndex(defaultIndex);
+    }
+
 }
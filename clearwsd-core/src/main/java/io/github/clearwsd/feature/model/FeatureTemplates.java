@@ -0,0 +1,291 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.model;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.github.clearwsd.classifier.ModelFile;
+import io.github.clearwsd.feature.util.LongIndexMap;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Two-level feature dictionary. Feature templates (e.g. a context/extractor pair, or a conjunction of two templates) are
+ * assigned integer IDs, and feature values are interned into per-template dictionaries. A feature is then identified by a
+ * packed (template ID, value ID) long key, so features can be indexed without building feature strings.
+ * <p>
+ * While not {@link #frozen()}, unseen templates and values are added to the dictionary. Once frozen, unseen templates and
+ * values produce negative IDs and keys, and the dictionary is safe to read from multiple threads.
+ *
+ * @author jamesgung
+ */
+@Accessors(fluent = true)
+public class FeatureTemplates implements Serializable {
+
+    private static final long serialVersionUID = -6105914744813862342L;
+
+    private Map<String, Map<String, Integer>> contextTemplates = new HashMap<>();
+    private Map<String, Integer> idTemplates = new HashMap<>();
+    private LongIndexMap conjunctionTemplates = new LongIndexMap();
+    private List<ValueDictionary> values = new ArrayList<>();
+
+    @Getter
+    @Setter
+    private boolean frozen;
+
+    /**
+     * Return the ID of the template for a given context and extractor.
+     *
+     * @param context   context identifier
+     * @param extractor extractor identifier
+     * @return template ID, or -1 if frozen and not found
+     */
+    public int template(String context, String extractor) {
+        Map<String, Integer> extractors = contextTemplates.get(context);
+        if (extractors == null) {
+            if (frozen) {
+                return -1;
+            }
+            extractors = new HashMap<>();
+            contextTemplates.put(context, extractors);
+        }
+        Integer template = extractors.get(extractor);
+        if (template == null) {
+            if (frozen) {
+                return -1;
+            }
+            template = newTemplate();
+            extractors.put(extractor, template);
+        }
+        return template;
+    }
+
+    /**
+     * Return the ID of a template given the complete ID of a feature, for features not produced from a context and extractor.
+     *
+     * @param id feature ID
+     * @return template ID, or -1 if frozen and not found
+     */
+    public int template(String id) {
+        Integer template = idTemplates.get(id);
+        if (template == null) {
+            if (frozen) {
+                return -1;
+            }
+            template = newTemplate();
+            idTemplates.put(id, template);
+        }
+        return template;
+    }
+
+    /**
+     * Return the ID of the template conjoining two templates.
+     *
+     * @param first  first template ID
+     * @param second second template ID
+     * @return template ID, or -1 if frozen and not found
+     */
+    public int template(int first, int second) {
+        long pair = key(first, second);
+        int template = conjunctionTemplates.get(pair);
+        if (template < 0 && !frozen) {
+            template = newTemplate();
+            conjunctionTemplates.put(pair, template);
+        }
+        return template;
+    }
+
+    /**
+     * Return the key of a string value for a given template.
+     *
+     * @param template template ID
+     * @param value    feature value
+     * @return packed (template ID, value ID) key, or -1 if frozen and not found
+     */
+    public long key(int template, String value) {
+        if (template < 0) {
+            return -1;
+        }
+        ValueDictionary dictionary = values.get(template);
+        Integer id = dictionary.strings.get(value);
+        if (id == null) {
+            if (frozen) {
+                return -1;
+            }
+            id = dictionary.size++;
+            dictionary.strings.put(value, id);
+        }
+        return key(template, id);
+    }
+
+    /**
+     * Return the key of the conjunction of two features.
+     *
+     * @param first  key of first feature
+     * @param second key of second feature
+     * @return packed (template ID, value ID) key, or -1 if frozen and not found
+     */
+    public long key(long first, long second) {
+        int template = template(template(first), template(second));
+        if (template < 0) {
+            return -1;
+        }
+        ValueDictionary dictionary = values.get(template);
+        if (dictionary.pairs == null) {
+            if (frozen) {
+                return -1;
+            }
+            dictionary.pairs = new LongIndexMap();
+        }
+        long pair = key(value(first), value(second));
+        int id = dictionary.pairs.get(pair);
+        if (id < 0) {
+            if (frozen) {
+                return -1;
+            }
+            id = dictionary.size++;
+            dictionary.pairs.put(pair, id);
+        }
+        return key(template, id);
+    }
+
+    /**
+     * Number of templates in this dictionary.
+     */
+    public int templates() {
+        return values.size();
+    }
+
+    /**
+     * Pack a template ID and value ID into a single key.
+     *
+     * @param template non-negative template ID
+     * @param value    non-negative value ID
+     * @return packed key
+     */
+    public static long key(int template, int value) {
+        return ((long) template << Integer.SIZE) | value;
+    }
+
+    /**
+     * Return the template ID of a packed key.
+     */
+    public static int template(long key) {
+        return (int) (key >>> Integer.SIZE);
+    }
+
+    /**
+     * Return the value ID of a packed key.
+     */
+    public static int value(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Write this dictionary in an explicit binary form (see {@link ModelFile}).
+     *
+     * @param out output stream
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeBoolean(frozen);
+        out.writeInt(contextTemplates.size());
+        for (Map.Entry<String, Map<String, Integer>> context : contextTemplates.entrySet()) {
+            ModelFile.writeString(out, context.getKey());
+            writeIndices(out, context.getValue());
+        }
+        writeIndices(out, idTemplates);
+        conjunctionTemplates.write(out);
+        out.writeInt(values.size());
+        for (ValueDictionary dictionary : values) {
+            out.writeInt(dictionary.size);
+            writeIndices(out, dictionary.strings);
+            out.writeBoolean(dictionary.pairs != null);
+            if (dictionary.pairs != null) {
+                dictionary.pairs.write(out);
+            }
+        }
+    }
+
+    /**
+     * Read a dictionary written by {@link #write(DataOutputStream)}.
+     *
+     * @param buffer input buffer
+     * @return feature template dictionary
+     */
+    public static FeatureTemplates read(ByteBuffer buffer) {
+        FeatureTemplates templates = new FeatureTemplates();
+        templates.frozen = buffer.get() != 0;
+        int contexts = buffer.getInt();
+        for (int i = 0; i < contexts; ++i) {
+            templates.contextTemplates.put(ModelFile.readString(buffer), readIndices(buffer));
+        }
+        templates.idTemplates = readIndices(buffer);
+        templates.conjunctionTemplates = LongIndexMap.read(buffer);
+        int dictionaries = buffer.getInt();
+        for (int i = 0; i < dictionaries; ++i) {
+            ValueDictionary dictionary = new ValueDictionary();
+            dictionary.size = buffer.getInt();
+            dictionary.strings = readIndices(buffer);
+            if (buffer.get() != 0) {
+                dictionary.pairs = LongIndexMap.read(buffer);
+            }
+            templates.values.add(dictionary);
+        }
+        return templates;
+    }
+
+    private static void writeIndices(DataOutputStream out, Map<String, Integer> indices) throws IOException {
+        out.writeInt(indices.size());
+        for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+            ModelFile.writeString(out, entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private static Map<String, Integer> readIndices(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        Map<String, Integer> indices = new HashMap<>(size * 2);
+        for (int i = 0; i < size; ++i) {
+            indices.put(ModelFile.readString(buffer), buffer.getInt());
+        }
+        return indices;
+    }
+
+    private int newTemplate() {
+        values.add(new ValueDictionary());
+        return values.size() - 1;
+    }
+
+    private static class ValueDictionary implements Serializable {
+
+        private static final long serialVersionUID = 3203948174328609120L;
+
+        private Map<String, Integer> strings = new HashMap<>();
+        private LongIndexMap pairs;
+        private int size;
+
+    }
+
+}
@@ -22,10 +22,12 @@ import java.io.ObjectOutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import io.github.clearwsd.type.NlpInstance;
 import io.github.clearwsd.classifier.Classifier;
 import io.github.clearwsd.classifier.Hyperparameter;
+import io.github.clearwsd.classifier.LabelScores;
 import io.github.clearwsd.feature.optim.ga.CrossValidatingFitnessFunction;
 import io.github.clearwsd.feature.optim.ga.GeneticAlgorithm;
 import io.github.clearwsd.feature.pipeline.NlpClassifier;
@@ -63,6 +65,16 @@ public class EvolutionaryModelTrainer<U extends NlpInstance> implements Classifi
         return classifier.score(instance);
     }
 
+    @Override
+    public void score(U instance, LabelScores scores) {
+        classifier.score(instance, scores);
+    }
+
+    @Override
+    public void score(U instance, LabelScores scores, Set<String> candidates) {
+        classifier.score(instance, scores, candidates);
+    }
+
     @Override
     public void train(List<U> train, List<U> valid) {
         // find the optimal feature architecture through cross-validation on training data
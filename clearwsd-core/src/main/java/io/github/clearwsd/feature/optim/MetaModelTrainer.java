@@ -24,6 +24,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -35,6 +36,7 @@ import io.github.clearwsd.classifier.Classifier;
 import io.github.clearwsd.classifier.ClassifierFactory;
 import io.github.clearwsd.classifier.DefaultHyperparameter;
 import io.github.clearwsd.classifier.Hyperparameter;
+import io.github.clearwsd.classifier.LabelScores;
 import io.github.clearwsd.classifier.SparseClassifier;
 import io.github.clearwsd.eval.CrossValidation;
 import io.github.clearwsd.eval.CrossValidation.Fold;
@@ -134,6 +136,16 @@ public class MetaModelTrainer<U extends NlpInstance> implements Classifier<U, St
         return classifier.score(instance);
     }
 
+    @Override
+    public void score(U instance, LabelScores scores) {
+        classifier.score(instance, scores);
+    }
+
+    @Override
+    public void score(U instance, LabelScores scores, Set<String> candidates) {
+        classifier.score(instance, scores, candidates);
+    }
+
     @Override
     public void train(List<U> train, List<U> valid) {
         CrossValidation<U> cv = new CrossValidation<>(seed, t -> t.feature(FeatureType.Gold.name()));
@@ -24,10 +24,12 @@ import java.io.ObjectOutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import io.github.clearwsd.classifier.Classifier;
 import io.github.clearwsd.classifier.Hyperparameter;
+import io.github.clearwsd.classifier.LabelScores;
 import io.github.clearwsd.feature.annotator.Annotator;
 import io.github.clearwsd.feature.resource.FeatureResourceManager;
 
@@ -72,6 +74,20 @@ public class AnnotatingClassifier<T> implements Classifier<T, String> {
         return classifier.score(instance);
     }
 
+    @Override
+    public void score(T instance, LabelScores scores) {
+        Preconditions.checkState(annotator.initialized(), "Annotator is not initialized.");
+        instance = annotator.annotate(instance);
+        classifier.score(instance, scores);
+    }
+
+    @Override
+    public void score(T instance, LabelScores scores, Set<String> candidates) {
+        Preconditions.checkState(annotator.initialized(), "Annotator is not initialized.");
+        instance = annotator.annotate(instance);
+        classifier.score(instance, scores, candidates);
+    }
+
     @Override
     public void train(List<T> train, List<T> valid) {
         Preconditions.checkState(annotator.initialized(), "Annotator is not initialized.");
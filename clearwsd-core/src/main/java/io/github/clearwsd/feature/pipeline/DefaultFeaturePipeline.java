@@ -76,10 +76,11 @@ public class DefaultFeaturePipeline<I extends NlpInstance> implements FeaturePip
         VocabularyBuilder labelVocab = new VocabularyBuilder();
 
         List<SparseInstance> results = new ArrayList<>();
+        SparseVectorBuilder builder = new SparseVectorBuilder();
         for (I instance : instances) {
             List<StringFeature> features = this.features.apply(instance);
 
-            SparseVectorBuilder builder = new SparseVectorBuilder();
+            builder.reset();
             features.stream().map(f -> featureVocab.index(f.toString()))
                     .forEach(builder::addIndex);
 
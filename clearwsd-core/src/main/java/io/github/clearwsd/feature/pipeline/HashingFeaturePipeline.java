@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import com.google.common.base.Preconditions;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import io.github.clearwsd.classifier.DefaultSparseInstance;
+import io.github.clearwsd.classifier.SparseInstance;
+import io.github.clearwsd.classifier.SparseVectorBuilder;
+import io.github.clearwsd.classifier.SparseVectorBuilder.DuplicatePolicy;
+import io.github.clearwsd.feature.StringFeature;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.model.BaseFeatureModel;
+import io.github.clearwsd.feature.model.BaseVocabulary;
+import io.github.clearwsd.feature.model.FeatureModel;
+import io.github.clearwsd.feature.util.FeatureHashing;
+import io.github.clearwsd.feature.util.VocabularyBuilder;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpInstance;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feature pipeline that maps features into a fixed-size index space by hashing, so that no feature vocabulary needs to be
+ * stored or consulted. With signed hashing, a second hash bit determines the sign of each feature value, so that collisions
+ * tend to cancel out rather than accumulate. Collision auditing reports how many distinct training features share an index.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+@Setter
+@Getter
+@Accessors(fluent = true)
+public class HashingFeaturePipeline<I extends NlpInstance> implements FeaturePipeline<I> {
+
+    private static final long serialVersionUID = 1850366270442862367L;
+
+    private static final int SEED = 0x2c1b3c6d;
+
+    private FeatureFunction<I> features;
+    private FeatureModel model;
+
+    /**
+     * Number of bits in the feature index space, such that indices are in [0, 2^bits).
+     */
+    private int bits = 18;
+    /**
+     * Use the sign of the hash to determine the sign of each feature value.
+     */
+    private boolean signed = false;
+    /**
+     * Count colliding features during training.
+     */
+    private boolean auditCollisions = false;
+    /**
+     * Number of distinct training features that collided with another feature, if auditing collisions.
+     */
+    @Setter(lombok.AccessLevel.NONE)
+    private int collisions;
+
+    private Function<I, String> labelFunction = (Serializable & Function<I, String>) i -> i.feature(FeatureType.Gold);
+
+    public HashingFeaturePipeline(FeatureFunction<I> features) {
+        this.features = features;
+    }
+
+    public HashingFeaturePipeline(FeatureFunction<I> features, int bits) {
+        this.features = features;
+        this.bits = bits;
+    }
+
+    @Override
+    public SparseInstance process(I instance) {
+        SparseVectorBuilder builder = vector(features.apply(instance), newBuilder(), null, null);
+        int target = model.labelIndex(labelFunction.apply(instance));
+        return new DefaultSparseInstance(instance.index(), target, builder.build());
+    }
+
+    @Override
+    public List<SparseInstance> train(List<I> instances) {
+        Preconditions.checkState(bits > 0 && bits < 31, "Number of hash bits must be between 1 and 30, got %s", bits);
+        VocabularyBuilder labelVocab = new VocabularyBuilder();
+        Map<String, Integer> audit = auditCollisions ? new HashMap<>() : null;
+        Set<Integer> occupied = auditCollisions ? new HashSet<>() : null;
+        collisions = 0;
+
+        List<SparseInstance> results = new ArrayList<>();
+        SparseVectorBuilder builder = newBuilder();
+        for (I instance : instances) {
+            vector(features.apply(instance), builder.reset(), audit, occupied);
+            int target = labelVocab.index(labelFunction.apply(instance));
+            results.add(new DefaultSparseInstance(instance.index(), target, builder.build()));
+        }
+
+        if (labelVocab.counts().size() == 0) {
+            labelVocab.index(VocabularyBuilder.DEFAULT);
+        }
+        model = new BaseFeatureModel(labelVocab.build(), new BaseVocabulary(new HashMap<>()));
+        if (audit != null) {
+            log.debug("Hashed {} distinct features into {} indices with {} colliding features ({} bits).",
+                    audit.size(), occupied.size(), collisions, bits);
+        }
+        return results;
+    }
+
+    private SparseVectorBuilder newBuilder() {
+        // with signed hashing, colliding features within an instance are summed, and may cancel out
+        return new SparseVectorBuilder(signed ? DuplicatePolicy.Sum : DuplicatePolicy.Overwrite);
+    }
+
+    private SparseVectorBuilder vector(List<StringFeature> features, SparseVectorBuilder builder, Map<String, Integer> audit,
+                                       Set<Integer> occupied) {
+        int mask = (1 << bits) - 1;
+        for (StringFeature feature : features) {
+            int hash = FeatureHashing.hash(feature, SEED);
+            int index = hash & mask;
+            builder.addValue(index, signed && hash < 0 ? -1 : 1);
+            if (audit != null) {
+                if (audit.putIfAbsent(feature.toString(), index) == null && !occupied.add(index)) {
+                    ++collisions;
+                }
+            }
+        }
+        return builder;
+    }
+
+}
@@ -23,6 +23,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import io.github.clearwsd.type.NlpInstance;
@@ -31,12 +32,15 @@ import io.github.clearwsd.classifier.DefaultSparseInstance;
 import io.github.clearwsd.classifier.DefaultSparseVector;
 import io.github.clearwsd.classifier.DummyClassifier;
 import io.github.clearwsd.classifier.Hyperparameter;
+import io.github.clearwsd.classifier.LabelScores;
 import io.github.clearwsd.classifier.SparseClassifier;
 import io.github.clearwsd.classifier.SparseInstance;
 import io.github.clearwsd.feature.model.BaseFeatureModel;
 import io.github.clearwsd.feature.model.BaseVocabulary;
 import io.github.clearwsd.feature.model.FeatureModel;
 import io.github.clearwsd.feature.util.VocabularyBuilder;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 
@@ -57,6 +61,12 @@ public class NlpClassifier<U extends NlpInstance> implements Classifier<U, Strin
 
     private SparseClassifier sparseClassifier;
     private FeaturePipeline<U> featurePipeline;
+    // label names indexed by label, computed once from the label vocabulary
+    @Getter(AccessLevel.NONE)
+    private transient String[] labelNames;
+    // label indices of the most recently requested candidate labels
+    @Getter(AccessLevel.NONE)
+    private transient CandidateMask candidateMask;
 
     public NlpClassifier(SparseClassifier sparseClassifier, FeaturePipeline<U> featurePipeline) {
         this.sparseClassifier = sparseClassifier;
@@ -70,9 +80,21 @@ public class NlpClassifier<U extends NlpInstance> implements Classifier<U, Strin
 
     @Override
     public Map<String, Double> score(U instance) {
-        FeatureModel model = featurePipeline.model();
-        return sparseClassifier.score(featurePipeline.process(instance)).entrySet().stream()
-                .collect(Collectors.toMap(e -> model.label(e.getKey()), Map.Entry::getValue));
+        LabelScores scores = new LabelScores();
+        score(instance, scores);
+        return scores.toNameMap();
+    }
+
+    @Override
+    public void score(U instance, LabelScores scores) {
+        sparseClassifier.score(featurePipeline.process(instance), scores);
+        scores.names(labelNames());
+    }
+
+    @Override
+    public void score(U instance, LabelScores scores, Set<String> candidates) {
+        sparseClassifier.score(featurePipeline.process(instance), scores, candidateMask(candidates).labels);
+        scores.names(labelNames());
     }
 
     @Override
@@ -87,6 +109,8 @@ public class NlpClassifier<U extends NlpInstance> implements Classifier<U, Strin
             featurePipeline = new DummyPipeline<>(featurePipeline.model().labels().value(0));
             sparseClassifier = new DummyClassifier(0);
         }
+        labelNames = null;
+        candidateMask = null;
     }
 
     @Override
@@ -105,6 +129,8 @@ public class NlpClassifier<U extends NlpInstance> implements Classifier<U, Strin
             sparseClassifier = (SparseClassifier) inputStream.readObject();
             //noinspection unchecked
             featurePipeline = (FeaturePipeline<U>) inputStream.readObject();
+            labelNames = null;
+            candidateMask = null;
         } catch (IOException | ClassNotFoundException e) {
             throw new RuntimeException(e);
         }
@@ -120,7 +146,44 @@ public class NlpClassifier<U extends NlpInstance> implements Classifier<U, Strin
         }
     }
 
-    private static class DummyPipeline<I extends NlpInstance> implements FeaturePipeline<I> {
+    private String[] labelNames() {
+        String[] names = labelNames;
+        if (names == null) {
+            Map<String, Integer> indices = featurePipeline.model().labels().indices();
+            names = new String[indices.values().stream().mapToInt(i -> i).max().orElse(-1) + 1];
+            for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+                names[entry.getValue()] = entry.getKey();
+            }
+            labelNames = names;
+        }
+        return names;
+    }
+
+    /**
+     * Return label indices for a set of candidate labels. Sub-models are typically specific to a single lemma with a fixed set
+     * of candidate senses, so the last mask is cached and reused.
+     */
+    private CandidateMask candidateMask(Set<String> candidates) {
+        CandidateMask mask = candidateMask;
+        if (mask == null || (mask.candidates != candidates && !mask.candidates.equals(candidates))) {
+            Map<String, Integer> indices = featurePipeline.model().labels().indices();
+            mask = new CandidateMask(candidates, candidates.stream()
+                    .filter(indices::containsKey)
+                    .mapToInt(indices::get)
+                    .sorted()
+                    .toArray());
+            candidateMask = mask;
+        }
+        return mask;
+    }
+
+    @AllArgsConstructor
+    private static final class CandidateMask {
+        private final Set<String> candidates;
+        private final int[] labels;
+    }
+
+    static class DummyPipeline<I extends NlpInstance> implements FeaturePipeline<I> {
 
         private static final long serialVersionUID = -1320433214836264964L;
 
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import io.github.clearwsd.classifier.Classifier;
+import io.github.clearwsd.classifier.ClassifierCodec;
+import io.github.clearwsd.classifier.DummyClassifier;
+import io.github.clearwsd.classifier.ModelFile;
+import io.github.clearwsd.classifier.PaClassifier;
+import io.github.clearwsd.classifier.SparseClassifier;
+import io.github.clearwsd.classifier.WeightMatrix;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.model.BaseFeatureModel;
+import io.github.clearwsd.feature.model.BaseVocabulary;
+import io.github.clearwsd.feature.model.FeatureModel;
+import io.github.clearwsd.feature.model.FeatureTemplates;
+import io.github.clearwsd.feature.util.LongIndexMap;
+import io.github.clearwsd.type.NlpInstance;
+
+/**
+ * {@link ClassifierCodec} with an explicit encoding of {@link NlpClassifier} sub-models using a {@link TemplateFeaturePipeline}
+ * and a {@link PaClassifier}: label vocabulary, feature template dictionary, feature indices and model weights are written as
+ * plain arrays. The feature functions and label function of each pipeline are configuration shared by every sub-model, and are
+ * stored once, in the shared section. Other sub-models are stored using Java serialization.
+ *
+ * @param <U> input type
+ * @author jamesgung
+ */
+public class NlpClassifierCodec<U extends NlpInstance> implements ClassifierCodec<U, String> {
+
+    private static final byte SERIALIZED = 0;
+    private static final byte TEMPLATE = 1;
+    private static final byte SINGLE_LABEL = 2;
+
+    private static final byte WEIGHTS = 0;
+    private static final byte DUMMY = 1;
+
+    // serialized pipeline configurations, by content, for writing
+    private final Map<ByteBuffer, Integer> configIds = new HashMap<>();
+    private final List<byte[]> configBytes = new ArrayList<>();
+    // pipeline configurations, for reading
+    private List<PipelineConfig<U>> configs = new ArrayList<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void write(Classifier<U, String> classifier, DataOutputStream out) throws IOException {
+        if (classifier instanceof NlpClassifier) {
+            NlpClassifier<U> nlpClassifier = (NlpClassifier<U>) classifier;
+            FeaturePipeline<U> pipeline = nlpClassifier.featurePipeline();
+            SparseClassifier sparseClassifier = nlpClassifier.sparseClassifier();
+            if (pipeline instanceof TemplateFeaturePipeline
+                    && isExplicit((TemplateFeaturePipeline<U>) pipeline, sparseClassifier)) {
+                TemplateFeaturePipeline<U> templatePipeline = (TemplateFeaturePipeline<U>) pipeline;
+                out.writeByte(TEMPLATE);
+                out.writeInt(config(templatePipeline.features(), templatePipeline.labelFunction()));
+                ((BaseVocabulary) templatePipeline.model().labels()).write(out);
+                ((BaseVocabulary) templatePipeline.model().features()).write(out);
+                templatePipeline.templates().write(out);
+                templatePipeline.featureIndices().write(out);
+                if (sparseClassifier instanceof DummyClassifier) {
+                    out.writeByte(DUMMY);
+                    out.writeInt(((DummyClassifier) sparseClassifier).label());
+                } else {
+                    out.writeByte(WEIGHTS);
+                    ((PaClassifier) sparseClassifier).weights().write(out);
+                }
+                return;
+            }
+            if (pipeline instanceof NlpClassifier.DummyPipeline && sparseClassifier instanceof DummyClassifier) {
+                out.writeByte(SINGLE_LABEL);
+                ModelFile.writeString(out, pipeline.model().label(((DummyClassifier) sparseClassifier).label()));
+                return;
+            }
+        }
+        out.writeByte(SERIALIZED);
+        ModelFile.writeObject(out, classifier);
+    }
+
+    @Override
+    public Classifier<U, String> read(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case TEMPLATE:
+                PipelineConfig<U> config = configs.get(buffer.getInt());
+                FeatureModel model = new BaseFeatureModel(BaseVocabulary.read(buffer), BaseVocabulary.read(buffer));
+                FeatureTemplates templates = FeatureTemplates.read(buffer);
+                LongIndexMap featureIndices = LongIndexMap.read(buffer);
+                TemplateFeaturePipeline<U> pipeline = new TemplateFeaturePipeline<>(config.features)
+                        .model(model)
+                        .templates(templates)
+                        .featureIndices(featureIndices)
+                        .labelFunction(config.labelFunction);
+                SparseClassifier sparseClassifier = buffer.get() == DUMMY ? new DummyClassifier(buffer.getInt())
+                        : new PaClassifier().weights(WeightMatrix.read(buffer));
+                return new NlpClassifier<>(sparseClassifier, pipeline);
+            case SINGLE_LABEL:
+                String label = ModelFile.readString(buffer);
+                return new NlpClassifier<>(new DummyClassifier(0), new NlpClassifier.DummyPipeline<>(label));
+            case SERIALIZED:
+                return ModelFile.readObject(buffer);
+            default:
+                throw new IllegalArgumentException("Unsupported sub-model type: " + type);
+        }
+    }
+
+    /**
+     * Estimate the size of a sub-model from the size of its weights. The size of its record, which also includes the
+     * vocabularies and feature indices (which take more space once read into hash tables), is added to account for the rest.
+     */
+    @Override
+    public long bytes(Classifier<U, String> classifier, int recordBytes) {
+        if (classifier instanceof NlpClassifier
+                && ((NlpClassifier<U>) classifier).sparseClassifier() instanceof PaClassifier) {
+            WeightMatrix weights = ((PaClassifier) ((NlpClassifier<U>) classifier).sparseClassifier()).weights();
+            if (weights != null) {
+                return weights.bytes() + recordBytes;
+            }
+        }
+        return recordBytes;
+    }
+
+    @Override
+    public void writeShared(DataOutputStream out) throws IOException {
+        out.writeInt(configBytes.size());
+        for (byte[] config : configBytes) {
+            out.writeInt(config.length);
+            out.write(config);
+        }
+    }
+
+    @Override
+    public void readShared(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        List<PipelineConfig<U>> configs = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            Object[] config = ModelFile.readObject(buffer);
+            //noinspection unchecked
+            configs.add(new PipelineConfig<>((FeatureFunction<U>) config[0], (Function<U, String>) config[1]));
+        }
+        this.configs = configs;
+    }
+
+    private static boolean isExplicit(TemplateFeaturePipeline<?> pipeline, SparseClassifier classifier) {
+        return pipeline.templates() != null && pipeline.featureIndices() != null
+                && pipeline.model().labels() instanceof BaseVocabulary
+                && pipeline.model().features() instanceof BaseVocabulary
+                && (classifier instanceof DummyClassifier || classifier instanceof PaClassifier);
+    }
+
+    /**
+     * Return the ID of a pipeline configuration, identifying configurations with identical serialized forms.
+     */
+    private int config(FeatureFunction<U> features, Function<U, String> labelFunction) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new Object[]{features, labelFunction});
+        }
+        byte[] config = bytes.toByteArray();
+        Integer id = configIds.get(ByteBuffer.wrap(config));
+        if (id == null) {
+            id = configBytes.size();
+            configIds.put(ByteBuffer.wrap(config), id);
+            configBytes.add(config);
+        }
+        return id;
+    }
+
+    private static final class PipelineConfig<U extends NlpInstance> {
+
+        private final FeatureFunction<U> features;
+        private final Function<U, String> labelFunction;
+
+        PipelineConfig(FeatureFunction<U> features, Function<U, String> labelFunction) {
+            this.features = features;
+            this.labelFunction = labelFunction;
+        }
+
+    }
+
+}
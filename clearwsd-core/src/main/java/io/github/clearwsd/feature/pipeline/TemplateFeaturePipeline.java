@@ -0,0 +1,123 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+import io.github.clearwsd.classifier.DefaultSparseInstance;
+import io.github.clearwsd.classifier.SparseInstance;
+import io.github.clearwsd.classifier.SparseVectorBuilder;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.function.FeatureKeys;
+import io.github.clearwsd.feature.model.BaseFeatureModel;
+import io.github.clearwsd.feature.model.BaseVocabulary;
+import io.github.clearwsd.feature.model.FeatureModel;
+import io.github.clearwsd.feature.model.FeatureTemplates;
+import io.github.clearwsd.feature.util.LongIndexMap;
+import io.github.clearwsd.feature.util.VocabularyBuilder;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpInstance;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feature pipeline that indexes features by packed (template ID, value ID) keys from a {@link FeatureTemplates} dictionary,
+ * so that no feature strings are built or looked up when extracting features. Features unseen during training are ignored.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+@Setter
+@Getter
+@Accessors(fluent = true)
+public class TemplateFeaturePipeline<I extends NlpInstance> implements FeaturePipeline<I> {
+
+    private static final long serialVersionUID = -3511546734010567233L;
+
+    private FeatureFunction<I> features;
+    private FeatureModel model;
+    private FeatureTemplates templates;
+    private LongIndexMap featureIndices;
+
+    private Function<I, String> labelFunction = (Serializable & Function<I, String>) i -> i.feature(FeatureType.Gold);
+
+    public TemplateFeaturePipeline(FeatureFunction<I> features) {
+        this.features = features;
+    }
+
+    @Override
+    public SparseInstance process(I instance) {
+        FeatureKeys keys = new FeatureKeys();
+        features.apply(instance, templates, keys);
+
+        SparseVectorBuilder builder = new SparseVectorBuilder();
+        for (int i = 0; i < keys.size(); ++i) {
+            int index = featureIndices.get(keys.get(i));
+            if (index >= 0) {
+                builder.addIndex(index);
+            }
+        }
+
+        int target = model.labelIndex(labelFunction.apply(instance));
+        return new DefaultSparseInstance(instance.index(), target, builder.build());
+    }
+
+    @Override
+    public List<SparseInstance> train(List<I> instances) {
+        templates = new FeatureTemplates();
+        featureIndices = new LongIndexMap();
+
+        VocabularyBuilder labelVocab = new VocabularyBuilder();
+        FeatureKeys keys = new FeatureKeys();
+        SparseVectorBuilder builder = new SparseVectorBuilder();
+
+        List<SparseInstance> results = new ArrayList<>();
+        for (I instance : instances) {
+            features.apply(instance, templates, keys.clear());
+
+            builder.reset();
+            for (int i = 0; i < keys.size(); ++i) {
+                long key = keys.get(i);
+                int index = featureIndices.get(key);
+                if (index < 0) {
+                    index = featureIndices.size();
+                    featureIndices.put(key, index);
+                }
+                builder.addIndex(index);
+            }
+
+            int target = labelVocab.index(labelFunction.apply(instance));
+            results.add(new DefaultSparseInstance(instance.index(), target, builder.build()));
+        }
+        templates.frozen(true);
+
+        if (labelVocab.counts().size() == 0) {
+            labelVocab.index(VocabularyBuilder.DEFAULT);
+        }
+        model = new BaseFeatureModel(labelVocab.build(), new BaseVocabulary(new HashMap<>()));
+        log.debug("Indexed {} features from {} feature templates.", featureIndices.size(), templates.templates());
+
+        return results;
+    }
+
+}
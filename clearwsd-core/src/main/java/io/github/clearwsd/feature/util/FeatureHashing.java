@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.util;
+
+import io.github.clearwsd.feature.StringFeature;
+
+/**
+ * Non-cryptographic hashing of features (32-bit MurmurHash3 over UTF-16 code units), computed without concatenating feature
+ * IDs and values into a single string.
+ *
+ * @author jamesgung
+ */
+public final class FeatureHashing {
+
+    private static final int C1 = 0xcc9e2d51;
+    private static final int C2 = 0x1b873593;
+
+    private FeatureHashing() {
+    }
+
+    /**
+     * Hash a feature, equivalent to hashing the characters of its string representation (ID, separator and value).
+     *
+     * @param feature input feature
+     * @param seed    hash seed
+     * @return 32-bit hash
+     */
+    public static int hash(StringFeature feature, int seed) {
+        return hash(feature.id(), FeatureUtils.FEATURE_ID_SEP, feature.value(), seed);
+    }
+
+    /**
+     * Hash the concatenation of three strings.
+     *
+     * @param first  first string
+     * @param second second string
+     * @param third  third string
+     * @param seed   hash seed
+     * @return 32-bit hash
+     */
+    public static int hash(String first, String second, String third, int seed) {
+        int firstEnd = first.length();
+        int secondEnd = firstEnd + second.length();
+        int length = secondEnd + third.length();
+        int h1 = seed;
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            int k1 = charAt(first, second, third, firstEnd, secondEnd, i)
+                    | (charAt(first, second, third, firstEnd, secondEnd, i + 1) << 16);
+            h1 ^= mixK1(k1);
+            h1 = Integer.rotateLeft(h1, 13);
+            h1 = h1 * 5 + 0xe6546b64;
+        }
+        if (i < length) {
+            h1 ^= mixK1(charAt(first, second, third, firstEnd, secondEnd, i));
+        }
+        return fmix(h1 ^ (Character.BYTES * length));
+    }
+
+    private static int charAt(String first, String second, String third, int firstEnd, int secondEnd, int index) {
+        if (index < firstEnd) {
+            return first.charAt(index);
+        }
+        if (index < secondEnd) {
+            return second.charAt(index - firstEnd);
+        }
+        return third.charAt(index - secondEnd);
+    }
+
+    private static int mixK1(int k1) {
+        k1 *= C1;
+        k1 = Integer.rotateLeft(k1, 15);
+        return k1 * C2;
+    }
+
+    private static int fmix(int h1) {
+        h1 ^= h1 >>> 16;
+        h1 *= 0x85ebca6b;
+        h1 ^= h1 >>> 13;
+        h1 *= 0xc2b2ae35;
+        h1 ^= h1 >>> 16;
+        return h1;
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.util;
+
+import com.google.common.base.Preconditions;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import io.github.clearwsd.classifier.ModelFile;
+
+/**
+ * Open-addressing hash map from non-negative long keys to int values, avoiding boxing of keys and values. Concurrent reads are
+ * safe as long as no thread is modifying the map.
+ *
+ * @author jamesgung
+ */
+public class LongIndexMap implements Serializable {
+
+    private static final long serialVersionUID = -2914381652075390384L;
+
+    private static final long EMPTY = -1;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIndexMap() {
+        this(16);
+    }
+
+    /**
+     * Initialize a map sized to hold a given number of entries without resizing.
+     *
+     * @param expected expected number of entries
+     */
+    public LongIndexMap(int expected) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expected) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Return the value for a given key, or -1 if the key is absent.
+     *
+     * @param key non-negative key
+     * @return value, or -1
+     */
+    public int get(long key) {
+        int slot = slot(key);
+        return keys[slot] == EMPTY ? -1 : values[slot];
+    }
+
+    /**
+     * Associate a value with a given key, replacing any existing value.
+     *
+     * @param key   non-negative key
+     * @param value value
+     */
+    public void put(long key, int value) {
+        Preconditions.checkArgument(key >= 0, "Keys must be non-negative, got %s", key);
+        int slot = slot(key);
+        values[slot] = value;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size > keys.length * LOAD_FACTOR) {
+                rehash(keys.length * 2);
+            }
+        }
+    }
+
+    /**
+     * Number of entries in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Write this map in a binary form that can be read without rehashing (see {@link ModelFile}).
+     *
+     * @param out output stream
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        ModelFile.writeLongs(out, keys);
+        ModelFile.writeInts(out, values);
+    }
+
+    /**
+     * Read a map written by {@link #write(DataOutputStream)}.
+     *
+     * @param buffer input buffer
+     * @return long index map
+     */
+    public static LongIndexMap read(ByteBuffer buffer) {
+        LongIndexMap map = new LongIndexMap(0);
+        map.size = buffer.getInt();
+        map.keys = ModelFile.readLongs(buffer);
+        map.values = ModelFile.readInts(buffer);
+        return map;
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link NlpParser} wrapper that caches parses on local disk, so that sentences parsed in previous runs or other corpora are not
+ * parsed again. Entries are content-addressed by a hash of the parser identity, parser configuration and token sequence, and
+ * stored one per file in a compact binary form. The cache is bounded by total size on disk, evicting the least recently used
+ * entries, with recency persisted through file modification times. As each entry is a small file, its size on disk is counted
+ * as its size rounded up to a whole filesystem block. Only string-valued token features are cached.
+ * <p>
+ * This wrapper is threadsafe if the underlying parser is threadsafe.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+public class CachingNlpParser implements NlpParser {
+
+    // version 2 stores feature names instead of FeatureType ordinals, which change if FeatureType constants are reordered
+    private static final int VERSION = 2;
+    private static final String EXTENSION = ".tree";
+    // typical filesystem block size, the minimum disk space allocated to a non-empty file
+    private static final long BLOCK_BYTES = 4096;
+
+    private final NlpParser parser;
+    private final Path directory;
+    private final String identity;
+    private final long maxBytes;
+
+    // entry key to size in bytes, in access order
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Initialize a parse cache over a given parser.
+     *
+     * @param parser    dependency parser
+     * @param directory cache directory, created if it does not exist
+     * @param config    parser configuration (such as model paths), distinguishing parses from differently configured parsers
+     * @param maxBytes  maximum total size of cached entries on disk in bytes
+     */
+    public CachingNlpParser(NlpParser parser, Path directory, String config, long maxBytes) {
+        Preconditions.checkArgument(maxBytes > 0, "Maximum cache size must be positive, got %s", maxBytes);
+        this.parser = parser;
+        this.directory = directory;
+        Class<?> parserClass = parser instanceof PooledNlpParser ? ((PooledNlpParser) parser).parserClass() : parser.getClass();
+        this.identity = parserClass.getName() + "\u0000" + config;
+        this.maxBytes = maxBytes;
+        loadEntries();
+    }
+
+    /**
+     * Initialize a parse cache over a given parser, identified only by its class.
+     *
+     * @param parser    dependency parser
+     * @param directory cache directory, created if it does not exist
+     * @param maxBytes  maximum total size of cached entries on disk in bytes
+     */
+    public CachingNlpParser(NlpParser parser, Path directory, long maxBytes) {
+        this(parser, directory, "", maxBytes);
+    }
+
+    @Override
+    public DepTree parse(List<String> tokens) {
+        String key = key(tokens);
+        DepTree cached = read(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        DepTree tree = parser.parse(tokens);
+        write(key, tree);
+        return tree;
+    }
+
+    /**
+     * Parse a batch of tokenized sentences, passing only sentences not found in the cache to the underlying parser's
+     * {@link NlpParser#parseBatch(List)}.
+     *
+     * @param sentences tokenized sentences
+     * @return syntactic dependency trees, in input order
+     */
+    @Override
+    public List<DepTree> parseBatch(List<List<String>> sentences) {
+        List<DepTree> trees = new ArrayList<>(sentences.size());
+        List<String> keys = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        List<List<String>> uncached = new ArrayList<>();
+        for (List<String> sentence : sentences) {
+            String key = key(sentence);
+            DepTree cached = read(key);
+            if (cached == null) {
+                keys.add(key);
+                positions.add(trees.size());
+                uncached.add(sentence);
+            }
+            trees.add(cached);
+        }
+        hits.addAndGet(sentences.size() - uncached.size());
+        misses.addAndGet(uncached.size());
+        if (!uncached.isEmpty()) {
+            List<DepTree> parsed = parser.parseBatch(uncached);
+            for (int i = 0; i < parsed.size(); ++i) {
+                write(keys.get(i), parsed.get(i));
+                trees.set(positions.get(i), parsed.get(i));
+            }
+        }
+        return trees;
+    }
+
+    @Override
+    public List<String> segment(String input) {
+        return parser.segment(input);
+    }
+
+    @Override
+    public List<String> tokenize(String sentence) {
+        return parser.tokenize(sentence);
+    }
+
+    @Override
+    public List<TokenizedSentence> segmentTokens(String input) {
+        return parser.segmentTokens(input);
+    }
+
+    @Override
+    public void close() {
+        parser.close();
+    }
+
+    /**
+     * Number of parses read from the cache.
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Number of parses not found in the cache.
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Number of entries currently in the cache.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Total size on disk of entries currently in the cache, in bytes.
+     */
+    public synchronized long bytes() {
+        return bytes;
+    }
+
+    private String key(List<String> tokens) {
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putString(identity, StandardCharsets.UTF_8)
+                .putInt(tokens.size());
+        for (String token : tokens) {
+            hasher.putInt(token.length()).putString(token, StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    private Path path(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + EXTENSION);
+    }
+
+    private DepTree read(String key) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        Path path = path(key);
+        try {
+            DepTree tree = decode(Files.readAllBytes(path));
+            // persist recency for eviction in later runs
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            return tree;
+        } catch (NoSuchFileException e) {
+            // evicted concurrently, or removed externally
+            remove(key);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to read cached parse at {}", path, e);
+            remove(key);
+            return null;
+        }
+    }
+
+    private void write(String key, DepTree tree) {
+        Path path = path(key);
+        try {
+            byte[] data = encode(tree);
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), key, ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                long size = allocated(data.length);
+                Long previous = entries.put(key, size);
+                bytes += size - (previous == null ? 0 : previous);
+                evict();
+            }
+        } catch (IOException e) {
+            log.warn("Unable to cache parse at {}", path, e);
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            bytes -= size;
+        }
+    }
+
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            try {
+                Files.deleteIfExists(path(eldest.getKey()));
+            } catch (IOException e) {
+                log.warn("Unable to evict cached parse {}", eldest.getKey(), e);
+            }
+            bytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private void loadEntries() {
+        try {
+            Files.createDirectories(directory);
+            // read the size and modification time of each entry from a single set of attributes
+            Map<String, BasicFileAttributes> attributes = new HashMap<>();
+            Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 2, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String name = file.getFileName().toString();
+                    if (attrs.isRegularFile() && name.endsWith(EXTENSION)) {
+                        attributes.put(name.substring(0, name.length() - EXTENSION.length()), attrs);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            List<String> keys = new ArrayList<>(attributes.keySet());
+            keys.sort(Comparator.comparingLong(key -> attributes.get(key).lastModifiedTime().toMillis()));
+            synchronized (this) {
+                for (String key : keys) {
+                    long size = allocated(attributes.get(key).size());
+                    entries.put(key, size);
+                    bytes += size;
+                }
+                evict();
+            }
+            log.debug("Loaded parse cache at {} with {} entries ({} bytes)", directory, entries.size(), bytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to initialize parse cache at " + directory, e);
+        }
+    }
+
+    private static long allocated(long size) {
+        return (size + BLOCK_BYTES - 1) / BLOCK_BYTES * BLOCK_BYTES;
+    }
+
+    private static byte[] encode(DepTree tree) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(tree.index());
+            out.writeInt(tree.tokens().size());
+            for (DepNode node : tree.tokens()) {
+                out.writeInt(node.isRoot() ? -1 : node.head().index());
+                List<Map.Entry<String, Object>> features = node.features().entrySet().stream()
+                        .filter(entry -> entry.getValue() instanceof String)
+                        .collect(Collectors.toList());
+                out.writeByte(features.size());
+                for (Map.Entry<String, Object> feature : features) {
+                    out.writeUTF(feature.getKey());
+                    out.writeUTF((String) feature.getValue());
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DepTree decode(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported parse cache version: " + version);
+            }
+            int index = in.readInt();
+            int size = in.readInt();
+            List<DepNode> nodes = new ArrayList<>(size);
+            int[] heads = new int[size];
+            for (int i = 0; i < size; ++i) {
+                DefaultDepNode node = new DefaultDepNode(i);
+                heads[i] = in.readInt();
+                int features = in.readUnsignedByte();
+                for (int j = 0; j < features; ++j) {
+                    String key = in.readUTF();
+                    node.addFeature(key, in.readUTF());
+                }
+                nodes.add(node);
+            }
+            DepNode root = null;
+            for (int i = 0; i < size; ++i) {
+                if (heads[i] < 0) {
+                    root = nodes.get(i);
+                } else {
+                    ((DefaultDepNode) nodes.get(i)).head(nodes.get(heads[i]));
+                }
+            }
+            return new DefaultDepTree(index, nodes, root);
+        }
+    }
+
+}
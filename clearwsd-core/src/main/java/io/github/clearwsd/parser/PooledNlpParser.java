@@ -0,0 +1,289 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.github.clearwsd.type.DepTree;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Threadsafe {@link NlpParser} backed by a fixed pool of independent parser instances, for parsers that are not themselves
+ * threadsafe. Each call borrows an instance for its duration, blocking until one is available. Instances are created (and
+ * optionally warmed up by parsing a sample sentence) in parallel on initialization, since loading parsing models dominates
+ * startup time.
+ * <p>
+ * Batches passed to {@link #parseBatch(List)} are parsed in chunks of at most {@link #BATCH_CHUNK} sentences, borrowing an
+ * instance per chunk, so that a large batch does not hold an instance away from other callers for its whole duration. Chunks
+ * are parsed in parallel on a thread per pooled instance, created on first use and reused until {@link #close()}.
+ * <p>
+ * Pool usage is tracked through {@link #inUse()}, {@link #calls()}, {@link #waits()}, {@link #waitTime(TimeUnit)} and
+ * {@link #utilization()}.
+ *
+ * @author jamesgung
+ */
+@Slf4j
+public class PooledNlpParser implements NlpParser {
+
+    /**
+     * Sentence parsed by each instance after creation, unless another is given, to load lazily initialized resources.
+     */
+    public static final List<String> DEFAULT_WARMUP = Collections.unmodifiableList(
+            Arrays.asList("The", "quick", "brown", "fox", "jumped", "over", "the", "lazy", "dog", "."));
+    /**
+     * Maximum number of sentences of a batch parsed by a single borrowed instance.
+     */
+    public static final int BATCH_CHUNK = 16;
+
+    private final BlockingQueue<NlpParser> available;
+    private final int size;
+    private final Class<?> parserClass;
+    private ExecutorService executor;
+
+    private final long started;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    /**
+     * Initialize a pool of parsers, created in parallel by a given factory, and warmed up by parsing a sample sentence.
+     *
+     * @param factory parser factory, called once per pooled instance, possibly from multiple threads
+     * @param size    number of parser instances
+     * @param warmup  tokenized sentence parsed by each instance after creation, or empty to skip warmup
+     */
+    public PooledNlpParser(Supplier<NlpParser> factory, int size, List<String> warmup) {
+        Preconditions.checkArgument(size > 0, "Pool size must be positive, got %s", size);
+        this.size = size;
+        this.available = new ArrayBlockingQueue<>(size);
+        Stopwatch sw = Stopwatch.createStarted();
+        ExecutorService executor = Executors.newFixedThreadPool(size);
+        try {
+            List<Future<NlpParser>> futures = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                futures.add(executor.submit(() -> {
+                    NlpParser parser = factory.get();
+                    if (!warmup.isEmpty()) {
+                        parser.parse(warmup);
+                    }
+                    return parser;
+                }));
+            }
+            for (Future<NlpParser> future : futures) {
+                available.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while initializing parsers.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error while initializing parser: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        this.parserClass = available.peek().getClass();
+        this.started = System.nanoTime();
+        log.debug("Initialized {} {} instances in {}", size, parserClass.getSimpleName(), sw);
+    }
+
+    /**
+     * Initialize a pool of parsers, created in parallel by a given factory, and warmed up by parsing {@link #DEFAULT_WARMUP}.
+     *
+     * @param factory parser factory, called once per pooled instance, possibly from multiple threads
+     * @param size    number of parser instances
+     */
+    public PooledNlpParser(Supplier<NlpParser> factory, int size) {
+        this(factory, size, DEFAULT_WARMUP);
+    }
+
+    @Override
+    public DepTree parse(List<String> tokens) {
+        return apply(parser -> parser.parse(tokens));
+    }
+
+    @Override
+    public List<DepTree> parseBatch(List<List<String>> sentences) {
+        // spread smaller batches evenly across instances
+        int chunkSize = Math.max(1, Math.min(BATCH_CHUNK, (sentences.size() + size - 1) / size));
+        List<List<List<String>>> chunks = new ArrayList<>();
+        for (int start = 0; start < sentences.size(); start += chunkSize) {
+            chunks.add(sentences.subList(start, Math.min(sentences.size(), start + chunkSize)));
+        }
+        List<DepTree> trees = new ArrayList<>(sentences.size());
+        if (size == 1 || chunks.size() <= 1) {
+            for (List<List<String>> chunk : chunks) {
+                trees.addAll(apply(parser -> parser.parseBatch(chunk)));
+            }
+            return trees;
+        }
+        List<Future<List<DepTree>>> results = new ArrayList<>(chunks.size());
+        try {
+            ExecutorService service = executor();
+            for (List<List<String>> chunk : chunks) {
+                results.add(service.submit(() -> apply(parser -> parser.parseBatch(chunk))));
+            }
+            for (Future<List<DepTree>> result : results) {
+                trees.addAll(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while parsing sentences.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error while parsing sentence: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            results.forEach(result -> result.cancel(true));
+        }
+        return trees;
+    }
+
+    /**
+     * Stop the threads used to parse batches in parallel. Pooled instances remain usable from calling threads.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(size, new ThreadFactoryBuilder()
+                    .setNameFormat("pooled-parser-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+        return executor;
+    }
+
+    @Override
+    public List<String> segment(String input) {
+        return apply(parser -> parser.segment(input));
+    }
+
+    @Override
+    public List<String> tokenize(String sentence) {
+        return apply(parser -> parser.tokenize(sentence));
+    }
+
+    @Override
+    public List<TokenizedSentence> segmentTokens(String input) {
+        return apply(parser -> parser.segmentTokens(input));
+    }
+
+    /**
+     * Apply a function to a pooled parser instance, which is held exclusively for the duration of the call.
+     *
+     * @param function function applied to a parser
+     * @param <T>      result type
+     * @return function result
+     */
+    public <T> T apply(Function<NlpParser, T> function) {
+        calls.incrementAndGet();
+        NlpParser parser = available.poll();
+        if (parser == null) {
+            waits.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                parser = available.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a parser.", e);
+            } finally {
+                waitNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            return function.apply(parser);
+        } finally {
+            busyNanos.addAndGet(System.nanoTime() - start);
+            available.add(parser);
+        }
+    }
+
+    /**
+     * Number of parser instances in this pool.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Class of pooled parser instances.
+     */
+    public Class<?> parserClass() {
+        return parserClass;
+    }
+
+    /**
+     * Number of parser instances currently in use.
+     */
+    public int inUse() {
+        return size - available.size();
+    }
+
+    /**
+     * Total number of calls to pooled parsers.
+     */
+    public long calls() {
+        return calls.get();
+    }
+
+    /**
+     * Number of calls that had to wait for an available parser.
+     */
+    public long waits() {
+        return waits.get();
+    }
+
+    /**
+     * Total time spent by callers waiting for an available parser.
+     *
+     * @param unit time unit
+     */
+    public long waitTime(TimeUnit unit) {
+        return unit.convert(waitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Fraction of total pool capacity, since initialization, spent in calls to pooled parsers.
+     */
+    public double utilization() {
+        long elapsed = System.nanoTime() - started;
+        return elapsed <= 0 ? 0 : Math.min(1, (double) busyNanos.get() / ((double) elapsed * size));
+    }
+
+}
@@ -16,6 +16,7 @@
 
 package io.github.clearwsd.parser;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -38,4 +39,42 @@ public class WhitespaceTokenizer implements NlpTokenizer {
     public List<String> tokenize(String sentence) {
         return Arrays.asList(sentence.split("\\s+"));
     }
+
+    @Override
+    public List<TokenizedSentence> segmentTokens(String input) {
+        List<TokenizedSentence> results = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        int[] begins = new int[16];
+        int[] ends = new int[16];
+        int begin = -1;
+        for (int i = 0; i <= input.length(); ++i) {
+            char c = i < input.length() ? input.charAt(i) : '\n';
+            if (!isWhitespace(c)) {
+                if (begin < 0) {
+                    begin = i;
+                }
+                continue;
+            }
+            if (begin >= 0) {
+                if (tokens.size() == begins.length) {
+                    begins = Arrays.copyOf(begins, begins.length * 2);
+                    ends = Arrays.copyOf(ends, ends.length * 2);
+                }
+                begins[tokens.size()] = begin;
+                ends[tokens.size()] = i;
+                tokens.add(input.substring(begin, i));
+                begin = -1;
+            }
+            if (c == '\n' && tokens.size() > 0) {
+                results.add(new TokenizedSentence(tokens, Arrays.copyOf(begins, tokens.size()),
+                        Arrays.copyOf(ends, tokens.size())));
+                tokens = new ArrayList<>();
+            }
+        }
+        return results;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
 }
@@ -0,0 +1,472 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.type;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Compact {@link DepTree} implementation backed by parallel arrays instead of one object graph per token. Heads are stored as an
+ * index array, text, lemma, part-of-speech and dependency label columns as IDs in a {@link SymbolTable} shared across trees,
+ * children in compressed sparse row form, and the depth of each token is precomputed. Tokens are exposed as lightweight
+ * {@link DepNode} views, created on first access.
+ * <p>
+ * Features other than the four string columns (such as senses added during annotation) are stored in per-token maps allocated
+ * only for tokens that have them. Token {@link DepNode#features() feature maps} are views supporting lookups and additions.
+ *
+ * @author jamesgung
+ */
+@Accessors(fluent = true)
+public class ArrayDepTree implements DepTree {
+
+    private static final FeatureType[] COLUMNS = {FeatureType.Text, FeatureType.Lemma, FeatureType.Pos, FeatureType.Dep};
+    private static final Map<String, Integer> COLUMN_INDICES = new HashMap<>();
+
+    static {
+        for (int i = 0; i < COLUMNS.length; ++i) {
+            COLUMN_INDICES.put(COLUMNS[i].name(), i);
+        }
+    }
+
+    @Getter
+    @Setter
+    private int index;
+    @Getter
+    private final SymbolTable symbols;
+    private final int[][] columns;
+    private final int[] heads;
+    private final int[] childOffsets;
+    private final int[] children;
+    private final int[] depths;
+    private final int root;
+
+    @Getter
+    private final Map<String, Object> features = new HashMap<>();
+    private Map<String, Object>[] extra;
+    private DepNode[] nodes;
+
+    /**
+     * Initialize a tree from a head array and string columns.
+     *
+     * @param index   tree index
+     * @param symbols symbol table used to encode string columns
+     * @param heads   index of the head of each token, or -1 for the root
+     * @param text    text of each token
+     * @param lemma   lemma of each token, or null
+     * @param pos     part-of-speech tag of each token, or null
+     * @param dep     dependency label of each token, or null
+     */
+    public ArrayDepTree(int index, SymbolTable symbols, int[] heads, String[] text, String[] lemma, String[] pos, String[] dep) {
+        this.index = index;
+        this.symbols = symbols;
+        this.heads = heads;
+        this.columns = new int[COLUMNS.length][];
+        String[][] values = {text, lemma, pos, dep};
+        for (int column = 0; column < COLUMNS.length; ++column) {
+            columns[column] = new int[heads.length];
+            Arrays.fill(columns[column], -1);
+            for (int i = 0; values[column] != null && i < heads.length; ++i) {
+                if (values[column][i] != null) {
+                    addFeature(i, COLUMNS[column].name(), values[column][i]);
+                }
+            }
+        }
+
+        int root = -1;
+        childOffsets = new int[heads.length + 1];
+        for (int i = 0; i < heads.length; ++i) {
+            if (heads[i] < 0) {
+                root = root < 0 ? i : root;
+            } else {
+                if (heads[i] >= heads.length) {
+                    throw new IllegalArgumentException("Invalid head " + heads[i] + " for token " + i);
+                }
+                ++childOffsets[heads[i] + 1];
+            }
+        }
+        this.root = root;
+        for (int i = 0; i < heads.length; ++i) {
+            childOffsets[i + 1] += childOffsets[i];
+        }
+        children = new int[childOffsets[heads.length]];
+        int[] next = new int[heads.length];
+        for (int i = 0; i < heads.length; ++i) {
+            if (heads[i] >= 0) {
+                children[childOffsets[heads[i]] + next[heads[i]]++] = i;
+            }
+        }
+
+        depths = new int[heads.length];
+        for (int i = 0; i < heads.length; ++i) {
+            int depth = 0;
+            for (int current = i; heads[current] >= 0; current = heads[current]) {
+                if (++depth > heads.length) {
+                    throw new IllegalArgumentException("Cycle in dependency tree at token " + i);
+                }
+            }
+            depths[i] = depth;
+        }
+    }
+
+    /**
+     * Create a compact copy of a given dependency tree, including all tree and token features.
+     *
+     * @param tree    dependency tree
+     * @param symbols symbol table used to encode string columns
+     * @return compact tree
+     */
+    public static ArrayDepTree copyOf(DepTree tree, SymbolTable symbols) {
+        int size = tree.size();
+        int[] heads = new int[size];
+        String[][] values = new String[COLUMNS.length][size];
+        for (int i = 0; i < size; ++i) {
+            DepNode node = tree.get(i);
+            heads[i] = node.isRoot() ? -1 : node.head().index();
+            for (int column = 0; column < COLUMNS.length; ++column) {
+                Object value = node.feature(COLUMNS[column]);
+                values[column][i] = value instanceof String ? (String) value : null;
+            }
+        }
+        ArrayDepTree result = new ArrayDepTree(tree.index(), symbols, heads, values[0], values[1], values[2], values[3]);
+        for (int i = 0; i < size; ++i) {
+            for (Map.Entry<String, Object> feature : tree.get(i).features().entrySet()) {
+                Integer column = COLUMN_INDICES.get(feature.getKey());
+                if (column == null || !(feature.getValue() instanceof String)) {
+                    result.addFeature(i, feature.getKey(), feature.getValue());
+                }
+            }
+        }
+        result.features.putAll(tree.features());
+        return result;
+    }
+
+    /**
+     * Return the index of the head of a given token, or -1 if the token is the root.
+     *
+     * @param token token index
+     */
+    public int head(int token) {
+        return heads[token];
+    }
+
+    /**
+     * Return the depth of a given token, the number of arcs between it and the root.
+     *
+     * @param token token index
+     */
+    public int depth(int token) {
+        return depths[token];
+    }
+
+    /**
+     * Return the lowercased text of a given token. Lowercased forms are computed once per distinct symbol, rather than per token.
+     *
+     * @param token token index
+     * @return lowercased text, or null if the token has no text
+     */
+    public String lowercaseText(int token) {
+        int id = columns[COLUMN_INDICES.get(FeatureType.Text.name())][token];
+        if (id < 0) {
+            String text = feature(token, FeatureType.Text.name());
+            return text == null ? null : text.toLowerCase();
+        }
+        int lowercase = symbols.lowercase(id);
+        return lowercase < 0 ? symbols.symbol(id).toLowerCase() : symbols.symbol(lowercase);
+    }
+
+    /**
+     * Return a feature of a given token.
+     *
+     * @param token token index
+     * @param key   feature key
+     * @param <T>   feature value type
+     * @return feature value, or null if not present
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T feature(int token, String key) {
+        Integer column = COLUMN_INDICES.get(key);
+        if (column != null) {
+            int id = columns[column][token];
+            if (id >= 0) {
+                return (T) symbols.symbol(id);
+            }
+        }
+        if (extra == null || extra[token] == null) {
+            return null;
+        }
+        return (T) extra[token].get(key);
+    }
+
+    /**
+     * Add a feature to a given token. String values for text, lemma, part-of-speech and dependency label features are stored in
+     * the corresponding column, unless the symbol table is full.
+     *
+     * @param token token index
+     * @param key   feature key
+     * @param value feature value
+     */
+    @SuppressWarnings("unchecked")
+    public void addFeature(int token, String key, Object value) {
+        Integer column = COLUMN_INDICES.get(key);
+        int id = column != null && value instanceof String ? symbols.id((String) value) : -1;
+        if (column != null && (value == null || id >= 0)) {
+            columns[column][token] = id;
+            if (extra != null && extra[token] != null) {
+                extra[token].remove(key);
+            }
+            return;
+        }
+        if (extra == null) {
+            extra = new Map[heads.length];
+        }
+        if (extra[token] == null) {
+            extra[token] = new HashMap<>(4);
+        }
+        if (column != null) {
+            columns[column][token] = -1;
+        }
+        extra[token].put(key, value);
+    }
+
+    @Override
+    public DepNode root() {
+        return root < 0 ? null : get(root);
+    }
+
+    @Override
+    public List<DepNode> tokens() {
+        return new AbstractList<DepNode>() {
+            @Override
+            public DepNode get(int index) {
+                return ArrayDepTree.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return heads.length;
+            }
+        };
+    }
+
+    @Override
+    public DepNode get(int index) {
+        if (nodes == null) {
+            nodes = new DepNode[heads.length];
+        }
+        DepNode node = nodes[index];
+        if (node == null) {
+            node = new Node(index);
+            nodes[index] = node;
+        }
+        return node;
+    }
+
+    @Override
+    public int size() {
+        return heads.length;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<DepNode> iterator() {
+        return tokens().iterator();
+    }
+
+    @Override
+    public <T> T feature(FeatureType featureType) {
+        return feature(featureType.name());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T feature(String feature) {
+        return (T) features.get(feature);
+    }
+
+    @Override
+    public <T> void addFeature(FeatureType featureType, T value) {
+        features.put(featureType.name(), value);
+    }
+
+    @Override
+    public <T> void addFeature(String featureKey, T value) {
+        features.put(featureKey, value);
+    }
+
+    @Override
+    public String toString() {
+        return tokens().stream()
+                .map(Object::toString)
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Lightweight view of a single token.
+     */
+    private class Node implements DepNode {
+
+        private final int index;
+
+        Node(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public boolean isRoot() {
+            return heads[index] < 0;
+        }
+
+        @Override
+        public String dep() {
+            return feature(FeatureType.Dep);
+        }
+
+        @Override
+        public DepNode head() {
+            return heads[index] < 0 ? null : get(heads[index]);
+        }
+
+        @Override
+        public List<DepNode> children() {
+            int start = childOffsets[index];
+            int end = childOffsets[index + 1];
+            return new AbstractList<DepNode>() {
+                @Override
+                public DepNode get(int child) {
+                    return ArrayDepTree.this.get(children[start + child]);
+                }
+
+                @Override
+                public int size() {
+                    return end - start;
+                }
+            };
+        }
+
+        @Override
+        public Map<String, Object> features() {
+            return new TokenFeatures(index);
+        }
+
+        @Override
+        public <T> T feature(FeatureType featureType) {
+            return ArrayDepTree.this.feature(index, featureType.name());
+        }
+
+        @Override
+        public <T> T feature(String feature) {
+            return ArrayDepTree.this.feature(index, feature);
+        }
+
+        @Override
+        public <T> void addFeature(FeatureType featureType, T value) {
+            ArrayDepTree.this.addFeature(index, featureType.name(), value);
+        }
+
+        @Override
+        public <T> void addFeature(String featureKey, T value) {
+            ArrayDepTree.this.addFeature(index, featureKey, value);
+        }
+
+        @Override
+        public String toString() {
+            return index + "\t" + features().entrySet().stream()
+                    .sorted(Comparator.comparing(Map.Entry::getKey))
+                    .map((e) -> e.getKey() + ":" + e.getValue())
+                    .collect(Collectors.joining("\t"));
+        }
+    }
+
+    /**
+     * Map view over the features of a single token.
+     */
+    private class TokenFeatures extends AbstractMap<String, Object> {
+
+        private final int token;
+
+        TokenFeatures(int token) {
+            this.token = token;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? feature(token, (String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            Object previous = feature(token, key);
+            addFeature(token, key, value);
+            return previous;
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            List<Entry<String, Object>> entries = new ArrayList<>();
+            for (int column = 0; column < COLUMNS.length; ++column) {
+                int id = columns[column][token];
+                if (id >= 0) {
+                    entries.add(new SimpleImmutableEntry<>(COLUMNS[column].name(), symbols.symbol(id)));
+                }
+            }
+            if (extra != null && extra[token] != null) {
+                for (Entry<String, Object> entry : extra[token].entrySet()) {
+                    entries.add(new SimpleImmutableEntry<>(entry));
+                }
+            }
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return entries.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
+        }
+    }
+
+}
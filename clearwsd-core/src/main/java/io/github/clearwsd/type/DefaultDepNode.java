@@ -72,6 +72,10 @@ public class DefaultDepNode implements DepNode {
         return nlpToken.feature(featureType);
     }
 
+    @Override
+    public <T> T feature(int slot) {
+        return nlpToken.feature(slot);
+    }
 
     @Override
     public <T> T feature(String feature) {
@@ -88,6 +92,11 @@ public class DefaultDepNode implements DepNode {
         nlpToken.addFeature(featureKey, value);
     }
 
+    @Override
+    public <T> void addFeature(int slot, T value) {
+        nlpToken.addFeature(slot, value);
+    }
+
     @Override
     public boolean isRoot() {
         return null == head;
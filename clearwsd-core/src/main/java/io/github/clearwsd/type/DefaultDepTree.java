@@ -41,4 +41,10 @@ public class DefaultDepTree extends DefaultNlpSequence<DepNode> implements DepTr
         this.root = root;
     }
 
+    @Override
+    public DefaultDepTree index(int index) {
+        super.index(index);
+        return this;
+    }
+
 }
@@ -16,62 +16,181 @@
 
 package io.github.clearwsd.type;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import io.github.clearwsd.type.FeatureType;
-import io.github.clearwsd.type.NlpInstance;
+import javax.annotation.Nonnull;
+
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
 /**
- * Default {@link NlpInstance} implementation.
+ * Default {@link NlpInstance} implementation. Features with keys registered in {@link FeatureSlots}, including all
+ * {@link FeatureType FeatureTypes}, are stored in an array indexed by slot, while other features are stored in a map. The
+ * {@link #features()} map is a view over both.
  *
  * @author jamesgung
  */
-@Getter
 @Accessors(fluent = true)
 public class DefaultNlpInstance implements NlpInstance {
 
+    private static final Object[] EMPTY = new Object[0];
+
+    @Getter
     @Setter
     private int index;
-    private Map<String, Object> features;
+    private Object[] slots = EMPTY;
+    private Map<String, Object> other;
 
     public DefaultNlpInstance(int index) {
         this.index = index;
-        this.features = new HashMap<>();
+    }
+
+    @Override
+    public Map<String, Object> features() {
+        return new Features();
     }
 
     @Override
     public <T> T feature(FeatureType featureType) {
-        //noinspection unchecked
-        return (T) features.get(featureType.name());
+        return feature(featureType.ordinal());
     }
 
     @Override
     public <T> T feature(String feature) {
+        int slot = FeatureSlots.slot(feature);
+        if (slot >= 0) {
+            return feature(slot);
+        }
         //noinspection unchecked
-        return (T) features.get(feature);
+        return other == null ? null : (T) other.get(feature);
+    }
+
+    @Override
+    public <T> T feature(int slot) {
+        Object value = slot < slots.length ? slots[slot] : null;
+        if (value == null && other != null) {
+            // added by key before its slot was registered
+            value = other.get(FeatureSlots.key(slot));
+        }
+        //noinspection unchecked
+        return (T) value;
     }
 
     @Override
     public <T> void addFeature(FeatureType featureType, T value) {
-        features.put(featureType.name(), value);
+        addFeature(featureType.ordinal(), value);
     }
 
     @Override
     public <T> void addFeature(String featureKey, T value) {
-        features.put(featureKey, value);
+        int slot = FeatureSlots.slot(featureKey);
+        if (slot >= 0) {
+            addFeature(slot, value);
+            return;
+        }
+        if (other == null) {
+            other = new HashMap<>(4);
+        }
+        other.put(featureKey, value);
+    }
+
+    @Override
+    public <T> void addFeature(int slot, T value) {
+        if (slot >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(slot + 1, FeatureSlots.size()));
+        }
+        slots[slot] = value;
+        if (other != null) {
+            other.remove(FeatureSlots.key(slot));
+        }
     }
 
     @Override
     public String toString() {
-        return index + "\t" + features.entrySet().stream()
+        return index + "\t" + features().entrySet().stream()
                 .sorted(Comparator.comparing(Map.Entry::getKey))
                 .map((e) -> e.getKey() + ":" + e.getValue())
                 .collect(Collectors.joining("\t"));
     }
+
+    /**
+     * Map view over slotted and other features.
+     */
+    private class Features extends AbstractMap<String, Object> {
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? feature((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            Object previous = feature(key);
+            addFeature(key, value);
+            return previous;
+        }
+
+        @Override
+        public Object remove(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            Object previous = feature((String) key);
+            int slot = FeatureSlots.slot((String) key);
+            if (slot >= 0) {
+                if (slot < slots.length) {
+                    slots[slot] = null;
+                }
+            }
+            if (other != null) {
+                other.remove(key);
+            }
+            return previous;
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            List<Entry<String, Object>> entries = new ArrayList<>();
+            for (int slot = 0; slot < slots.length; ++slot) {
+                if (slots[slot] != null) {
+                    entries.add(new SimpleImmutableEntry<>(FeatureSlots.key(slot), slots[slot]));
+                }
+            }
+            if (other != null) {
+                for (Entry<String, Object> entry : other.entrySet()) {
+                    entries.add(new SimpleImmutableEntry<>(entry));
+                }
+            }
+            return new AbstractSet<Entry<String, Object>>() {
+                @Nonnull
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return entries.iterator();
+                }
+
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
+        }
+    }
+
 }
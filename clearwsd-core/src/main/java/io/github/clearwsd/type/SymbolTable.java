@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.type;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Threadsafe, append-only dictionary assigning consecutive integer IDs to strings, used to store string columns of many
+ * {@link ArrayDepTree ArrayDepTrees} compactly, and to share a single copy of repeated token features such as word forms, lemmas
+ * and part-of-speech tags across a corpus. Lookups by ID are lock-free; new symbols are added under a lock.
+ * <p>
+ * A symbol table may be bounded by a maximum number of symbols, for use in long-running services. Once full, no new symbols are
+ * added: {@link #id(String)} returns -1 and {@link #intern(String)} returns its input unchanged.
+ *
+ * @author jamesgung
+ */
+public class SymbolTable {
+
+    /**
+     * Maximum number of symbols in the {@link #shared() shared} symbol table.
+     */
+    public static final int SHARED_CAPACITY = 1 << 21;
+
+    private static final SymbolTable SHARED = new SymbolTable(SHARED_CAPACITY);
+    private static final int UNKNOWN = -2;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final int capacity;
+    private volatile String[] symbols = new String[1024];
+    // ID of the lowercased form of each symbol, or UNKNOWN if not yet computed
+    private volatile int[] lowercase = newLowercase(1024);
+    private int size;
+
+    /**
+     * Initialize a symbol table with a maximum number of symbols.
+     *
+     * @param capacity maximum number of symbols
+     */
+    public SymbolTable(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "Symbol table capacity must be positive, got %s", capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Initialize an unbounded symbol table.
+     */
+    public SymbolTable() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Return the bounded symbol table shared by readers and parsers by default.
+     */
+    public static SymbolTable shared() {
+        return SHARED;
+    }
+
+    /**
+     * Return the ID for a given symbol, adding it if not already present.
+     *
+     * @param symbol symbol string
+     * @return symbol ID, or -1 if the symbol is not present and this table is full
+     */
+    public int id(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        if (ids.size() >= capacity) {
+            // full, avoid taking the lock
+            return -1;
+        }
+        synchronized (this) {
+            id = ids.get(symbol);
+            if (id == null) {
+                if (size == capacity) {
+                    return -1;
+                }
+                String[] current = symbols;
+                if (size == current.length) {
+                    int length = (int) Math.min((long) current.length * 2, capacity);
+                    current = Arrays.copyOf(current, length);
+                    int[] currentLowercase = Arrays.copyOf(lowercase, length);
+                    Arrays.fill(currentLowercase, size, length, UNKNOWN);
+                    lowercase = currentLowercase;
+                }
+                current[size] = symbol;
+                symbols = current;
+                id = size++;
+                ids.put(symbol, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Return the ID for a given symbol without adding it.
+     *
+     * @param symbol symbol string
+     * @return symbol ID, or -1 if the symbol is not present
+     */
+    public int find(String symbol) {
+        Integer id = ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Return the symbol for a given ID.
+     *
+     * @param id symbol ID
+     * @return symbol string
+     */
+    public String symbol(int id) {
+        return symbols[id];
+    }
+
+    /**
+     * Return a canonical instance of a given string, so that equal strings read from different tokens share a single copy.
+     *
+     * @param symbol symbol string, possibly null
+     * @return canonical symbol, or the input itself if null or this table is full
+     */
+    public String intern(String symbol) {
+        if (symbol == null) {
+            return null;
+        }
+        int id = id(symbol);
+        return id < 0 ? symbol : symbols[id];
+    }
+
+    /**
+     * Return the ID of the lowercased form of the symbol with a given ID. Lowercased forms are computed once per symbol.
+     *
+     * @param id symbol ID
+     * @return ID of lowercased symbol, or -1 if it is not present and this table is full
+     */
+    public int lowercase(int id) {
+        int result = lowercase[id];
+        if (result == UNKNOWN) {
+            String symbol = symbols[id];
+            String lower = symbol.toLowerCase();
+            result = lower.equals(symbol) ? id : id(lower);
+            if (result >= 0) {
+                synchronized (this) {
+                    lowercase[id] = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return the lowercased form of a given string, computing it only once for strings already in this table. Strings not in
+     * this table are lowercased directly, and are not added, so that arbitrary inputs cannot fill the table.
+     *
+     * @param symbol symbol string
+     * @return lowercased symbol
+     */
+    public String lowercase(String symbol) {
+        int id = find(symbol);
+        if (id < 0) {
+            return symbol.toLowerCase();
+        }
+        int lower = lowercase(id);
+        return lower < 0 ? symbol.toLowerCase() : symbols[lower];
+    }
+
+    /**
+     * Number of symbols in this table.
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Maximum number of symbols in this table.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    private static int[] newLowercase(int length) {
+        int[] result = new int[length];
+        Arrays.fill(result, UNKNOWN);
+        return result;
+    }
+
+}
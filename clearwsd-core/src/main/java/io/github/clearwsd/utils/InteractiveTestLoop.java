@@ -25,6 +25,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.parser.TokenizedSentence;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
 import lombok.AllArgsConstructor;
@@ -53,8 +54,8 @@ public class InteractiveTestLoop {
                     break;
                 }
                 System.out.println();
-                for (String sentence : dependencyParser.segment(line)) {
-                    DepTree tree = dependencyParser.parse(dependencyParser.tokenize(sentence));
+                for (TokenizedSentence sentence : dependencyParser.segmentTokens(line)) {
+                    DepTree tree = dependencyParser.parse(sentence.tokens());
                     System.out.println(formatter.apply(tree));
                     System.out.println();
                 }
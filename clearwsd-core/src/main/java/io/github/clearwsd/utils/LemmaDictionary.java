@@ -16,11 +16,15 @@
 
 package io.github.clearwsd.utils;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+import io.github.clearwsd.classifier.ModelFile;
 import io.github.clearwsd.type.FeatureType;
 import io.github.clearwsd.type.NlpInstance;
 import lombok.AllArgsConstructor;
@@ -59,6 +63,49 @@ public class LemmaDictionary implements Function<NlpInstance, String>, Serializa
         return mappings.getOrDefault(key, lemma);
     }
 
+    /**
+     * Write this dictionary in an explicit binary form (see {@link ModelFile}).
+     *
+     * @param out output stream
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeBoolean(train);
+        out.writeInt(mappings.size());
+        for (Map.Entry<LemmaKey, String> entry : mappings.entrySet()) {
+            writeNullable(out, entry.getKey().form);
+            writeNullable(out, entry.getKey().pos);
+            writeNullable(out, entry.getValue());
+        }
+    }
+
+    /**
+     * Read a dictionary written by {@link #write(DataOutputStream)}.
+     *
+     * @param buffer input buffer
+     * @return lemma dictionary
+     */
+    public static LemmaDictionary read(ByteBuffer buffer) {
+        LemmaDictionary dictionary = new LemmaDictionary();
+        dictionary.train = buffer.get() != 0;
+        int size = buffer.getInt();
+        for (int i = 0; i < size; ++i) {
+            LemmaKey key = new LemmaKey(readNullable(buffer), readNullable(buffer));
+            dictionary.mappings.put(key, readNullable(buffer));
+        }
+        return dictionary;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            ModelFile.writeString(out, value);
+        }
+    }
+
+    private static String readNullable(ByteBuffer buffer) {
+        return buffer.get() != 0 ? ModelFile.readString(buffer) : null;
+    }
+
     @Data
     @Accessors(fluent = true)
     @AllArgsConstructor
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.utils;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Utilities for parallel processing of large or unbounded inputs.
+ *
+ * @author jamesgung
+ */
+public final class ParallelUtils {
+
+    private ParallelUtils() {
+        throw new AssertionError("Utility class, should never be instantiated.");
+    }
+
+    /**
+     * Apply a function to each input in parallel, passing results to a consumer in input order. At most {@code window} inputs
+     * are read ahead of the oldest result not yet consumed, so memory usage is bounded regardless of the number of inputs.
+     * The consumer is called from the calling thread.
+     *
+     * @param inputs   input iterator, only accessed from the calling thread
+     * @param function function applied to each input, in parallel
+     * @param consumer consumer of results, called in input order
+     * @param executor executor used to apply the function, not shut down
+     * @param window   maximum number of pending results
+     * @param <I>      input type
+     * @param <O>      output type
+     */
+    public static <I, O> void forEachOrdered(Iterator<I> inputs, Function<I, O> function, Consumer<O> consumer,
+                                             ExecutorService executor, int window) {
+        Preconditions.checkArgument(window > 0, "Window size must be positive, got %s", window);
+        Deque<Future<O>> pending = new ArrayDeque<>(window);
+        try {
+            while (inputs.hasNext()) {
+                if (pending.size() >= window) {
+                    consumer.accept(pending.removeFirst().get());
+                }
+                I input = inputs.next();
+                pending.addLast(executor.submit(() -> function.apply(input)));
+            }
+            while (!pending.isEmpty()) {
+                consumer.accept(pending.removeFirst().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for results.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error while processing input: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Lazily apply a function to each input in parallel, returning an iterator over results in input order. As with
+     * {@link #forEachOrdered(Iterator, Function, Consumer, ExecutorService, int)}, at most {@code window} inputs are read ahead
+     * of the next result. Inputs are only read when the returned iterator is advanced.
+     *
+     * @param inputs   input iterator, only accessed from the thread consuming results
+     * @param function function applied to each input, in parallel
+     * @param executor executor used to apply the function, not shut down
+     * @param window   maximum number of pending results
+     * @param <I>      input type
+     * @param <O>      output type
+     * @return iterator over results in input order
+     */
+    public static <I, O> Iterator<O> orderedIterator(Iterator<I> inputs, Function<I, O> function, ExecutorService executor,
+                                                     int window) {
+        Preconditions.checkArgument(window > 0, "Window size must be positive, got %s", window);
+        Deque<Future<O>> pending = new ArrayDeque<>(window);
+        return new AbstractIterator<O>() {
+            @Override
+            protected O computeNext() {
+                while (pending.size() < window && inputs.hasNext()) {
+                    I input = inputs.next();
+                    pending.addLast(executor.submit(() -> function.apply(input)));
+                }
+                if (pending.isEmpty()) {
+                    return endOfData();
+                }
+                try {
+                    return pending.removeFirst().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    pending.forEach(future -> future.cancel(true));
+                    throw new RuntimeException("Interrupted while waiting for results.", e);
+                } catch (ExecutionException e) {
+                    pending.forEach(future -> future.cancel(true));
+                    throw new RuntimeException("Error while processing input: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+        };
+    }
+
+}
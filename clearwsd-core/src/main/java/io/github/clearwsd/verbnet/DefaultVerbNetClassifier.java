@@ -16,6 +16,7 @@
 
 package io.github.clearwsd.verbnet;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
@@ -36,6 +37,7 @@ import java.util.function.Supplier;
 
 import io.github.clearwsd.classifier.Classifier;
 import io.github.clearwsd.classifier.Hyperparameter;
+import io.github.clearwsd.classifier.LabelScores;
 import io.github.clearwsd.classifier.MultiClassifier;
 import io.github.clearwsd.classifier.PaClassifier;
 import io.github.clearwsd.classifier.SparseClassifier;
@@ -52,9 +54,10 @@ import io.github.clearwsd.feature.extractor.string.LowercaseFunction;
 import io.github.clearwsd.feature.function.AggregateFeatureFunction;
 import io.github.clearwsd.feature.function.FeatureFunction;
 import io.github.clearwsd.feature.pipeline.AnnotatingClassifier;
-import io.github.clearwsd.feature.pipeline.DefaultFeaturePipeline;
 import io.github.clearwsd.feature.pipeline.FeaturePipeline;
+import io.github.clearwsd.feature.pipeline.HashingFeaturePipeline;
 import io.github.clearwsd.feature.pipeline.NlpClassifier;
+import io.github.clearwsd.feature.pipeline.TemplateFeaturePipeline;
 import io.github.clearwsd.feature.resource.BrownClusterResourceInitializer;
 import io.github.clearwsd.feature.resource.DefaultFeatureResourceManager;
 import io.github.clearwsd.feature.resource.DefaultTsvResourceInitializer;
@@ -108,9 +111,11 @@ public class DefaultVerbNetClassifier implements Classifier<NlpFocus<DepNode, De
     private Set<String> includedRels = Sets.newHashSet("dobj");
     private Set<String> excludedRels = Sets.newHashSet("punct");
     private Set<Integer> offsets = Sets.newHashSet(-2, -1, 0, 1, 2);
+    private int hashBits;
 
     private AnnotatingClassifier<NlpFocus<DepNode, DepTree>> classifier;
     private FeatureResourceManager resources;
+    private transient MultiClassifier<NlpFocus<DepNode, DepTree>, String> multiClassifier;
 
     public DefaultVerbNetClassifier() {
         resources = initializeResources();
@@ -119,9 +124,34 @@ public class DefaultVerbNetClassifier implements Classifier<NlpFocus<DepNode, De
         classifier.initialize(resources);
     }
 
+    /**
+     * Set the number of threads used to train per-predicate models.
+     *
+     * @param threads number of training threads
+     * @return this classifier
+     */
+    public DefaultVerbNetClassifier threads(int threads) {
+        Preconditions.checkState(multiClassifier != null, "Training threads can only be set on a new classifier.");
+        multiClassifier.threads(threads);
+        return this;
+    }
+
+    /**
+     * Map features of per-predicate models to 2^bits indices by signed feature hashing, rather than storing a feature vocabulary
+     * for each model. Models are smaller and faster to train, at the cost of some accuracy from colliding features.
+     *
+     * @param bits number of hash bits
+     * @return this classifier
+     */
+    public DefaultVerbNetClassifier hashBits(int bits) {
+        Preconditions.checkState(multiClassifier != null, "Feature hashing can only be set on a new classifier.");
+        Preconditions.checkArgument(bits > 0 && bits < 31, "Number of hash bits must be between 1 and 30, got %s", bits);
+        this.hashBits = bits;
+        return this;
+    }
+
     private AnnotatingClassifier<NlpFocus<DepNode, DepTree>> initialize() {
-        MultiClassifier<NlpFocus<DepNode, DepTree>, String> multiClassifier
-                = new MultiClassifier<>((Serializable & Function<NlpFocus<DepNode, DepTree>, String>)
+        multiClassifier = new MultiClassifier<>((Serializable & Function<NlpFocus<DepNode, DepTree>, String>)
                 (i) -> i.focus().feature(FeatureType.Predicate),
                 (Serializable & Supplier<Classifier<NlpFocus<DepNode, DepTree>, String>>)
                         () -> new NlpClassifier<>(initializeClassifier(), initializeFeatures()));
@@ -138,6 +168,16 @@ public class DefaultVerbNetClassifier implements Classifier<NlpFocus<DepNode, De
         return classifier.score(instance);
     }
 
+    @Override
+    public void score(NlpFocus<DepNode, DepTree> instance, LabelScores scores) {
+        classifier.score(instance, scores);
+    }
+
+    @Override
+    public void score(NlpFocus<DepNode, DepTree> instance, LabelScores scores, Set<String> candidates) {
+        classifier.score(instance, scores, candidates);
+    }
+
     @Override
     public void train(List<NlpFocus<DepNode, DepTree>> train, List<NlpFocus<DepNode, DepTree>> valid) {
         classifier.train(train, valid);
@@ -227,7 +267,10 @@ public class DefaultVerbNetClassifier implements Classifier<NlpFocus<DepNode, De
                 function(head(), Arrays.asList(dep, lemma, pos)),
                 bias());
 
-        return new DefaultFeaturePipeline<>(new AggregateFeatureFunction<>(features));
+        if (hashBits > 0) {
+            return new HashingFeaturePipeline<>(new AggregateFeatureFunction<>(features), hashBits).signed(true);
+        }
+        return new TemplateFeaturePipeline<>(new AggregateFeatureFunction<>(features));
     }
 
     private SparseClassifier initializeClassifier() {
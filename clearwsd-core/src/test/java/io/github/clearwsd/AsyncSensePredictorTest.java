@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.github.clearwsd.AsyncSensePredictor.RejectionPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link AsyncSensePredictor} tests.
+ *
+ * @author jamesgung
+ */
+public class AsyncSensePredictorTest {
+
+    private static List<SensePrediction<String>> predict(List<String> sentence) {
+        List<SensePrediction<String>> predictions = new ArrayList<>();
+        for (int i = 0; i < sentence.size(); ++i) {
+            predictions.add(new DefaultSensePrediction<>(i, sentence.get(i), sentence.get(i) + ".01", null));
+        }
+        return predictions;
+    }
+
+    @Test
+    public void testBatchOrder() {
+        List<List<String>> sentences = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            sentences.add(Arrays.asList("word" + i, "other" + i));
+        }
+        try (AsyncSensePredictor<String> predictor = new AsyncSensePredictor<>(AsyncSensePredictorTest::predict, 4)) {
+            List<List<SensePrediction<String>>> results = predictor.predictBatch(sentences);
+            assertEquals(100, results.size());
+            for (int i = 0; i < results.size(); ++i) {
+                assertEquals("word" + i + ".01", results.get(i).get(0).id());
+            }
+            assertEquals(0, predictor.inFlight());
+        }
+    }
+
+    @Test
+    public void testAbortWhenQueueFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SensePredictor<String> blocking = sentence -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return predict(sentence);
+        };
+        try (AsyncSensePredictor<String> predictor = new AsyncSensePredictor<>(blocking, 1, 1, RejectionPolicy.Abort)) {
+            List<String> sentence = Collections.singletonList("word");
+            CompletableFuture<List<SensePrediction<String>>> running = predictor.predictAsync(sentence);
+            started.await();
+            CompletableFuture<List<SensePrediction<String>>> queued = predictor.predictAsync(sentence);
+            CompletableFuture<List<SensePrediction<String>>> rejected = predictor.predictAsync(sentence);
+            assertEquals(1, predictor.queueDepth());
+            assertEquals(2, predictor.inFlight());
+            assertEquals(1, predictor.rejected());
+            try {
+                rejected.join();
+                fail("Expected rejection when queue is full.");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+            release.countDown();
+            assertEquals(1, running.join().size());
+            assertEquals(1, queued.join().size());
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.clearwsd.feature.annotator.Annotator;
+import io.github.clearwsd.parser.CachingNlpParser;
+import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.parser.PooledNlpParser;
+import io.github.clearwsd.parser.WhitespaceTokenizer;
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.utils.CountingSenseInventory;
+import io.github.clearwsd.utils.SenseInventory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link DefaultSensePredictor} batch prediction tests.
+ *
+ * @author jamesgung
+ */
+public class DefaultSensePredictorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Slow flat parser, recording how many sentences are parsed concurrently.
+     */
+    private class SlowParser extends WhitespaceTokenizer implements NlpParser {
+
+        @Override
+        public DepTree parse(List<String> tokens) {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            threads.add(Thread.currentThread().getName());
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                active.decrementAndGet();
+            }
+            List<DepNode> nodes = new ArrayList<>();
+            for (String token : tokens) {
+                DefaultDepNode node = new DefaultDepNode(nodes.size());
+                node.addFeature(FeatureType.Text, token);
+                nodes.add(node);
+            }
+            return new DefaultDepTree(0, nodes, nodes.get(0));
+        }
+    }
+
+    /**
+     * Annotator assigning a sense to the first token of each sentence.
+     */
+    private static class FirstTokenAnnotator implements Annotator<DepTree> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public DepTree annotate(DepTree instance) {
+            instance.get(0).addFeature(FeatureType.Sense, instance.get(0).feature(FeatureType.Text) + ".01");
+            return instance;
+        }
+
+        @Override
+        public boolean initialized() {
+            return true;
+        }
+    }
+
+    private DefaultSensePredictor<String> predictor(NlpParser parser) {
+        return new DefaultSensePredictor<String>(new WordSenseAnnotator(null, new FirstTokenAnnotator()), parser) {
+            @Override
+            public SenseInventory<String> senseInventory() {
+                return new CountingSenseInventory();
+            }
+        };
+    }
+
+    private static List<List<String>> sentences(int count) {
+        List<List<String>> sentences = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            sentences.add(Arrays.asList("word" + i, "other"));
+        }
+        return sentences;
+    }
+
+    @Test
+    public void testPredictBatchOrder() {
+        try (DefaultSensePredictor<String> predictor = predictor(new PooledNlpParser(SlowParser::new, 4))) {
+            List<List<SensePrediction<String>>> results = predictor.predictBatch(sentences(50));
+            assertEquals(50, results.size());
+            for (int i = 0; i < results.size(); ++i) {
+                assertEquals(1, results.get(i).size());
+                assertEquals("word" + i + ".01", results.get(i).get(0).id());
+            }
+        }
+    }
+
+    @Test
+    public void testParseBatchInParallelThroughCache() throws Exception {
+        NlpParser parser = new CachingNlpParser(new PooledNlpParser(SlowParser::new, 4), folder.newFolder().toPath(), 1 << 20);
+        // ignore parallel warmup
+        maxActive.set(0);
+        threads.clear();
+        try (DefaultSensePredictor<String> predictor = predictor(parser)) {
+            List<List<String>> sentences = sentences(16);
+            List<DepTree> trees = predictor.parseBatch(sentences);
+            for (int i = 0; i < trees.size(); ++i) {
+                assertEquals("word" + i, trees.get(i).get(0).feature(FeatureType.Text));
+            }
+            assertTrue(maxActive.get() > 1);
+            assertTrue(threads.stream().anyMatch(name -> name.startsWith("pooled-parser")));
+
+            // cached sentences are not parsed again, and keep their position among uncached sentences
+            sentences.add(3, Arrays.asList("new", "sentence"));
+            trees = predictor.parseBatch(sentences);
+            assertEquals(17, trees.size());
+            assertEquals("new", trees.get(3).get(0).feature(FeatureType.Text));
+            assertEquals("word3", trees.get(4).get(0).feature(FeatureType.Text));
+            assertEquals(16, ((CachingNlpParser) parser).hits());
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.app;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import io.github.clearwsd.WordSenseAnnotator;
+import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.parser.WhitespaceTokenizer;
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link WordSenseCLI} streaming tests.
+ *
+ * @author jamesgung
+ */
+public class WordSenseCLITest {
+
+    private static final int SENTENCES = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Parser producing flat trees after a random delay, so that sentences complete out of order.
+     */
+    private static class FlatParser extends WhitespaceTokenizer implements NlpParser {
+
+        @Override
+        public DepTree parse(List<String> tokens) {
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<DepNode> nodes = new ArrayList<>();
+            for (String token : tokens) {
+                DefaultDepNode node = new DefaultDepNode(nodes.size());
+                node.addFeature(FeatureType.Text, token);
+                node.addFeature(FeatureType.Lemma, token);
+                node.addFeature(FeatureType.Pos, "NN");
+                node.addFeature(FeatureType.Dep, nodes.isEmpty() ? "root" : "dep");
+                nodes.add(node);
+            }
+            for (int i = 1; i < nodes.size(); ++i) {
+                ((DefaultDepNode) nodes.get(i)).head(nodes.get(0));
+            }
+            return new DefaultDepTree(0, nodes, nodes.get(0));
+        }
+    }
+
+    private static class TestCLI extends WordSenseCLI {
+
+        TestCLI(String... args) {
+            super(args);
+        }
+
+        @Override
+        protected NlpParser parser() {
+            return new FlatParser();
+        }
+    }
+
+    /**
+     * Annotator labeling the first token of each sentence as a predicate, without a classifier.
+     */
+    private static WordSenseAnnotator annotator() {
+        return new WordSenseAnnotator(null, null) {
+            @Override
+            public DepTree annotate(DepTree instance) {
+                DepNode predicate = instance.get(0);
+                predicate.addFeature(FeatureType.Predicate, predicate.feature(FeatureType.Lemma));
+                predicate.addFeature(FeatureType.Sense, predicate.feature(FeatureType.Lemma) + ".01");
+                return instance;
+            }
+        };
+    }
+
+    private List<String> stream(File input, File output) {
+        TestCLI cli = new TestCLI("-model", new File(folder.getRoot(), "model.bin").getPath(), "-input", input.getPath(),
+                "-output", output.getPath(), "--stream", "-threads", "4", "-window", "16");
+        cli.checkParameters();
+        cli.applyStreaming(annotator());
+        try {
+            // instance headers, one per sentence
+            return Files.readAllLines(output.toPath()).stream()
+                    .filter(line -> line.startsWith("# "))
+                    .map(line -> line.split(" ")[4])
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void assertInOrder(List<String> predicates) {
+        assertEquals(SENTENCES, predicates.size());
+        for (int i = 0; i < SENTENCES; ++i) {
+            assertEquals("word" + i, predicates.get(i));
+        }
+    }
+
+    @Test
+    public void testStreamingOrder() throws IOException {
+        File input = folder.newFile("input.txt");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < SENTENCES; ++i) {
+            lines.add("word" + i + " runs quickly");
+        }
+        Files.write(input.toPath(), lines);
+
+        assertInOrder(stream(input, folder.newFile("output.txt")));
+
+        // parses saved while streaming raw text are read back in order
+        File parsed = new File(input.getPath() + ".dep");
+        assertTrue(parsed.exists());
+        assertInOrder(stream(parsed, folder.newFile("parsed-output.txt")));
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link LabelScores} tests.
+ *
+ * @author jamesgung
+ */
+public class LabelScoresTest {
+
+    private static LabelScores scores() {
+        return new LabelScores(2).reset(5)
+                .set(0, 3, 0.1f)
+                .set(1, 1, 0.7f)
+                .set(2, 4, 0.3f)
+                .set(3, 0, 0.7f)
+                .set(4, 2, -1f)
+                .names(new String[]{"a", "b", "c", "d", "e"});
+    }
+
+    @Test
+    public void testArgMax() {
+        LabelScores scores = scores();
+        assertEquals(1, scores.argMax());
+        assertEquals("b", scores.name(scores.argMax()));
+        assertEquals(-1, scores.reset(0).argMax());
+    }
+
+    @Test
+    public void testTopK() {
+        LabelScores scores = scores();
+        assertArrayEquals(new int[]{1, 3, 2}, scores.topK(3));
+        assertArrayEquals(new int[]{1, 3, 2, 0, 4}, scores.topK(10));
+    }
+
+    @Test
+    public void testToNameMap() {
+        LabelScores scores = scores();
+        assertEquals(5, scores.toNameMap().size());
+        assertEquals(0.3, scores.toNameMap().get("e"), 0.00001);
+    }
+
+}
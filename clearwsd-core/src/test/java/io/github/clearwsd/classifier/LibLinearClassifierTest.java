@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import de.bwaldvogel.liblinear.Feature;
+import de.bwaldvogel.liblinear.FeatureNode;
+import de.bwaldvogel.liblinear.Linear;
+import de.bwaldvogel.liblinear.SolverType;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link LibLinearClassifier} tests, comparing scores and predictions against LibLinear.
+ *
+ * @author jamesgung
+ */
+public class LibLinearClassifierTest {
+
+    private static final double DELTA = 0.0001;
+
+    private static List<SparseInstance> instances(int count, int labels, int seed) {
+        Random random = new Random(seed);
+        List<SparseInstance> instances = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            int target = random.nextInt(labels);
+            SparseVectorBuilder builder = new SparseVectorBuilder().addIndex(target);
+            for (int j = 0; j < 4; ++j) {
+                builder.addValue(labels + random.nextInt(30), random.nextFloat());
+            }
+            instances.add(new DefaultSparseInstance(i, target, builder.build()));
+        }
+        return instances;
+    }
+
+    private static void compare(SolverType solver, int labels) {
+        Properties properties = new Properties();
+        properties.setProperty(LibLinearClassifier.LibLinearParameter.Solver.name(), solver.name());
+        LibLinearClassifier classifier = new LibLinearClassifier();
+        classifier.initialize(properties);
+        classifier.train(instances(200, labels, 0), new ArrayList<>());
+        int[] modelLabels = classifier.model().getLabels();
+        for (SparseInstance instance : instances(100, labels, 1)) {
+            Feature[] features = new Feature[instance.indices().length];
+            for (int i = 0; i < features.length; ++i) {
+                features[i] = new FeatureNode(instance.indices()[i] + 1, instance.data()[i]);
+            }
+            assertEquals((int) Linear.predict(classifier.model(), features), (int) classifier.classify(instance));
+            double[] expected = new double[modelLabels.length];
+            if (classifier.model().isProbabilityModel()) {
+                Linear.predictProbability(classifier.model(), features, expected);
+            } else {
+                Linear.predictValues(classifier.model(), features, expected);
+            }
+            Map<Integer, Double> scores = classifier.score(instance);
+            int values = labels == 2 && !classifier.model().isProbabilityModel() ? 1 : modelLabels.length;
+            for (int i = 0; i < values; ++i) {
+                assertEquals(expected[i], scores.get(modelLabels[i]), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void testDecisionValues() {
+        compare(SolverType.L2R_L2LOSS_SVC, 4);
+        compare(SolverType.L2R_L2LOSS_SVC, 2);
+        compare(SolverType.MCSVM_CS, 3);
+        compare(SolverType.MCSVM_CS, 2);
+    }
+
+    @Test
+    public void testProbabilities() {
+        compare(SolverType.L2R_LR, 4);
+        compare(SolverType.L2R_LR, 2);
+    }
+
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.clearwsd.classifier.TestSparseInstances.instances;
+import static io.github.clearwsd.classifier.TestSparseInstances.multiClassifier;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ModelFile} tests.
+ *
+ * @author jamesgung
+ */
+public class ModelFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] write(Classifier<SparseInstance, Integer> classifier) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ModelFileWriter writer = new ModelFileWriter(bytes)) {
+            DataOutputStream out = writer.section("arrays");
+            ModelFile.writeInts(out, new int[]{1, 2, 3});
+            ModelFile.writeFloats(out, new float[]{0.5f, -1});
+            ModelFile.writeString(out, "done");
+            ClassifierSections.write(writer, "classifier", classifier, ClassifierCodec::serializing);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void checkArrays(ModelFile file) {
+        ByteBuffer arrays = file.section("arrays");
+        assertArrayEquals(new int[]{1, 2, 3}, ModelFile.readInts(arrays));
+        assertArrayEquals(new float[]{0.5f, -1}, ModelFile.readFloats(arrays), 0);
+        assertEquals("done", ModelFile.readString(arrays));
+    }
+
+    private static MultiClassifier<SparseInstance, Integer> classifier() {
+        MultiClassifier<SparseInstance, Integer> classifier = multiClassifier();
+        classifier.train(instances(500, 0), instances(50, 1));
+        return classifier;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        MultiClassifier<SparseInstance, Integer> classifier = classifier();
+        byte[] data = write(classifier);
+        assertTrue(ModelFile.isModelFile(data));
+
+        Path path = folder.newFile().toPath();
+        try (FileOutputStream out = new FileOutputStream(path.toFile())) {
+            out.write(data);
+        }
+        for (ModelFile file : new ModelFile[]{ModelFile.open(path), ModelFile.read(new ByteArrayInputStream(data))}) {
+            assertEquals(ModelFile.VERSION, file.version());
+            assertTrue(file.contains("classifier/0/index"));
+            checkArrays(file);
+            Classifier<SparseInstance, Integer> loaded
+                    = ClassifierSections.read(file, "classifier", ClassifierCodec::serializing);
+            for (SparseInstance instance : instances(200, 2)) {
+                assertEquals(classifier.classify(instance), loaded.classify(instance));
+                assertEquals(classifier.score(instance), loaded.score(instance));
+            }
+        }
+    }
+
+    @Test
+    public void testRewriteAfterPartialLoad() throws IOException {
+        MultiClassifier<SparseInstance, Integer> classifier = classifier();
+        ModelFile file = ModelFile.read(new ByteArrayInputStream(write(classifier)));
+        Classifier<SparseInstance, Integer> loaded = ClassifierSections.read(file, "classifier", ClassifierCodec::serializing);
+        // load only some sub-models before writing
+        SparseInstance first = instances(1, 2).get(0);
+        assertEquals(classifier.classify(first), loaded.classify(first));
+
+        ModelFile rewritten = ModelFile.read(new ByteArrayInputStream(write(loaded)));
+        Classifier<SparseInstance, Integer> reloaded
+                = ClassifierSections.read(rewritten, "classifier", ClassifierCodec::serializing);
+        for (SparseInstance instance : instances(200, 2)) {
+            assertEquals(classifier.score(instance), reloaded.score(instance));
+        }
+    }
+
+    @Test
+    public void testConcurrentLoad() throws Exception {
+        MultiClassifier<SparseInstance, Integer> classifier = classifier();
+        ModelFile file = ModelFile.read(new ByteArrayInputStream(write(classifier)));
+        AtomicInteger reads = new AtomicInteger();
+        Classifier<SparseInstance, Integer> loaded = ClassifierSections.read(file, "classifier", () -> {
+            ClassifierCodec<SparseInstance, Integer> codec = ClassifierCodec.serializing();
+            return new ClassifierCodec<SparseInstance, Integer>() {
+                @Override
+                public void write(Classifier<SparseInstance, Integer> classifier, DataOutputStream out) throws IOException {
+                    codec.write(classifier, out);
+                }
+
+                @Override
+                public Classifier<SparseInstance, Integer> read(ByteBuffer buffer) {
+                    reads.incrementAndGet();
+                    return codec.read(buffer);
+                }
+            };
+        });
+        List<SparseInstance> instances = instances(200, 2);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                results.add(executor.submit(() -> instances.forEach(instance ->
+                        assertEquals(classifier.score(instance), loaded.score(instance)))));
+            }
+            // saving loads every remaining sub-model, concurrently with requests
+            results.add(executor.submit(() -> write(loaded)));
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        // each sub-model is read once, however many threads request it
+        assertEquals(TestSparseInstances.KEYS, reads.get());
+    }
+
+    @Test
+    public void testBoundedCache() throws IOException {
+        MultiClassifier<SparseInstance, Integer> classifier = classifier();
+        ModelFile file = ModelFile.read(new ByteArrayInputStream(write(classifier)));
+        SubModelCache unbounded = new SubModelCache(Long.MAX_VALUE);
+        Classifier<SparseInstance, Integer> loaded
+                = ClassifierSections.read(file, "classifier", ClassifierCodec::serializing, unbounded);
+        List<SparseInstance> instances = instances(200, 2);
+        instances.forEach(loaded::classify);
+        assertEquals(TestSparseInstances.KEYS, unbounded.misses());
+        assertEquals(instances.size() - TestSparseInstances.KEYS, unbounded.hits());
+        assertEquals(0, unbounded.evictions());
+
+        SubModelCache bounded = new SubModelCache(unbounded.bytes() / 2);
+        loaded = ClassifierSections.read(file, "classifier", ClassifierCodec::serializing, bounded);
+        for (SparseInstance instance : instances) {
+            assertEquals(classifier.score(instance), loaded.score(instance));
+            assertTrue(bounded.bytes() <= bounded.maxBytes());
+        }
+        assertTrue(bounded.evictions() > 0);
+        assertEquals(bounded.misses(), bounded.size() + bounded.evictions());
+    }
+
+    @Test
+    public void testSparseWeights() throws IOException {
+        List<SparseInstance> train = instances(300, 0);
+        // the same instances spread over a much larger feature space, compacted to a hashed matrix
+        List<SparseInstance> wide = new ArrayList<>();
+        for (SparseInstance instance : train) {
+            wide.add(new DefaultSparseInstance(instance.id(), instance.target(), widen(instance)));
+        }
+        for (List<SparseInstance> instances : Arrays.asList(train, wide)) {
+            Properties properties = new Properties();
+            properties.setProperty(PaClassifier.PaParameter.Storage.name(), PaClassifier.WeightStorage.Sparse.name());
+            PaClassifier classifier = new PaClassifier();
+            classifier.initialize(properties);
+            classifier.train(instances, new ArrayList<>());
+            if (instances == wide) {
+                assertEquals(CompactHashedWeightMatrix.class, classifier.weights().getClass());
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ModelFileWriter writer = new ModelFileWriter(bytes)) {
+                classifier.weights().write(writer.section("weights"));
+            }
+            ModelFile file = ModelFile.read(new ByteArrayInputStream(bytes.toByteArray()));
+            PaClassifier loaded = new PaClassifier().weights(WeightMatrix.read(file.section("weights")));
+            assertEquals(classifier.weights().getClass(), loaded.weights().getClass());
+            for (SparseInstance instance : instances) {
+                assertEquals(classifier.score(instance), loaded.score(instance));
+            }
+        }
+    }
+
+    private static SparseVector widen(SparseVector vector) {
+        SparseVectorBuilder builder = new SparseVectorBuilder();
+        for (int index : vector.indices()) {
+            builder.addIndex(index * 50000);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testWriteTrainableMatrices() throws IOException {
+        SparseVector vector = new SparseVectorBuilder().addValue(3, 1).addValue(40, 2).build();
+        int[] labels = {2, 5, 7};
+        // dense weights are written as dense or CSR, and hashed weights in their compact form
+        for (TrainableWeightMatrix matrix : Arrays.asList(new DenseWeightMatrix(50, labels),
+                new HashedWeightMatrix(50, labels, 4), new HashedWeightMatrix(1 << 20, labels, 4))) {
+            matrix.add(vector, 1, 0.5);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                matrix.write(out);
+            }
+            WeightMatrix read = WeightMatrix.read(ByteBuffer.wrap(bytes.toByteArray()));
+            assertTrue(!(read instanceof TrainableWeightMatrix) || read instanceof DenseWeightMatrix);
+            assertEquals(matrix.compact().getClass(), read.getClass());
+            assertEquals(3, read.labels());
+            assertEquals(5, read.label(1));
+            assertEquals(0.5f, read.weight(3, 1), 0);
+            assertEquals(1f, read.weight(40, 1), 0);
+            assertEquals(0f, read.weight(40, 2), 0);
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static io.github.clearwsd.classifier.TestSparseInstances.instances;
+import static io.github.clearwsd.classifier.TestSparseInstances.multiClassifier;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link MultiClassifier} tests.
+ *
+ * @author jamesgung
+ */
+public class MultiClassifierTest {
+
+    @Test
+    public void testParallelMatchesSequential() {
+        MultiClassifier<SparseInstance, Integer> sequential = multiClassifier();
+        sequential.train(instances(500, 0), instances(50, 1));
+        MultiClassifier<SparseInstance, Integer> parallel = multiClassifier().threads(4);
+        parallel.train(instances(500, 0), instances(50, 1));
+        for (SparseInstance instance : instances(200, 2)) {
+            assertEquals(sequential.score(instance), parallel.score(instance));
+            assertEquals(sequential.classify(instance), parallel.classify(instance));
+        }
+    }
+
+    @Test
+    public void testFailureCancelsPendingModels() throws InterruptedException {
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger trained = new AtomicInteger();
+        CountDownLatch never = new CountDownLatch(1);
+        MultiClassifier<SparseInstance, Integer> classifier = new MultiClassifier<>(
+                (Serializable & Function<SparseInstance, String>) i -> Integer.toString(i.indices()[0]), () -> {
+            boolean first = created.getAndIncrement() == 0;
+            return new PaClassifier() {
+                @Override
+                public void train(List<SparseInstance> train, List<SparseInstance> valid) {
+                    if (first) {
+                        throw new IllegalStateException("first model failed");
+                    }
+                    try {
+                        // only completes if the job is cancelled
+                        never.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    trained.incrementAndGet();
+                }
+            };
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            classifier.executor(executor).train(instances(500, 0), instances(50, 1));
+            fail("Expected training to fail");
+        } catch (RuntimeException e) {
+            assertEquals("first model failed", e.getCause().getMessage());
+        }
+        // the provided executor is left running, but has no remaining jobs
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, trained.get());
+    }
+
+}
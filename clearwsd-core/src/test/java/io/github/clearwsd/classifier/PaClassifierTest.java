@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link PaClassifier} tests.
+ *
+ * @author jamesgung
+ */
+public class PaClassifierTest {
+
+    private static final double DELTA = 0.00001;
+
+    private static SparseInstance instance(int id, int target, int... indices) {
+        SparseVectorBuilder builder = new SparseVectorBuilder();
+        for (int index : indices) {
+            builder.addIndex(index);
+        }
+        return new DefaultSparseInstance(id, target, builder.build());
+    }
+
+    private static List<SparseInstance> trainingData() {
+        List<SparseInstance> instances = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            instances.add(instance(instances.size(), 0, 0, 1));
+            instances.add(instance(instances.size(), 1, 0, 2));
+            instances.add(instance(instances.size(), 2, 0, 3, 4));
+        }
+        return instances;
+    }
+
+    @Test
+    public void testClassify() {
+        PaClassifier classifier = new PaClassifier();
+        classifier.train(trainingData(), new ArrayList<>());
+        assertEquals(0, (int) classifier.classify(instance(0, -1, 0, 1)));
+        assertEquals(1, (int) classifier.classify(instance(0, -1, 0, 2)));
+        assertEquals(2, (int) classifier.classify(instance(0, -1, 4)));
+    }
+
+    @Test
+    public void testScoreBuffer() {
+        PaClassifier classifier = new PaClassifier();
+        classifier.train(trainingData(), new ArrayList<>());
+        SparseInstance test = instance(0, -1, 0, 3, 9);
+        Map<Integer, Double> scores = classifier.score(test);
+        float[] buffer = new float[classifier.weights().labels()];
+        classifier.score(test, buffer);
+        assertEquals(3, scores.size());
+        for (int column = 0; column < buffer.length; ++column) {
+            assertEquals(scores.get(classifier.weights().label(column)), buffer[column], DELTA);
+        }
+    }
+
+    @Test
+    public void testCandidateScores() {
+        PaClassifier classifier = new PaClassifier();
+        classifier.train(trainingData(), new ArrayList<>());
+        SparseInstance test = instance(0, -1, 0, 3, 4);
+        Map<Integer, Double> all = classifier.score(test);
+        LabelScores scores = new LabelScores();
+        classifier.score(test, scores, new int[]{1, 2, 7});
+        assertEquals(2, scores.size());
+        for (int i = 0; i < scores.size(); ++i) {
+            assertEquals(all.get(scores.label(i)), scores.score(i), DELTA);
+        }
+        assertEquals(2, scores.label(scores.argMax()));
+    }
+
+    @Test
+    public void testCandidateScoresByMatrix() {
+        int[] labels = {2, 5, 7, 9};
+        SparseVector update = new SparseVectorBuilder().addValue(3, 1).addValue(12, -2).addValue(40, 0.5f).build();
+        // features beyond the matrix are ignored
+        SparseVector test = new SparseVectorBuilder().addValue(3, 2).addValue(12, 1).addValue(40, -1).addValue(60, 1).build();
+        DenseWeightMatrix dense = new DenseWeightMatrix(50, labels);
+        HashedWeightMatrix hashed = new HashedWeightMatrix(1 << 20, labels, 4);
+        for (TrainableWeightMatrix matrix : Arrays.asList(dense, hashed)) {
+            matrix.add(update, 1, 0.5);
+            matrix.add(update, 3, -1);
+            matrix.add(update, 0, 0.25);
+        }
+        assertEquals(CsrWeightMatrix.class, dense.compact().getClass());
+        assertEquals(CompactHashedWeightMatrix.class, hashed.compact().getClass());
+        LabelScores scores = new LabelScores(1);
+        for (WeightMatrix matrix : Arrays.asList(dense, dense.compact(), hashed, hashed.compact())) {
+            matrix.score(test, new int[]{9, 4, 5, 2}, scores);
+            assertEquals(3, scores.size());
+            assertEquals(9, scores.label(0));
+            assertEquals(5, scores.label(1));
+            assertEquals(2, scores.label(2));
+            for (int i = 0; i < scores.size(); ++i) {
+                assertEquals(matrix.score(test, matrix.column(scores.label(i))), scores.score(i), 0);
+            }
+        }
+    }
+
+    @Test
+    public void testSparseStorageMatchesDense() {
+        PaClassifier dense = classifier(PaClassifier.WeightStorage.Dense, true);
+        PaClassifier sparse = classifier(PaClassifier.WeightStorage.Sparse, true);
+        PaClassifier denseNoAvg = classifier(PaClassifier.WeightStorage.Dense, false);
+        PaClassifier sparseNoAvg = classifier(PaClassifier.WeightStorage.Sparse, false);
+        for (int feature = 0; feature < dense.weights().features(); ++feature) {
+            for (int column = 0; column < dense.weights().labels(); ++column) {
+                assertEquals(dense.weights().weight(feature, column), sparse.weights().weight(feature, column), DELTA);
+                assertEquals(denseNoAvg.weights().weight(feature, column), sparseNoAvg.weights().weight(feature, column), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void testCompactHashedWeights() {
+        // few weights over a very large feature space are compacted to a read-only hash table
+        List<SparseInstance> train = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            train.add(instance(train.size(), 0, 0, 500000));
+            train.add(instance(train.size(), 1, 0, 999999));
+        }
+        PaClassifier classifier = new PaClassifier();
+        Properties properties = new Properties();
+        properties.setProperty(PaClassifier.PaParameter.Storage.name(), PaClassifier.WeightStorage.Sparse.name());
+        classifier.initialize(properties);
+        classifier.train(train, new ArrayList<>());
+        assertEquals(CompactHashedWeightMatrix.class, classifier.weights().getClass());
+        assertEquals(0, (int) classifier.classify(instance(0, -1, 0, 500000)));
+        assertEquals(1, (int) classifier.classify(instance(0, -1, 0, 999999)));
+    }
+
+    private static PaClassifier classifier(PaClassifier.WeightStorage storage, boolean averaging) {
+        Properties properties = new Properties();
+        properties.setProperty(PaClassifier.PaParameter.Storage.name(), storage.name());
+        properties.setProperty(PaClassifier.PaParameter.Averaging.name(), Boolean.toString(averaging));
+        PaClassifier classifier = new PaClassifier();
+        classifier.initialize(properties);
+        List<SparseInstance> train = trainingData();
+        classifier.train(train, train.subList(0, 6));
+        return classifier;
+    }
+
+}
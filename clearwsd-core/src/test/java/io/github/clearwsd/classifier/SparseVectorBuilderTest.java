@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import org.junit.Test;
+
+import io.github.clearwsd.classifier.SparseVectorBuilder.DuplicatePolicy;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link SparseVectorBuilder} tests.
+ *
+ * @author jamesgung
+ */
+public class SparseVectorBuilderTest {
+
+    private static SparseVector build(DuplicatePolicy policy) {
+        return new SparseVectorBuilder(policy)
+                .addValue(7, 1)
+                .addValue(2, 3)
+                .addValue(7, -2)
+                .addValue(0, 1)
+                .addValue(2, 1)
+                .build();
+    }
+
+    @Test
+    public void testOverwrite() {
+        SparseVector vector = build(DuplicatePolicy.Overwrite);
+        assertArrayEquals(new int[]{0, 2, 7}, vector.indices());
+        assertArrayEquals(new float[]{1, 1, -2}, vector.data(), 0);
+    }
+
+    @Test
+    public void testSum() {
+        SparseVector vector = build(DuplicatePolicy.Sum);
+        assertArrayEquals(new int[]{0, 2, 7}, vector.indices());
+        assertArrayEquals(new float[]{1, 4, -1}, vector.data(), 0);
+    }
+
+    @Test
+    public void testMax() {
+        SparseVector vector = build(DuplicatePolicy.Max);
+        assertArrayEquals(new int[]{0, 2, 7}, vector.indices());
+        assertArrayEquals(new float[]{1, 3, 1}, vector.data(), 0);
+    }
+
+    @Test
+    public void testReset() {
+        SparseVectorBuilder builder = new SparseVectorBuilder();
+        for (int i = 0; i < 40; ++i) {
+            builder.addIndex(40 - i);
+        }
+        SparseVector first = builder.build();
+        SparseVector second = builder.reset().addIndex(3).addIndex(1).build();
+        assertArrayEquals(new int[]{1, 3}, second.indices());
+        assertArrayEquals(new float[]{1, 1}, second.data(), 0);
+        assertEquals(40, first.indices().length);
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.classifier;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Randomly generated {@link SparseInstance SparseInstances} for classifier tests. Each instance has one of 5 keys (its first
+ * index) and one of 3 targets, indicated by its second index, followed by random noise features.
+ *
+ * @author jamesgung
+ */
+final class TestSparseInstances {
+
+    static final int KEYS = 5;
+
+    private TestSparseInstances() {
+        throw new AssertionError("Utility class, should never be instantiated.");
+    }
+
+    static List<SparseInstance> instances(int count, int seed) {
+        Random random = new Random(seed);
+        List<SparseInstance> instances = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            int key = random.nextInt(KEYS);
+            int target = random.nextInt(3);
+            SparseVectorBuilder builder = new SparseVectorBuilder().addIndex(key).addIndex(KEYS + target);
+            for (int j = 0; j < 3; ++j) {
+                builder.addIndex(8 + random.nextInt(20));
+            }
+            instances.add(new DefaultSparseInstance(i, target, builder.build()));
+        }
+        return instances;
+    }
+
+    /**
+     * Multi-classifier with a {@link PaClassifier} per key.
+     */
+    static MultiClassifier<SparseInstance, Integer> multiClassifier() {
+        return new MultiClassifier<>((Serializable & Function<SparseInstance, String>) i -> Integer.toString(i.indices()[0]),
+                (Serializable & Supplier<Classifier<SparseInstance, Integer>>) PaClassifier::new);
+    }
+
+}
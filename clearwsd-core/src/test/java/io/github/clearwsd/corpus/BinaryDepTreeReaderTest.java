@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.corpus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link BinaryDepTreeReader} and {@link IndexedDepTreeFile} tests.
+ *
+ * @author jamesgung
+ */
+public class BinaryDepTreeReaderTest {
+
+    private static final String TEST_PATH = "src/test/resources/test.dep";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<DepTree> trees() throws IOException {
+        List<DepTree> trees = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            trees.addAll(new CoNllDepTreeReader().readInstances(new FileInputStream(TEST_PATH)));
+        }
+        trees.get(0).root().addFeature(FeatureType.Gold, "stop.01");
+        trees.get(1).addFeature(FeatureType.Text, "sentence text");
+        return trees;
+    }
+
+    private Path write(List<DepTree> trees, int blockSize) throws IOException {
+        Path path = folder.newFile().toPath();
+        try (BinaryDepTreeWriter writer = new BinaryDepTreeWriter(Files.newOutputStream(path), blockSize)) {
+            trees.forEach(writer::write);
+        }
+        return path;
+    }
+
+    private static void assertTreeEquals(DepTree expected, DepTree actual) {
+        assertEquals(CoNllDepTreeReader.treeToString(expected, FeatureType.Gold.name()),
+                CoNllDepTreeReader.treeToString(actual, FeatureType.Gold.name()));
+        assertEquals(expected.root().index(), actual.root().index());
+        assertEquals((String) expected.feature(FeatureType.Text), actual.feature(FeatureType.Text));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<DepTree> trees = trees();
+        Path path = write(trees, 4);
+        List<DepTree> result = new BinaryDepTreeReader().readInstances(Files.newInputStream(path));
+        assertEquals(trees.size(), result.size());
+        for (int i = 0; i < trees.size(); ++i) {
+            assertEquals(i, result.get(i).index());
+            assertTreeEquals(trees.get(i), result.get(i));
+        }
+    }
+
+    @Test
+    public void testRandomAccess() throws IOException {
+        List<DepTree> trees = trees();
+        try (IndexedDepTreeFile file = new IndexedDepTreeFile(write(trees, 4))) {
+            assertEquals(trees.size(), file.size());
+            for (int i = trees.size() - 1; i >= 0; --i) {
+                assertEquals(i, file.get(i).index());
+                assertTreeEquals(trees.get(i), file.get(i));
+            }
+        }
+    }
+
+}
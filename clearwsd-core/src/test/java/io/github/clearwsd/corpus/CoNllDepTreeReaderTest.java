@@ -16,16 +16,29 @@
 
 package io.github.clearwsd.corpus;
 
+import com.google.common.collect.Sets;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * {@link CoNllDepTreeReader} tests.
@@ -36,6 +49,9 @@ public class CoNllDepTreeReaderTest {
 
     private static final String TEST_PATH = "src/test/resources/test.dep";
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testReadInstances() throws IOException {
         List<DepTree> depTrees = new CoNllDepTreeReader().readInstances(new FileInputStream(TEST_PATH));
@@ -46,4 +62,66 @@ public class CoNllDepTreeReaderTest {
         assertEquals("calling", depTrees.get(1).root().feature(FeatureType.Text));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testReadMappedInstances() throws IOException {
+        Path path = repeatedCorpus(50);
+        List<String> headers = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        CoNllDepTreeReader reader = new CoNllDepTreeReader() {
+            @Override
+            protected void processHeader(List<String> header, DepTree result) {
+                headers.addAll(header);
+                indices.add(result.index());
+            }
+        }.threads(4).chunkSize(512);
+
+        List<DepTree> expected = new CoNllDepTreeReader().readInstances(Files.newInputStream(path));
+        List<DepTree> depTrees = reader.readInstances(path);
+        assertEquals(100, depTrees.size());
+        assertEquals(100, headers.size());
+        for (int i = 0; i < depTrees.size(); ++i) {
+            assertEquals(i, depTrees.get(i).index());
+            assertEquals(i, (int) indices.get(i));
+            assertEquals(CoNllDepTreeReader.treeToString(expected.get(i)), CoNllDepTreeReader.treeToString(depTrees.get(i)));
+        }
+        assertEquals("calling", depTrees.get(99).root().feature(FeatureType.Text));
+
+        // chunks are parsed on the calling thread by default
+        List<DepTree> sequential = new CoNllDepTreeReader().chunkSize(512).readInstances(path);
+        assertEquals(100, sequential.size());
+        assertEquals(99, sequential.get(99).index());
+    }
+
+    @Test
+    public void testCloseMappedIterator() throws Exception {
+        Path path = repeatedCorpus(50);
+        Set<Thread> before = workers();
+        try (CoNllDepTreeReader.MappedTreeIterator iterator = new CoNllDepTreeReader().threads(4).chunkSize(512)
+                .instanceIterator(path)) {
+            assertEquals(0, iterator.next().index());
+            assertFalse(Sets.difference(workers(), before).isEmpty());
+        }
+        // threads of an abandoned iterator are stopped once closed
+        for (int i = 0; i < 100 && !Sets.difference(workers(), before).isEmpty(); ++i) {
+            Thread.sleep(50);
+        }
+        assertTrue(Sets.difference(workers(), before).isEmpty());
+    }
+
+    private Path repeatedCorpus(int copies) throws IOException {
+        byte[] corpus = Files.readAllBytes(Paths.get(TEST_PATH));
+        Path path = folder.newFile().toPath();
+        for (int i = 0; i < copies; ++i) {
+            Files.write(path, corpus, StandardOpenOption.APPEND);
+            Files.write(path, "\n\n".getBytes(), StandardOpenOption.APPEND);
+        }
+        return path;
+    }
+
+    private static Set<Thread> workers() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.isAlive() && thread.getName().startsWith("ForkJoinPool-"))
+                .collect(Collectors.toSet());
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.corpus;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.parser.WhitespaceTokenizer;
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link TextCorpusReader} tests.
+ *
+ * @author jamesgung
+ */
+public class TextCorpusReaderTest {
+
+    /**
+     * Parser producing flat trees after a random delay, recording the thread each instance is used from.
+     */
+    private static class FlatParser extends WhitespaceTokenizer implements NlpParser {
+
+        private final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        @Override
+        public DepTree parse(List<String> tokens) {
+            threads.add(Thread.currentThread());
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<DepNode> nodes = new ArrayList<>();
+            for (String token : tokens) {
+                DefaultDepNode node = new DefaultDepNode(nodes.size());
+                node.addFeature(FeatureType.Text, token);
+                nodes.add(node);
+            }
+            for (int i = 1; i < nodes.size(); ++i) {
+                ((DefaultDepNode) nodes.get(i)).head(nodes.get(0));
+            }
+            return new DefaultDepTree(0, nodes, nodes.get(0));
+        }
+    }
+
+    private static String corpus(int sentences) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < sentences; ++i) {
+            text.append("sentence ").append(i).append("\n");
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void testParallelParseAndWrite() {
+        String text = corpus(500);
+        ByteArrayOutputStream serial = new ByteArrayOutputStream();
+        new TextCorpusReader(new FlatParser()).parseAndWrite(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), serial, 100);
+
+        List<FlatParser> parsers = Collections.synchronizedList(new ArrayList<>());
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        new TextCorpusReader(() -> {
+            FlatParser parser = new FlatParser();
+            parsers.add(parser);
+            return parser;
+        }, 4).parseAndWrite(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), parallel, 100);
+
+        assertEquals(serial.toString(), parallel.toString());
+        assertTrue(parsers.size() > 1);
+        for (FlatParser parser : parsers) {
+            assertTrue(parser.threads.size() <= 1);
+        }
+    }
+
+    @Test
+    public void testParallelReadInstances() {
+        List<DepTree> trees = new TextCorpusReader(new FlatParser()).threads(4)
+                .readInstances(new ByteArrayInputStream(corpus(200).getBytes(StandardCharsets.UTF_8)));
+        assertEquals(200, trees.size());
+        for (int i = 0; i < trees.size(); ++i) {
+            assertEquals(Integer.toString(i), trees.get(i).get(1).feature(FeatureType.Text));
+        }
+    }
+
+}
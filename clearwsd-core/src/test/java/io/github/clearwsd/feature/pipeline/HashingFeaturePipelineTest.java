@@ -0,0 +1,135 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.github.clearwsd.classifier.SparseInstance;
+import io.github.clearwsd.feature.StringFeature;
+import io.github.clearwsd.feature.TestInstanceBuilder;
+import io.github.clearwsd.feature.context.OffsetContextFactory;
+import io.github.clearwsd.feature.extractor.Extractors;
+import io.github.clearwsd.feature.function.AggregateFeatureFunction;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.function.Features;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link HashingFeaturePipeline} tests.
+ *
+ * @author jamesgung
+ */
+public class HashingFeaturePipelineTest {
+
+    private static NlpFocus<DepNode, DepTree> instance(String text, String label) {
+        NlpFocus<DepNode, DepTree> instance = new TestInstanceBuilder(text, 2).build();
+        instance.addFeature(FeatureType.Gold, label);
+        return instance;
+    }
+
+    private static FeatureFunction<NlpFocus<DepNode, DepTree>> features() {
+        FeatureFunction<NlpFocus<DepNode, DepTree>> window = Features.function(
+                new OffsetContextFactory<>(-2, -1, 0, 1, 2), Extractors.lookup(FeatureType.Text));
+        return new AggregateFeatureFunction<NlpFocus<DepNode, DepTree>>()
+                .add(window)
+                .add(Features.cross(window))
+                .add(Features.bias());
+    }
+
+    private static List<NlpFocus<DepNode, DepTree>> instances() {
+        return Arrays.asList(instance("the dog ran to me", "a"), instance("a cat ran off to", "b"),
+                instance("the cat ran to me", "a"), instance("one cat sat by it", "b"));
+    }
+
+    @Test
+    public void testIndexStability() {
+        List<NlpFocus<DepNode, DepTree>> train = instances();
+        HashingFeaturePipeline<NlpFocus<DepNode, DepTree>> pipeline = new HashingFeaturePipeline<>(features(), 10);
+        List<SparseInstance> first = pipeline.train(train);
+        List<SparseInstance> second = new HashingFeaturePipeline<>(features(), 10).train(train);
+        for (int i = 0; i < train.size(); ++i) {
+            // the same across pipelines, and between training and test time, without a stored vocabulary
+            assertArrayEquals(first.get(i).indices(), second.get(i).indices());
+            assertArrayEquals(first.get(i).indices(), pipeline.process(train.get(i)).indices());
+            assertArrayEquals(first.get(i).data(), pipeline.process(train.get(i)).data(), 0);
+            assertEquals(first.get(i).target(), pipeline.process(train.get(i)).target());
+            for (int index : first.get(i).indices()) {
+                assertTrue(index >= 0 && index < 1 << 10);
+            }
+        }
+        assertEquals(0, pipeline.model().features().indices().size());
+    }
+
+    @Test
+    public void testSignSymmetry() {
+        List<NlpFocus<DepNode, DepTree>> train = instances();
+        List<SparseInstance> unsigned = new HashingFeaturePipeline<>(features(), 24).train(train);
+        List<SparseInstance> signed = new HashingFeaturePipeline<>(features(), 24).signed(true).train(train);
+        int positive = 0;
+        int negative = 0;
+        for (int i = 0; i < train.size(); ++i) {
+            // signs only change feature values, not their indices
+            assertArrayEquals(unsigned.get(i).indices(), signed.get(i).indices());
+            for (int j = 0; j < signed.get(i).data().length; ++j) {
+                assertEquals(1, unsigned.get(i).data()[j], 0);
+                assertEquals(1, Math.abs(signed.get(i).data()[j]), 0);
+                if (signed.get(i).data()[j] > 0) {
+                    ++positive;
+                } else {
+                    ++negative;
+                }
+            }
+        }
+        assertTrue(positive > 0);
+        assertTrue(negative > 0);
+    }
+
+    @Test
+    public void testCollisionCounting() {
+        List<NlpFocus<DepNode, DepTree>> train = instances();
+        Set<String> distinct = new HashSet<>();
+        for (NlpFocus<DepNode, DepTree> instance : train) {
+            for (StringFeature feature : features().apply(instance)) {
+                distinct.add(feature.toString());
+            }
+        }
+
+        HashingFeaturePipeline<NlpFocus<DepNode, DepTree>> pipeline = new HashingFeaturePipeline<>(features(), 1);
+        pipeline.train(train);
+        assertEquals(0, pipeline.collisions());
+
+        // every feature beyond the first at each of 2 indices collides
+        pipeline.auditCollisions(true).train(train);
+        assertEquals(distinct.size() - 2, pipeline.collisions());
+
+        pipeline.bits(30).train(train);
+        assertEquals(0, pipeline.collisions());
+    }
+
+}
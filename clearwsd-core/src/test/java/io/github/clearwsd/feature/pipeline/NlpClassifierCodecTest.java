@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.github.clearwsd.classifier.Classifier;
+import io.github.clearwsd.classifier.ClassifierSections;
+import io.github.clearwsd.classifier.ModelFile;
+import io.github.clearwsd.classifier.ModelFileWriter;
+import io.github.clearwsd.classifier.MultiClassifier;
+import io.github.clearwsd.classifier.PaClassifier;
+import io.github.clearwsd.classifier.SubModelCache;
+import io.github.clearwsd.feature.TestInstanceBuilder;
+import io.github.clearwsd.feature.context.OffsetContextFactory;
+import io.github.clearwsd.feature.extractor.Extractors;
+import io.github.clearwsd.feature.function.AggregateFeatureFunction;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.function.Features;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link NlpClassifierCodec} tests.
+ *
+ * @author jamesgung
+ */
+public class NlpClassifierCodecTest {
+
+    private static NlpFocus<DepNode, DepTree> instance(String text, String label) {
+        NlpFocus<DepNode, DepTree> instance = new TestInstanceBuilder(text, 2).build();
+        instance.addFeature(FeatureType.Gold, label);
+        return instance;
+    }
+
+    private static FeatureFunction<NlpFocus<DepNode, DepTree>> features() {
+        return new AggregateFeatureFunction<NlpFocus<DepNode, DepTree>>()
+                .add(Features.function(new OffsetContextFactory<>(-1, 0, 1), Extractors.lookup(FeatureType.Text)))
+                .add(Features.bias());
+    }
+
+    private static NlpClassifier<NlpFocus<DepNode, DepTree>> classifier() {
+        return new NlpClassifier<>(new PaClassifier(), new TemplateFeaturePipeline<>(features()));
+    }
+
+    private static List<NlpFocus<DepNode, DepTree>> instances() {
+        return Arrays.asList(instance("the dog ran to me", "a"), instance("a cat ran off to", "b"),
+                instance("the cat ran to me", "a"), instance("one cat ran off it", "b"), instance("the dog sat on me", "c"),
+                instance("a cat sat by it", "d"), instance("the cat sat on me", "c"), instance("one dog sat by it", "d"));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<NlpFocus<DepNode, DepTree>> train = instances().subList(0, 4);
+        NlpClassifier<NlpFocus<DepNode, DepTree>> classifier = classifier();
+        classifier.train(train, train);
+
+        NlpClassifierCodec<NlpFocus<DepNode, DepTree>> writer = new NlpClassifierCodec<>();
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        ByteArrayOutputStream shared = new ByteArrayOutputStream();
+        writer.write(classifier, new DataOutputStream(record));
+        writer.writeShared(new DataOutputStream(shared));
+
+        NlpClassifierCodec<NlpFocus<DepNode, DepTree>> reader = new NlpClassifierCodec<>();
+        reader.readShared(ByteBuffer.wrap(shared.toByteArray()));
+        Classifier<NlpFocus<DepNode, DepTree>, String> loaded = reader.read(ByteBuffer.wrap(record.toByteArray()));
+        for (NlpFocus<DepNode, DepTree> instance : Arrays.asList(instance("the fox ran to me", "a"),
+                instance("a cat ran off it", "b"))) {
+            assertEquals(classifier.classify(instance), loaded.classify(instance));
+            assertEquals(classifier.score(instance), loaded.score(instance));
+        }
+    }
+
+    @Test
+    public void testBytes() {
+        List<NlpFocus<DepNode, DepTree>> train = instances();
+        NlpClassifier<NlpFocus<DepNode, DepTree>> classifier = classifier();
+        classifier.train(train, train);
+        long weights = ((PaClassifier) classifier.sparseClassifier()).weights().bytes();
+        assertTrue(weights > 0);
+        assertEquals(weights + 100, new NlpClassifierCodec<NlpFocus<DepNode, DepTree>>().bytes(classifier, 100));
+    }
+
+    @Test
+    public void testCachedSubModels() throws IOException {
+        List<NlpFocus<DepNode, DepTree>> train = instances();
+        MultiClassifier<NlpFocus<DepNode, DepTree>, String> classifier = new MultiClassifier<>(
+                (Serializable & Function<NlpFocus<DepNode, DepTree>, String>) i -> i.focus().feature(FeatureType.Text),
+                (Serializable & Supplier<Classifier<NlpFocus<DepNode, DepTree>, String>>) NlpClassifierCodecTest::classifier);
+        classifier.train(train, train);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ModelFileWriter writer = new ModelFileWriter(bytes)) {
+            ClassifierSections.write(writer, "classifier", classifier, NlpClassifierCodec::new);
+        }
+        ModelFile file = ModelFile.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        // one sub-model per focus word
+        SubModelCache unbounded = new SubModelCache(Long.MAX_VALUE);
+        Classifier<NlpFocus<DepNode, DepTree>, String> loaded
+                = ClassifierSections.read(file, "classifier", NlpClassifierCodec::new, unbounded);
+        train.forEach(loaded::classify);
+        assertEquals(2, unbounded.size());
+        assertEquals(2, unbounded.misses());
+
+        // room for only one sub-model at a time
+        SubModelCache bounded = new SubModelCache(unbounded.bytes() - 1);
+        loaded = ClassifierSections.read(file, "classifier", NlpClassifierCodec::new, bounded);
+        for (NlpFocus<DepNode, DepTree> instance : train) {
+            assertEquals(classifier.score(instance), loaded.score(instance));
+            assertTrue(bounded.bytes() <= bounded.maxBytes());
+        }
+        assertEquals(1, bounded.size());
+        assertTrue(bounded.evictions() > 0);
+
+        // sub-models larger than the budget are read on every request, but never cached
+        SubModelCache tiny = new SubModelCache(1);
+        loaded = ClassifierSections.read(file, "classifier", NlpClassifierCodec::new, tiny);
+        for (NlpFocus<DepNode, DepTree> instance : train) {
+            assertEquals(classifier.score(instance), loaded.score(instance));
+        }
+        assertEquals(0, tiny.size());
+        assertEquals(0, tiny.evictions());
+        assertEquals(train.size(), tiny.misses());
+    }
+
+}
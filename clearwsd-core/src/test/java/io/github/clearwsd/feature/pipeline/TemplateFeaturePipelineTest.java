@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.pipeline;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.github.clearwsd.classifier.SparseInstance;
+import io.github.clearwsd.feature.TestInstanceBuilder;
+import io.github.clearwsd.feature.context.OffsetContextFactory;
+import io.github.clearwsd.feature.extractor.Extractors;
+import io.github.clearwsd.feature.function.AggregateFeatureFunction;
+import io.github.clearwsd.feature.function.FeatureFunction;
+import io.github.clearwsd.feature.function.Features;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.NlpFocus;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link TemplateFeaturePipeline} tests.
+ *
+ * @author jamesgung
+ */
+public class TemplateFeaturePipelineTest {
+
+    private static NlpFocus<DepNode, DepTree> instance(String text, String label) {
+        NlpFocus<DepNode, DepTree> instance = new TestInstanceBuilder(text, 2).build();
+        instance.addFeature(FeatureType.Gold, label);
+        return instance;
+    }
+
+    private static FeatureFunction<NlpFocus<DepNode, DepTree>> features() {
+        FeatureFunction<NlpFocus<DepNode, DepTree>> window = Features.function(
+                new OffsetContextFactory<>(-1, 0, 1), Extractors.lookup(FeatureType.Text));
+        return new AggregateFeatureFunction<NlpFocus<DepNode, DepTree>>()
+                .add(window)
+                .add(Features.function(new OffsetContextFactory<>(true, -1, 1), Extractors.lookup(FeatureType.Text)))
+                .add(Features.cross(window))
+                .add(Features.bias());
+    }
+
+    @Test
+    public void testSameFeaturesAsDefault() {
+        List<NlpFocus<DepNode, DepTree>> train = Arrays.asList(
+                instance("the dog ran to me", "a"), instance("a cat ran off to", "b"), instance("the cat ran to me", "a"));
+        DefaultFeaturePipeline<NlpFocus<DepNode, DepTree>> defaultPipeline = new DefaultFeaturePipeline<>(features());
+        TemplateFeaturePipeline<NlpFocus<DepNode, DepTree>> templatePipeline = new TemplateFeaturePipeline<>(features());
+        List<SparseInstance> expected = defaultPipeline.train(train);
+        List<SparseInstance> result = templatePipeline.train(train);
+
+        assertEquals(defaultPipeline.model().features().indices().size(), templatePipeline.featureIndices().size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i).target(), result.get(i).target());
+            assertEquals(expected.get(i).indices().length, result.get(i).indices().length);
+        }
+        for (NlpFocus<DepNode, DepTree> instance : train) {
+            assertEquals(defaultPipeline.process(instance).indices().length,
+                    templatePipeline.process(instance).indices().length);
+        }
+    }
+
+    @Test
+    public void testUnseenFeaturesIgnored() {
+        TemplateFeaturePipeline<NlpFocus<DepNode, DepTree>> pipeline = new TemplateFeaturePipeline<>(features());
+        pipeline.train(Arrays.asList(instance("the dog ran to me", "a"), instance("a cat ran off to", "b")));
+        // only the bias and the focus word "ran" were seen in training
+        SparseInstance result = pipeline.process(instance("the fox ran up it", "a"));
+        assertEquals(2, result.indices().length);
+        assertEquals(0, result.target());
+    }
+
+}
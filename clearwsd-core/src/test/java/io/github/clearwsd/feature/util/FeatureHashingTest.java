@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.feature.util;
+
+import com.google.common.hash.Hashing;
+
+import org.junit.Test;
+
+import io.github.clearwsd.feature.StringFeature;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link FeatureHashing} tests.
+ *
+ * @author jamesgung
+ */
+public class FeatureHashingTest {
+
+    @Test
+    public void testMatchesMurmur3() {
+        String[][] features = {{"", ""}, {"w", "a"}, {"lemma", "run"}, {"dep::w[-1]", "the"}, {"pos", "NNS"}};
+        for (String[] feature : features) {
+            StringFeature stringFeature = new StringFeature(feature[0], feature[1]);
+            for (int seed : new int[]{0, 42}) {
+                int expected = Hashing.murmur3_32(seed).hashUnencodedChars(stringFeature.toString()).asInt();
+                assertEquals(expected, FeatureHashing.hash(stringFeature, seed));
+            }
+        }
+    }
+
+}
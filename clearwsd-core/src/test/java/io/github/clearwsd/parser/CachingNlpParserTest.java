@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+import io.github.clearwsd.type.FeatureType;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link CachingNlpParser} tests.
+ *
+ * @author jamesgung
+ */
+public class CachingNlpParserTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Parser attaching each token to the following token.
+     */
+    private static class CountingParser extends WhitespaceTokenizer implements NlpParser {
+
+        private AtomicInteger parsed = new AtomicInteger();
+
+        @Override
+        public DepTree parse(List<String> tokens) {
+            parsed.incrementAndGet();
+            List<DepNode> nodes = new ArrayList<>();
+            for (String token : tokens) {
+                DefaultDepNode node = new DefaultDepNode(nodes.size());
+                node.addFeature(FeatureType.Text, token);
+                node.addFeature(FeatureType.Lemma, token.toLowerCase());
+                node.addFeature(FeatureType.Dep, "dep");
+                node.addFeature("custom", token + "!");
+                nodes.add(node);
+            }
+            for (int i = 0; i < nodes.size() - 1; ++i) {
+                ((DefaultDepNode) nodes.get(i)).head(nodes.get(i + 1));
+            }
+            return new DefaultDepTree(0, nodes, nodes.get(nodes.size() - 1));
+        }
+    }
+
+    @Test
+    public void testPersistentCache() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        CountingParser base = new CountingParser();
+        List<String> sentence = Arrays.asList("The", "Dog", "ran");
+
+        CachingNlpParser parser = new CachingNlpParser(base, directory, 1 << 20);
+        parser.parse(sentence);
+        parser.parse(sentence);
+        assertEquals(1, base.parsed.get());
+        assertEquals(1, parser.hits());
+
+        DepTree tree = new CachingNlpParser(base, directory, 1 << 20).parse(sentence);
+        assertEquals(1, base.parsed.get());
+        assertEquals(3, tree.tokens().size());
+        assertEquals("dog", tree.get(1).feature(FeatureType.Lemma));
+        assertEquals("Dog!", tree.get(1).feature("custom"));
+        assertEquals(2, tree.get(1).head().index());
+        assertEquals(tree.get(2), tree.root());
+        assertEquals(1, tree.root().children().size());
+
+        // a different configuration does not share entries
+        new CachingNlpParser(base, directory, "other", 1 << 20).parse(sentence);
+        assertEquals(2, base.parsed.get());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        CountingParser base = new CountingParser();
+        CachingNlpParser parser = new CachingNlpParser(base, directory, 1 << 20);
+        parser.parse(Arrays.asList("a", "b"));
+        long entrySize = parser.bytes();
+        // small entries are counted as a whole filesystem block
+        assertEquals(4096, entrySize);
+
+        parser = new CachingNlpParser(base, directory, 2 * entrySize);
+        parser.parse(Arrays.asList("c", "d"));
+        parser.parse(Arrays.asList("a", "b"));
+        parser.parse(Arrays.asList("e", "f"));
+        assertEquals(2, parser.size());
+        // least recently used entry was evicted
+        parser.parse(Arrays.asList("a", "b"));
+        parser.parse(Arrays.asList("c", "d"));
+        assertEquals(4, base.parsed.get());
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.clearwsd.type.DefaultDepNode;
+import io.github.clearwsd.type.DefaultDepTree;
+import io.github.clearwsd.type.DepNode;
+import io.github.clearwsd.type.DepTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PooledNlpParser} tests.
+ *
+ * @author jamesgung
+ */
+public class PooledNlpParserTest {
+
+    /**
+     * Parser that fails if used concurrently.
+     */
+    private static class ExclusiveParser extends WhitespaceTokenizer implements NlpParser {
+
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private final AtomicInteger parsed = new AtomicInteger();
+
+        @Override
+        public DepTree parse(List<String> tokens) {
+            if (!busy.compareAndSet(false, true)) {
+                throw new IllegalStateException("Parser used concurrently.");
+            }
+            try {
+                Thread.sleep(1);
+                parsed.incrementAndGet();
+                List<DepNode> nodes = new ArrayList<>();
+                for (int i = 0; i < tokens.size(); ++i) {
+                    nodes.add(new DefaultDepNode(i));
+                }
+                return new DefaultDepTree(0, nodes, nodes.get(0));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                busy.set(false);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentParsing() throws Exception {
+        List<ExclusiveParser> instances = new ArrayList<>();
+        PooledNlpParser pool = new PooledNlpParser(() -> {
+            ExclusiveParser parser = new ExclusiveParser();
+            synchronized (instances) {
+                instances.add(parser);
+            }
+            return parser;
+        }, 3, Arrays.asList("warm", "up"));
+        assertEquals(3, instances.size());
+        assertEquals(ExclusiveParser.class, pool.parserClass());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<DepTree>> results = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            results.add(executor.submit(() -> pool.parse(Arrays.asList("a", "b", "c"))));
+        }
+        for (Future<DepTree> result : results) {
+            assertEquals(3, result.get().size());
+        }
+        executor.shutdown();
+
+        assertEquals(200, pool.calls());
+        assertEquals(0, pool.inUse());
+        assertTrue(pool.waits() > 0);
+        assertTrue(pool.utilization() > 0 && pool.utilization() <= 1);
+        int parsed = 0;
+        for (ExclusiveParser instance : instances) {
+            assertFalse(instance.busy.get());
+            parsed += instance.parsed.get();
+        }
+        assertEquals(203, parsed);
+    }
+
+    @Test
+    public void testParseBatchInChunks() {
+        List<ExclusiveParser> instances = new ArrayList<>();
+        PooledNlpParser pool = new PooledNlpParser(() -> {
+            ExclusiveParser parser = new ExclusiveParser();
+            synchronized (instances) {
+                instances.add(parser);
+            }
+            return parser;
+        }, 2);
+        for (ExclusiveParser instance : instances) {
+            assertEquals(1, instance.parsed.get());
+        }
+
+        List<List<String>> sentences = new ArrayList<>();
+        for (int i = 0; i < 2 * PooledNlpParser.BATCH_CHUNK + 1; ++i) {
+            sentences.add(Collections.nCopies(i + 1, "a"));
+        }
+        List<DepTree> trees = pool.parseBatch(sentences);
+        assertEquals(sentences.size(), trees.size());
+        for (int i = 0; i < trees.size(); ++i) {
+            assertEquals(i + 1, trees.get(i).size());
+        }
+        assertEquals(3, pool.calls());
+        assertEquals(0, pool.inUse());
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link WhitespaceTokenizer} tests.
+ *
+ * @author jamesgung
+ */
+public class WhitespaceTokenizerTest {
+
+    private static final String INPUT = "The dog  ran .\n\n\tIt stopped\r\n";
+
+    @Test
+    public void testSegmentTokens() {
+        List<TokenizedSentence> sentences = new WhitespaceTokenizer().segmentTokens(INPUT);
+        assertEquals(2, sentences.size());
+        assertEquals(Arrays.asList("The", "dog", "ran", "."), sentences.get(0).tokens());
+        assertEquals(Arrays.asList("It", "stopped"), sentences.get(1).tokens());
+        for (TokenizedSentence sentence : sentences) {
+            for (int i = 0; i < sentence.size(); ++i) {
+                assertEquals(sentence.tokens().get(i), INPUT.substring(sentence.begin(i), sentence.end(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testDefaultSegmentTokens() {
+        NlpTokenizer tokenizer = new NlpTokenizer() {
+            @Override
+            public List<String> segment(String input) {
+                return Arrays.asList(input.split("\\n"));
+            }
+
+            @Override
+            public List<String> tokenize(String sentence) {
+                return Arrays.asList(sentence.split(" "));
+            }
+        };
+        List<TokenizedSentence> sentences = tokenizer.segmentTokens("a b a\nb a");
+        assertEquals(2, sentences.size());
+        assertEquals(4, sentences.get(0).begin(2));
+        assertEquals(6, sentences.get(1).begin(0));
+        assertEquals(9, sentences.get(1).end(1));
+    }
+
+}
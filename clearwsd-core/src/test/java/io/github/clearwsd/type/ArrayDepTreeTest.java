@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.type;
+
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.github.clearwsd.corpus.CoNllDepTreeReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ArrayDepTree} tests.
+ *
+ * @author jamesgung
+ */
+public class ArrayDepTreeTest {
+
+    private static final String TEST_PATH = "src/test/resources/test.dep";
+
+    private static int depth(DepNode node) {
+        return node.isRoot() ? 0 : 1 + depth(node.head());
+    }
+
+    private static List<Integer> children(DepNode node) {
+        return node.children().stream().map(DepNode::index).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCopyOf() throws IOException {
+        SymbolTable symbols = new SymbolTable();
+        for (DepTree tree : new CoNllDepTreeReader().readInstances(new FileInputStream(TEST_PATH))) {
+            tree.get(2).addFeature(FeatureType.Sense, "sense");
+            tree.addFeature(FeatureType.Text, "text");
+            ArrayDepTree copy = ArrayDepTree.copyOf(tree, symbols);
+            assertEquals(CoNllDepTreeReader.treeToString(tree, "Sense"), CoNllDepTreeReader.treeToString(copy, "Sense"));
+            assertEquals(tree.root().index(), copy.root().index());
+            assertEquals("text", copy.feature(FeatureType.Text));
+            for (DepNode node : tree) {
+                DepNode view = copy.get(node.index());
+                assertSame(view, copy.tokens().get(node.index()));
+                assertEquals(children(node), children(view));
+                assertEquals(depth(node), copy.depth(node.index()));
+                assertEquals(node.features(), view.features());
+            }
+        }
+        assertTrue(symbols.size() > 0);
+    }
+
+    @Test
+    public void testAddFeature() {
+        ArrayDepTree tree = new ArrayDepTree(0, new SymbolTable(), new int[]{1, -1},
+                new String[]{"dogs", "bark"}, null, new String[]{"NNS", "VBP"}, new String[]{"nsubj", "root"});
+        DepNode dog = tree.get(0);
+        assertNull(dog.feature(FeatureType.Lemma));
+        dog.addFeature(FeatureType.Lemma, "dog");
+        dog.features().put("Cluster", 7);
+        assertEquals("dog", dog.feature(FeatureType.Lemma));
+        assertEquals(7, (int) dog.feature("Cluster"));
+        assertEquals(5, dog.features().size());
+        assertSame(tree.root(), dog.head());
+        assertEquals("nsubj", dog.dep());
+    }
+
+    @Test
+    public void testReadCompact() throws IOException {
+        List<DepTree> expected = new CoNllDepTreeReader().readInstances(new FileInputStream(TEST_PATH));
+        List<DepTree> trees = new CoNllDepTreeReader().symbols(new SymbolTable()).readInstances(Paths.get(TEST_PATH));
+        assertEquals(expected.size(), trees.size());
+        for (int i = 0; i < trees.size(); ++i) {
+            assertTrue(trees.get(i) instanceof ArrayDepTree);
+            assertEquals(i, trees.get(i).index());
+            assertEquals(CoNllDepTreeReader.treeToString(expected.get(i)), CoNllDepTreeReader.treeToString(trees.get(i)));
+        }
+    }
+
+}
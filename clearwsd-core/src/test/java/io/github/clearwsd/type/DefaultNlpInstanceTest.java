@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.type;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit tests for {@link DefaultNlpInstance}.
+ *
+ * @author jamesgung
+ */
+public class DefaultNlpInstanceTest {
+
+    @Test
+    public void testFeatureTypeSlots() {
+        DefaultNlpInstance instance = new DefaultNlpInstance(0);
+        instance.addFeature(FeatureType.Text, "dogs");
+        instance.addFeature(FeatureType.Lemma.name(), "dog");
+        assertEquals("dogs", instance.feature(FeatureType.Text.name()));
+        assertEquals("dogs", instance.feature(FeatureType.Text.ordinal()));
+        assertEquals("dog", instance.feature(FeatureType.Lemma));
+        assertNull(instance.feature(FeatureType.Pos));
+    }
+
+    @Test
+    public void testRegisteredSlot() {
+        DefaultNlpInstance instance = new DefaultNlpInstance(0);
+        instance.addFeature("unregistered-resource", "before");
+        int slot = FeatureSlots.register("unregistered-resource");
+        assertEquals("before", instance.feature(slot));
+        instance.addFeature(slot, "after");
+        assertEquals("after", instance.feature("unregistered-resource"));
+        assertEquals(1, instance.features().size());
+    }
+
+    @Test
+    public void testFeaturesView() {
+        DefaultNlpInstance instance = new DefaultNlpInstance(3);
+        instance.addFeature(FeatureType.Text, "dogs");
+        instance.addFeature("other-feature", 7);
+        Map<String, Object> features = instance.features();
+        assertEquals(2, features.size());
+        assertEquals(7, features.get("other-feature"));
+        features.put(FeatureType.Pos.name(), "NNS");
+        assertEquals("NNS", instance.feature(FeatureType.Pos));
+        features.remove("other-feature");
+        assertNull(instance.feature("other-feature"));
+        assertEquals("3\tPos:NNS\tText:dogs", instance.toString());
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.type;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Unit tests for {@link SymbolTable}.
+ *
+ * @author jamesgung
+ */
+public class SymbolTableTest {
+
+    @Test
+    public void testIntern() {
+        SymbolTable symbols = new SymbolTable();
+        String dog = symbols.intern(new String("dog"));
+        assertSame(dog, symbols.intern(new String("dog")));
+        assertEquals(dog, symbols.symbol(symbols.id("dog")));
+        assertNull(symbols.intern(null));
+    }
+
+    @Test
+    public void testBounded() {
+        SymbolTable symbols = new SymbolTable(2);
+        assertEquals(0, symbols.id("a"));
+        assertEquals(1, symbols.id("b"));
+        assertEquals(-1, symbols.id("c"));
+        assertEquals(0, symbols.id("a"));
+        String c = new String("c");
+        assertSame(c, symbols.intern(c));
+        assertEquals(2, symbols.size());
+    }
+
+    @Test
+    public void testLowercase() {
+        SymbolTable symbols = new SymbolTable();
+        int id = symbols.id("Dog");
+        int lowercase = symbols.lowercase(id);
+        assertEquals("dog", symbols.symbol(lowercase));
+        assertEquals(lowercase, symbols.lowercase(lowercase));
+        symbols.id("DOG");
+        assertSame(symbols.lowercase("Dog"), symbols.lowercase("DOG"));
+        // strings not in the table are lowercased without being added
+        assertEquals("cat", symbols.lowercase("Cat"));
+        assertEquals(-1, symbols.find("Cat"));
+        assertEquals(3, symbols.size());
+    }
+
+    @Test
+    public void testBoundedTree() {
+        ArrayDepTree tree = new ArrayDepTree(0, new SymbolTable(3), new int[]{1, -1},
+                new String[]{"The", "Dogs"}, new String[]{"the", "dog"}, null, null);
+        assertEquals("Dogs", tree.get(1).feature(FeatureType.Text));
+        assertEquals("dog", tree.get(1).feature(FeatureType.Lemma));
+        assertEquals("dogs", tree.lowercaseText(1));
+        assertEquals("the", tree.lowercaseText(0));
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ParallelUtils} tests.
+ *
+ * @author jamesgung
+ */
+public class ParallelUtilsTest {
+
+    @Test
+    public void testForEachOrdered() {
+        List<Integer> inputs = IntStream.range(0, 500).boxed().collect(Collectors.toList());
+        AtomicInteger read = new AtomicInteger();
+        List<Integer> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ParallelUtils.forEachOrdered(inputs.stream().peek(i -> read.incrementAndGet()).iterator(), i -> {
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(2));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return i * 2;
+            }, result -> {
+                // inputs are never read more than a window ahead of the output (plus one buffered by the iterator)
+                assertTrue(read.get() - results.size() <= 9);
+                results.add(result);
+            }, executor, 8);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(inputs.size(), results.size());
+        for (int i = 0; i < results.size(); ++i) {
+            assertEquals(2 * i, (int) results.get(i));
+        }
+    }
+
+}
@@ -32,6 +32,7 @@ import io.github.clearwsd.type.DefaultDepTree;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.SymbolTable;
 
 /**
  * Dependency parser implementation wrapping <a href="https://emorynlp.github.io/nlp4j/">NLP4J</a>. Applies part-of-speech
@@ -68,13 +69,14 @@ public class Nlp4jDependencyParser implements NlpParser {
         NLPNode[] tree = nlp4j.decode(nlp4j.toNodeArray(tokens.stream().map(Token::new).collect(Collectors.toList())));
         List<DepNode> depNodes = new ArrayList<>();
         Map<Integer, Integer> headMap = new HashMap<>();
+        SymbolTable symbols = SymbolTable.shared();
         for (int i = 1; i < tree.length; ++i) {
             NLPNode node = tree[i];
             DefaultDepNode depNode = new DefaultDepNode(i - 1);
-            depNode.addFeature(FeatureType.Text, node.getWordForm());
-            depNode.addFeature(FeatureType.Pos, node.getPartOfSpeechTag());
-            depNode.addFeature(FeatureType.Dep, node.getDependencyLabel());
-            depNode.addFeature(FeatureType.Lemma, node.getLemma());
+            depNode.addFeature(FeatureType.Text, symbols.intern(node.getWordForm()));
+            depNode.addFeature(FeatureType.Pos, symbols.intern(node.getPartOfSpeechTag()));
+            depNode.addFeature(FeatureType.Dep, symbols.intern(node.getDependencyLabel()));
+            depNode.addFeature(FeatureType.Lemma, symbols.intern(node.getLemma()));
             headMap.put(i - 1, node.getDependencyHead().getID() - 1);
             depNodes.add(depNode);
         }
@@ -107,6 +109,24 @@ public class Nlp4jDependencyParser implements NlpParser {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<TokenizedSentence> segmentTokens(String input) {
+        List<TokenizedSentence> results = new ArrayList<>();
+        for (List<Token> sentence : tokenizer.segmentize(input)) {
+            List<String> tokens = new ArrayList<>(sentence.size());
+            int[] begins = new int[sentence.size()];
+            int[] ends = new int[sentence.size()];
+            for (int i = 0; i < sentence.size(); ++i) {
+                Token token = sentence.get(i);
+                tokens.add(token.getWordForm());
+                begins[i] = token.getStartOffset();
+                ends[i] = token.getEndOffset();
+            }
+            results.add(new TokenizedSentence(tokens, begins, ends));
+        }
+        return results;
+    }
+
     public static void main(String[] args) {
         Nlp4jDependencyParser parser = new Nlp4jDependencyParser();
         List<String> tokens = parser.tokenize("This is a test");
@@ -18,6 +18,7 @@ package io.github.clearwsd.parser;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import io.github.clearwsd.type.DepNode;
@@ -47,4 +48,20 @@ public class Nlp4jDependencyParserTest {
         assertEquals(3, root.children().size());
     }
 
+    @Test
+    public void segmentTokens() {
+        Nlp4jDependencyParser parser = new Nlp4jDependencyParser();
+        String input = "Mr. Smith said \"it's over (for now)\" to the U.S. Army in Jan. 2010. "
+                + "Then he left [quietly] -- or so 'they' say! Did Dr. Jones, Jr. agree? {Yes} it's \"fine.\"";
+        List<List<String>> expected = new ArrayList<>();
+        for (String sentence : parser.segment(input)) {
+            expected.add(parser.tokenize(sentence));
+        }
+        List<List<String>> result = new ArrayList<>();
+        for (TokenizedSentence sentence : parser.segmentTokens(input)) {
+            result.add(sentence.tokens());
+        }
+        assertEquals(expected, result);
+    }
+
 }
\ No newline at end of file
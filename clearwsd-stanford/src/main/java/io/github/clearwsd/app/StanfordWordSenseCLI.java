@@ -17,8 +17,13 @@
 
 package io.github.clearwsd.app;
 
+import com.beust.jcommander.Parameter;
+
 import io.github.clearwsd.parser.NlpParser;
+import io.github.clearwsd.parser.NlpTokenizer;
 import io.github.clearwsd.parser.StanfordDependencyParser;
+import io.github.clearwsd.parser.StanfordDependencyParser.StanfordParserModel;
+import io.github.clearwsd.parser.StanfordTokenizer;
 
 /**
  * Word sense classifier CLI with Stanford Parser.
@@ -27,13 +32,38 @@ import io.github.clearwsd.parser.StanfordDependencyParser;
  */
 public class StanfordWordSenseCLI extends WordSenseCLI {
 
+    // parameters are parsed by the superclass constructor, so defaults are applied on use rather than by field initializers
+    @Parameter(names = "-parserModel", description = "Stanford dependency parser model (UD by default)")
+    private StanfordParserModel parserModel;
+    @Parameter(names = "--basicDeps", description = "Use basic rather than collapsed dependency labels")
+    private boolean basicDependencies;
+    @Parameter(names = "-parserThreads", description = "Number of threads used by each parser instance to parse batches")
+    private Integer parserThreads;
+
     private StanfordWordSenseCLI(String[] args) {
         super(args);
     }
 
     @Override
     protected NlpParser parser() {
-        return new StanfordDependencyParser();
+        return new StanfordDependencyParser(model())
+                .collapsed(!basicDependencies)
+                .threads(parserThreads == null ? 1 : parserThreads);
+    }
+
+    @Override
+    protected NlpTokenizer tokenizer() {
+        return new StanfordTokenizer();
+    }
+
+    @Override
+    protected String parserConfig() {
+        return String.format("model=%s,collapsed=%s,tokenizer=%s", model().getPath(), !basicDependencies,
+                StanfordTokenizer.class.getName());
+    }
+
+    private StanfordParserModel model() {
+        return parserModel == null ? StanfordParserModel.UD : parserModel;
     }
 
     public static void main(String[] args) {
@@ -17,12 +17,18 @@
 
 package io.github.clearwsd.parser;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import edu.stanford.nlp.international.Language;
@@ -37,7 +43,10 @@ import io.github.clearwsd.type.DefaultDepTree;
 import io.github.clearwsd.type.DepNode;
 import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
+import io.github.clearwsd.type.SymbolTable;
 import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
 
 import static edu.stanford.nlp.parser.nndep.DependencyParser.DEFAULT_MODEL;
 import static edu.stanford.nlp.parser.nndep.DependencyParser.loadFromModelFile;
@@ -45,6 +54,9 @@ import static edu.stanford.nlp.parser.nndep.DependencyParser.loadFromModelFile;
 /**
  * Dependency parser implementation wrapping the Stanford parser. Applies part-of-speech annotation and performs lemmatization
  * during parsing, adding {@link FeatureType#Pos} and {@link FeatureType#Lemma} features. Components are threadsafe.
+ * <p>
+ * Dependency labels are taken from collapsed dependencies where available, unless {@link #collapsed(boolean)} is disabled,
+ * in which case only basic dependencies are computed.
  *
  * @author jamesgung
  */
@@ -69,6 +81,23 @@ public class StanfordDependencyParser implements NlpParser {
     private NlpTokenizer nlpTokenizer;
     private MaxentTagger posTagger;
     private DependencyParser depParser;
+    private ThreadLocal<Morphology> lemmatizers = ThreadLocal.withInitial(Morphology::new);
+
+    /**
+     * Use collapsed dependency labels where available (default), at the cost of an additional pass to collapse dependencies.
+     */
+    @Getter
+    @Setter
+    @Accessors(fluent = true, chain = true)
+    private boolean collapsed = true;
+    /**
+     * Number of threads used to parse batches of sentences.
+     */
+    @Getter
+    @Accessors(fluent = true)
+    private int threads = 1;
+    // threads used to parse batches, created on first use and reused (along with their lemmatizers) until closed
+    private ExecutorService executor;
 
     /**
      * Constructor with a specific StanfordCoreNLP part-of-speech tagger and dependency parser.
@@ -111,11 +140,86 @@ public class StanfordDependencyParser implements NlpParser {
         return nlpTokenizer.tokenize(sentence);
     }
 
+    @Override
+    public List<TokenizedSentence> segmentTokens(String input) {
+        return nlpTokenizer.segmentTokens(input);
+    }
+
     @Override
     public DepTree parse(List<String> sentence) {
         return parseTokens(tag(sentence));
     }
 
+    /**
+     * Set the number of threads used to parse batches of sentences, stopping any threads previously used to parse batches.
+     *
+     * @param threads number of threads
+     * @return this parser
+     */
+    public StanfordDependencyParser threads(int threads) {
+        close();
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Parse a batch of sentences. The Stanford neural dependency parser does not expose batched prediction, so sentences are
+     * tagged and parsed independently, in parallel if {@link #threads(int)} is greater than 1. Parsing threads are created once
+     * and reused across batches until {@link #close()}.
+     *
+     * @param sentences tokenized sentences
+     * @return syntactic dependency trees, in input order
+     */
+    @Override
+    public List<DepTree> parseBatch(List<List<String>> sentences) {
+        List<DepTree> trees = new ArrayList<>(sentences.size());
+        if (threads <= 1 || sentences.size() <= 1) {
+            for (List<String> sentence : sentences) {
+                trees.add(parse(sentence));
+            }
+            return trees;
+        }
+        List<Future<DepTree>> results = new ArrayList<>(sentences.size());
+        try {
+            ExecutorService service = executor();
+            for (List<String> sentence : sentences) {
+                results.add(service.submit(() -> parse(sentence)));
+            }
+            for (Future<DepTree> result : results) {
+                trees.add(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while parsing sentences.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error while parsing sentence: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            results.forEach(result -> result.cancel(true));
+        }
+        return trees;
+    }
+
+    /**
+     * Stop the threads used to parse batches, if any. The parser remains usable, and creates new threads for later batches.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                    .setNameFormat("stanford-parser-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+        return executor;
+    }
+
     private List<CoreLabel> getStanfordTokens(List<String> tokens) {
         List<CoreLabel> cls = new ArrayList<>();
         for (String token : tokens) {
@@ -135,7 +239,7 @@ public class StanfordDependencyParser implements NlpParser {
     }
 
     private List<CoreLabel> lemmatize(List<CoreLabel> words) {
-        Morphology lemmatizer = new Morphology();
+        Morphology lemmatizer = lemmatizers.get();
         for (CoreLabel word : words) {
             word.setLemma(lemmatizer.lemma(word.word(), word.tag()));
         }
@@ -143,14 +247,15 @@ public class StanfordDependencyParser implements NlpParser {
     }
 
     private List<DepNode> toTokens(List<CoreLabel> cls) {
+        SymbolTable symbols = SymbolTable.shared();
         int index = 0;
         List<DepNode> tokens = new ArrayList<>();
         for (Iterator<CoreLabel> iterator = cls.iterator(); iterator.hasNext(); ++index) {
             CoreLabel coreLabel = iterator.next();
             DefaultDepNode token = new DefaultDepNode(index);
-            token.addFeature(FeatureType.Text, coreLabel.originalText());
-            token.addFeature(FeatureType.Lemma, coreLabel.lemma());
-            token.addFeature(FeatureType.Pos, coreLabel.tag());
+            token.addFeature(FeatureType.Text, symbols.intern(coreLabel.originalText()));
+            token.addFeature(FeatureType.Lemma, symbols.intern(coreLabel.lemma()));
+            token.addFeature(FeatureType.Pos, symbols.intern(coreLabel.tag()));
             tokens.add(token);
         }
         return tokens;
@@ -163,20 +268,21 @@ public class StanfordDependencyParser implements NlpParser {
                 .stream().collect(Collectors.toMap(dep -> dep.dep().index(), dep -> dep));
 
         Map<Integer, TypedDependency> collapsedDeps = new HashMap<>();
-        for (TypedDependency dependency : structure.typedDependenciesCollapsed()) {
-            collapsedDeps.put(dependency.dep().index(), dependency);
+        if (collapsed) {
+            for (TypedDependency dependency : structure.typedDependenciesCollapsed()) {
+                collapsedDeps.put(dependency.dep().index(), dependency);
+            }
         }
 
         DepNode root = null;
         for (DepNode token : tokens) {
             int index = token.index() + 1;
             TypedDependency rel = collapsedDeps.get(index);
-            TypedDependency collapsedRel = dependencyMap.get(index);
-            boolean collapsed = rel == null;
-            if (collapsed || (rel.dep().index() == rel.gov().index()) || collapsedRel.gov().index() <= 0) {
-                rel = collapsedRel;
+            TypedDependency basicRel = dependencyMap.get(index);
+            if (rel == null || (rel.dep().index() == rel.gov().index()) || basicRel.gov().index() <= 0) {
+                rel = basicRel;
             }
-            token.addFeature(FeatureType.Dep, rel.reln().toString());
+            token.addFeature(FeatureType.Dep, SymbolTable.shared().intern(rel.reln().toString()));
             int head = rel.gov().index() - 1;
             if (head >= 0) {
                 ((DefaultDepNode) token).head(tokens.get(head));
@@ -21,6 +21,7 @@ import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
+import edu.stanford.nlp.ling.CoreLabel;
 import edu.stanford.nlp.ling.HasWord;
 import edu.stanford.nlp.ling.SentenceUtils;
 import edu.stanford.nlp.process.DocumentPreprocessor;
@@ -63,4 +64,24 @@ public class StanfordTokenizer implements NlpTokenizer {
         return tokens;
     }
 
+    @Override
+    public List<TokenizedSentence> segmentTokens(String input) {
+        // the default PTB tokenizer of the preprocessor produces the same (escaped) tokens as tokenize
+        DocumentPreprocessor preprocessor = new DocumentPreprocessor(new StringReader(input));
+        List<TokenizedSentence> results = new ArrayList<>();
+        for (List<HasWord> sentence : preprocessor) {
+            List<String> tokens = new ArrayList<>(sentence.size());
+            int[] begins = new int[sentence.size()];
+            int[] ends = new int[sentence.size()];
+            for (int i = 0; i < sentence.size(); ++i) {
+                CoreLabel token = (CoreLabel) sentence.get(i);
+                tokens.add(token.word());
+                begins[i] = token.beginPosition();
+                ends[i] = token.endPosition();
+            }
+            results.add(new TokenizedSentence(tokens, begins, ends));
+        }
+        return results;
+    }
+
 }
@@ -20,6 +20,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -28,6 +29,7 @@ import io.github.clearwsd.type.DepTree;
 import io.github.clearwsd.type.FeatureType;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -39,7 +41,7 @@ import static org.junit.Assert.assertTrue;
  */
 public class StanfordDependencyParserTest {
 
-    private static NlpParser parser;
+    private static StanfordDependencyParser parser;
 
     private List<String> tokens;
     private DepTree parse;
@@ -107,4 +109,54 @@ public class StanfordDependencyParserTest {
         assertEquals(0, parse.get(4).children().size());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testParseBatchOrder() {
+        List<List<String>> sentences = new ArrayList<>();
+        for (String sentence : parser.segment("My dog has fleas. The cat sat on the mat. Birds fly south in the winter. "
+                + "It rained. John gave Mary a book about the history of Rome. She left.")) {
+            sentences.add(parser.tokenize(sentence));
+        }
+        assertEquals(6, sentences.size());
+        parser.threads(3);
+        try {
+            List<DepTree> trees = parser.parseBatch(sentences);
+            assertEquals(sentences.size(), trees.size());
+            for (int i = 0; i < sentences.size(); ++i) {
+                DepTree expected = parser.parse(sentences.get(i));
+                DepTree tree = trees.get(i);
+                assertEquals(expected.size(), tree.size());
+                for (int j = 0; j < tree.size(); ++j) {
+                    assertEquals(sentences.get(i).get(j), tree.get(j).<String>feature(FeatureType.Text));
+                    assertEquals(expected.get(j).<String>feature(FeatureType.Dep), tree.get(j).<String>feature(FeatureType.Dep));
+                    assertEquals(expected.get(j).isRoot(), tree.get(j).isRoot());
+                }
+            }
+        } finally {
+            parser.threads(1);
+        }
+    }
+
+    @Test
+    public void testBasicDependencies() {
+        List<String> sentence = parser.tokenize("The house of the president burned.");
+        DepTree collapsed = parser.parse(sentence);
+        assertEquals("nmod:of", collapsed.get(4).feature(FeatureType.Dep));
+        parser.collapsed(false);
+        try {
+            DepTree basic = parser.parse(sentence);
+            assertEquals("nmod", basic.get(4).feature(FeatureType.Dep));
+            for (int i = 0; i < basic.size(); ++i) {
+                assertFalse(((String) basic.get(i).feature(FeatureType.Dep)).contains(":"));
+                assertEquals(collapsed.get(i).isRoot(), basic.get(i).isRoot());
+            }
+        } finally {
+            parser.collapsed(true);
+        }
+    }
+
+    @Test
+    public void testSegmentTokens() {
+        StanfordTokenizerTest.checkSegmentTokens(parser, StanfordTokenizerTest.INPUT);
+    }
+
+}
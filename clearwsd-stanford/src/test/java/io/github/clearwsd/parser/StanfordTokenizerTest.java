@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 James Gung
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.clearwsd.parser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link StanfordTokenizer} tests.
+ *
+ * @author jamesgung
+ */
+public class StanfordTokenizerTest {
+
+    static final String INPUT = "Mr. Smith said \"it's over (for now)\" to the U.S. Army in Jan. 2010. "
+            + "Then he left [quietly] -- or so 'they' say! Did Dr. Jones, Jr. agree? {Yes} it's \"fine.\"";
+
+    static void checkSegmentTokens(NlpTokenizer tokenizer, String input) {
+        List<TokenizedSentence> sentences = tokenizer.segmentTokens(input);
+        List<List<String>> expected = new ArrayList<>();
+        for (String sentence : tokenizer.segment(input)) {
+            expected.add(tokenizer.tokenize(sentence));
+        }
+        List<List<String>> result = new ArrayList<>();
+        for (TokenizedSentence sentence : sentences) {
+            result.add(sentence.tokens());
+        }
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testSegmentTokens() {
+        StanfordTokenizer tokenizer = new StanfordTokenizer();
+        checkSegmentTokens(tokenizer, INPUT);
+        List<TokenizedSentence> sentences = tokenizer.segmentTokens(INPUT);
+        assertEquals(4, sentences.size());
+        assertEquals("-LRB-", sentences.get(0).tokens().get(7));
+        assertEquals("(", INPUT.substring(sentences.get(0).begin(7), sentences.get(0).end(7)));
+        for (TokenizedSentence sentence : sentences) {
+            for (int i = 0; i < sentence.size(); ++i) {
+                String token = sentence.tokens().get(i);
+                if (Character.isLetterOrDigit(token.charAt(0))) {
+                    // quotes and brackets are escaped, and so differ from the input text
+                    assertEquals(token, INPUT.substring(sentence.begin(i), sentence.end(i)));
+                }
+            }
+        }
+    }
+
+}